@@ -0,0 +1,83 @@
+package com.restapi.demo.transaction.archive;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The string dictionary of an archive file, read in place from two buffers: the UTF-8 bytes of all entries, sorted by
+ * their unsigned byte values, and an offsets table of {@code size + 1} ints where entry {@code i} spans
+ * {@code offsets[i - 1]} to {@code offsets[i]}. Entries are numbered from 1; index 0 stands for {@code null}.
+ * <p>
+ * Lookups binary search the buffers, so nothing proportional to the number of entries is kept on the heap. Only
+ * absolute reads are used, so a dictionary can be shared between threads.
+ */
+final class ArchiveDictionary {
+
+    private final ByteBuffer offsets;
+    private final ByteBuffer bytes;
+    private final int size;
+
+    /**
+     * Wraps the given dictionary buffers.
+     *
+     * @param offsets the offsets table
+     * @param bytes   the entry bytes
+     */
+    ArchiveDictionary(ByteBuffer offsets, ByteBuffer bytes) {
+        this.offsets = offsets;
+        this.bytes = bytes;
+        this.size = offsets.capacity() / Integer.BYTES - 1;
+    }
+
+    /**
+     * Returns the index of the given entry.
+     *
+     * @param value the entry to look up
+     * @return the index of the entry, or 0 if the dictionary does not hold it
+     */
+    int indexOf(String value) {
+        byte[] key = value.getBytes(StandardCharsets.UTF_8);
+        int low = 1;
+        int high = size;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(mid, key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Decodes the entry at the given index.
+     *
+     * @param index the index of the entry
+     * @return the entry, or {@code null} for index 0
+     */
+    String get(int index) {
+        if (index == 0) {
+            return null;
+        }
+        int start = offsets.getInt((index - 1) * Integer.BYTES);
+        byte[] value = new byte[offsets.getInt(index * Integer.BYTES) - start];
+        bytes.get(start, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private int compare(int index, byte[] key) {
+        int start = offsets.getInt((index - 1) * Integer.BYTES);
+        int length = offsets.getInt(index * Integer.BYTES) - start;
+        for (int i = 0, common = Math.min(length, key.length); i < common; i++) {
+            int comparison = Integer.compare(bytes.get(start + i) & 0xFF, key[i] & 0xFF);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
@@ -0,0 +1,24 @@
+package com.restapi.demo.transaction.archive;
+
+/**
+ * Receives the rows of an archive file as they are decoded. Account ids, directions and statuses are decoded once per
+ * scan and shared between rows, and amounts are passed unscaled, so scanning an archive allocates little per row.
+ */
+@FunctionalInterface
+public interface ArchivedPaymentVisitor {
+
+    /**
+     * Visits a single archived payment.
+     *
+     * @param id              the payment ID
+     * @param createdAtMicros the payment creation time in microseconds since the epoch
+     * @param fromAccount     the sending account ID, may be {@code null}
+     * @param toAccount       the receiving account ID, may be {@code null}
+     * @param direction       the payment direction
+     * @param status          the payment status, may be {@code null}
+     * @param unscaledAmount  the unscaled payment amount
+     * @param scale           the scale of the payment amount
+     */
+    void visit(long id, long createdAtMicros, String fromAccount, String toAccount, String direction,
+               String status, long unscaledAmount, int scale);
+}
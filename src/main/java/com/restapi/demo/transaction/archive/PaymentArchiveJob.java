@@ -0,0 +1,110 @@
+package com.restapi.demo.transaction.archive;
+
+import com.restapi.demo.transaction.repository.PaymentPartitionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Moves aged monthly partitions of the payments table into archive files.
+ * <p>
+ * For every partition older than the retention period the job streams the rows into an archive file, checks that
+ * the file holds as many rows as the partition and only then drops the partition. A run interrupted between writing
+ * the file and dropping the partition is finished by the next run. Each run also makes sure partitions exist for the
+ * coming months so that new payments never land in the catch-all partition.
+ */
+@Component
+public class PaymentArchiveJob {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentArchiveJob.class);
+
+    private final PaymentPartitionRepository partitionRepository;
+    private final PaymentArchiveStore archiveStore;
+    private final int retentionMonths;
+    private final int monthsAhead;
+
+    /**
+     * Constructs a PaymentArchiveJob.
+     *
+     * @param partitionRepository The PaymentPartitionRepository to use for reading and dropping partitions.
+     * @param archiveStore        The PaymentArchiveStore to write archive files to.
+     * @param retentionMonths     The number of months, including the current one, kept in the payments table.
+     * @param monthsAhead         The number of future months to create partitions for.
+     */
+    @Autowired
+    public PaymentArchiveJob(PaymentPartitionRepository partitionRepository, PaymentArchiveStore archiveStore,
+                             @Value("${payments.archive.retention-months:13}") int retentionMonths,
+                             @Value("${payments.archive.months-ahead:3}") int monthsAhead) {
+        this.partitionRepository = partitionRepository;
+        this.archiveStore = archiveStore;
+        this.retentionMonths = retentionMonths;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Creates upcoming partitions and archives every partition that has aged out of the retention period.
+     */
+    @Scheduled(cron = "${payments.archive.cron:0 30 2 * * *}", zone = "UTC")
+    public void run() {
+        YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+        partitionRepository.createPartitionsThrough(currentMonth.plusMonths(monthsAhead));
+
+        YearMonth oldestRetained = currentMonth.minusMonths(retentionMonths - 1L);
+        for (String partition : partitionRepository.findMonthlyPartitions()) {
+            if (PaymentPartitionRepository.monthOf(partition).isBefore(oldestRetained)) {
+                archive(partition);
+            }
+        }
+    }
+
+    /**
+     * Archives a single partition and drops it once the archive file has been verified.
+     *
+     * @param partition the partition name
+     */
+    public void archive(String partition) {
+        long expectedRows = partitionRepository.countPartition(partition);
+        if (!archiveStore.contains(partition)) {
+            writeArchive(partition);
+        }
+        long archivedRows = archiveStore.get(partition).getRowCount();
+        if (archivedRows != expectedRows) {
+            log.error("Not dropping partition {}: archive holds {} rows but the partition holds {}",
+                    partition, archivedRows, expectedRows);
+            return;
+        }
+        partitionRepository.dropPartition(partition);
+        log.info("Archived and dropped payments partition {} ({} rows)", partition, archivedRows);
+    }
+
+    private void writeArchive(String partition) {
+        try (PaymentArchiveWriter writer = archiveStore.newWriter(partition)) {
+            partitionRepository.streamPartition(partition, rs -> {
+                try {
+                    writer.append(rs.getLong("id"),
+                            rs.getObject("created_at", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+                            rs.getString("from_account"),
+                            rs.getString("to_account"),
+                            rs.getString("direction"),
+                            rs.getString("status"),
+                            rs.getBigDecimal("amount"));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive payments partition " + partition, e);
+        }
+        archiveStore.register(partition);
+    }
+}
@@ -0,0 +1,269 @@
+package com.restapi.demo.transaction.archive;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.AMOUNT;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.COLUMN_COUNT;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.CREATED_AT;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.DIRECTION;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.FROM_ACCOUNT;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.ID;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.STATUS;
+import static com.restapi.demo.transaction.archive.PaymentArchiveWriter.TO_ACCOUNT;
+
+/**
+ * Reads an archive file written by {@link PaymentArchiveWriter} through memory-mapped buffers.
+ * <p>
+ * Only the header is read onto the heap. Accounts are looked up by binary search in the mapped dictionary, and a scan
+ * for one account follows the account's row index and decodes only the blocks holding its rows. Every scan decodes
+ * through its own views of the buffers, so a reader can be shared between threads.
+ */
+public class PaymentArchiveReader {
+
+    private final Path path;
+    private final long rowCount;
+    private final long minCreatedAtMicros;
+    private final long maxCreatedAtMicros;
+    private final int blockRows;
+    private final ArchiveDictionary dictionary;
+    private final MappedByteBuffer rowIndexOffsets;
+    private final MappedByteBuffer rowIndex;
+    private final MappedByteBuffer[] blocks = new MappedByteBuffer[COLUMN_COUNT];
+    private final MappedByteBuffer[] columns = new MappedByteBuffer[COLUMN_COUNT];
+
+    /**
+     * Opens the archive file at the given path.
+     *
+     * @param path the archive file to read
+     * @throws IOException if the file cannot be read or is not a payment archive
+     */
+    public PaymentArchiveReader(Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if (in.readInt() != PaymentArchiveWriter.MAGIC) {
+                throw new IOException("Not a payment archive: " + path);
+            }
+            int version = in.readInt();
+            if (version != PaymentArchiveWriter.VERSION) {
+                throw new IOException("Unsupported payment archive version " + version + ": " + path);
+            }
+            rowCount = in.readLong();
+            minCreatedAtMicros = in.readLong();
+            maxCreatedAtMicros = in.readLong();
+            blockRows = in.readInt();
+
+            long[] lengths = new long[PaymentArchiveWriter.SECTION_COUNT];
+            for (int i = 0; i < lengths.length; i++) {
+                lengths[i] = in.readLong();
+            }
+            long offset = 4 + 4 + 8 + 8 + 8 + 4 + 8L * lengths.length;
+            MappedByteBuffer[] sections = new MappedByteBuffer[lengths.length];
+            for (int i = 0; i < lengths.length; i++) {
+                sections[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, lengths[i]);
+                offset += lengths[i];
+            }
+            dictionary = new ArchiveDictionary(sections[0], sections[1]);
+            rowIndexOffsets = sections[2];
+            rowIndex = sections[3];
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                blocks[i] = sections[4 + 2 * i];
+                columns[i] = sections[5 + 2 * i];
+            }
+        }
+    }
+
+    /**
+     * Returns the path of the archive file.
+     *
+     * @return the archive file path
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the number of payments in the archive.
+     *
+     * @return the number of archived payments
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the creation time of the oldest payment in the archive.
+     *
+     * @return the oldest creation time
+     */
+    public Instant getMinCreatedAt() {
+        return toInstant(minCreatedAtMicros);
+    }
+
+    /**
+     * Returns the creation time of the newest payment in the archive.
+     *
+     * @return the newest creation time
+     */
+    public Instant getMaxCreatedAt() {
+        return toInstant(maxCreatedAtMicros);
+    }
+
+    /**
+     * Returns whether the given account appears in the archive at all.
+     *
+     * @param accountId the account ID to look up
+     * @return {@code true} if any archived payment was sent from or to the account
+     */
+    public boolean mentions(String accountId) {
+        return rowsOf(accountId).hasRemaining();
+    }
+
+    /**
+     * Visits every payment in the archive in the order it was written.
+     *
+     * @param visitor the visitor to receive the payments
+     */
+    public void scan(ArchivedPaymentVisitor visitor) {
+        Cursor cursor = new Cursor();
+        for (long row = 0; row < rowCount; row++) {
+            cursor.next();
+            cursor.visit(visitor);
+        }
+    }
+
+    /**
+     * Visits every payment sent from or to the given account, in the order it was written. Only the blocks holding
+     * the account's rows are decoded, and nothing is decoded if the account does not appear in the archive.
+     *
+     * @param accountId the account ID to filter on
+     * @param visitor   the visitor to receive the payments
+     */
+    public void scan(String accountId, ArchivedPaymentVisitor visitor) {
+        ByteBuffer rows = rowsOf(accountId);
+        Cursor cursor = new Cursor();
+        long row = 0;
+        while (rows.hasRemaining()) {
+            row += readVarLong(rows);
+            cursor.seek(row);
+            cursor.next();
+            cursor.visit(visitor);
+        }
+    }
+
+    /**
+     * Returns the row number deltas of the given account, or an empty buffer if it does not appear in the archive.
+     */
+    private ByteBuffer rowsOf(String accountId) {
+        int index = dictionary.indexOf(accountId);
+        if (index == 0) {
+            return ByteBuffer.allocate(0);
+        }
+        int start = rowIndexOffsets.getInt((index - 1) * Integer.BYTES);
+        int end = rowIndexOffsets.getInt(index * Integer.BYTES);
+        return rowIndex.slice(start, end - start);
+    }
+
+    /**
+     * Converts microseconds since the epoch, as passed to {@link ArchivedPaymentVisitor}, to an {@link Instant}.
+     *
+     * @param micros microseconds since the epoch
+     * @return the corresponding instant
+     */
+    public static Instant toInstant(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    /**
+     * Decodes rows one after another from its own views of the columns, and can jump to the start of any block.
+     * Dictionary entries are decoded once per cursor.
+     */
+    private final class Cursor {
+
+        private final ByteBuffer[] buffers = new ByteBuffer[COLUMN_COUNT];
+        private final Map<Integer, String> strings = new HashMap<>();
+        private long nextRow;
+        private long id;
+        private long createdAt;
+        private int from;
+        private int to;
+        private int direction;
+        private int scale;
+        private long unscaled;
+        private int status;
+
+        Cursor() {
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                buffers[i] = columns[i].duplicate();
+            }
+        }
+
+        /**
+         * Positions the cursor so that {@link #next()} decodes the given row, decoding forward from the current row
+         * if both are in the same block.
+         */
+        void seek(long row) {
+            long block = row / blockRows;
+            if (row < nextRow || block != nextRow / blockRows) {
+                for (int i = 0; i < COLUMN_COUNT; i++) {
+                    buffers[i].position(blocks[i].getInt((int) block * Integer.BYTES));
+                }
+                nextRow = block * blockRows;
+            }
+            while (nextRow < row) {
+                next();
+            }
+        }
+
+        void next() {
+            if (nextRow % blockRows == 0) {
+                id = 0;
+                createdAt = 0;
+            }
+            id += unZigZag(readVarLong(buffers[ID]));
+            createdAt += unZigZag(readVarLong(buffers[CREATED_AT]));
+            from = (int) readVarLong(buffers[FROM_ACCOUNT]);
+            to = (int) readVarLong(buffers[TO_ACCOUNT]);
+            direction = (int) readVarLong(buffers[DIRECTION]);
+            scale = (int) readVarLong(buffers[AMOUNT]);
+            unscaled = unZigZag(readVarLong(buffers[AMOUNT]));
+            status = (int) readVarLong(buffers[STATUS]);
+            nextRow++;
+        }
+
+        void visit(ArchivedPaymentVisitor visitor) {
+            visitor.visit(id, createdAt, string(from), string(to), string(direction), string(status), unscaled, scale);
+        }
+
+        private String string(int index) {
+            return index == 0 ? null : strings.computeIfAbsent(index, dictionary::get);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.restapi.demo.transaction.archive;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Keeps track of the archive files in the archive directory, one file per dropped monthly partition.
+ */
+@Component
+public class PaymentArchiveStore {
+
+    private static final String FILE_PREFIX = "payments-";
+    private static final String FILE_SUFFIX = ".parc";
+
+    private final Path directory;
+    private final NavigableMap<String, PaymentArchiveReader> readers =
+            new ConcurrentSkipListMap<>(Collections.reverseOrder());
+
+    /**
+     * Constructs a PaymentArchiveStore over the given directory, opening any archive files that already exist.
+     *
+     * @param directory the directory holding the archive files
+     * @throws IOException if the directory cannot be created or an existing archive cannot be opened
+     */
+    @Autowired
+    public PaymentArchiveStore(@Value("${payments.archive.directory:./payment-archive}") String directory)
+            throws IOException {
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+        openNewFiles();
+    }
+
+    /**
+     * Opens archive files written by other instances sharing the archive directory. The instance running the archive
+     * job registers its own files as it writes them.
+     */
+    @Scheduled(fixedDelayString = "${payments.archive.rescan-interval-millis:60000}")
+    public void rescan() {
+        try {
+            openNewFiles();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rescan payment archive directory " + directory, e);
+        }
+    }
+
+    private void openNewFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String partition = name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length());
+                if (!readers.containsKey(partition)) {
+                    readers.put(partition, new PaymentArchiveReader(file));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given partition has already been archived.
+     *
+     * @param partition the partition name
+     * @return {@code true} if an archive file exists for the partition
+     */
+    public boolean contains(String partition) {
+        return readers.containsKey(partition);
+    }
+
+    /**
+     * Returns the reader for an archived partition.
+     *
+     * @param partition the partition name
+     * @return the reader, or {@code null} if the partition has not been archived
+     */
+    public PaymentArchiveReader get(String partition) {
+        return readers.get(partition);
+    }
+
+    /**
+     * Opens a writer for the given partition. The archive becomes visible once {@link #register(String)} is called
+     * after the writer has been committed.
+     *
+     * @param partition the partition name
+     * @return a writer targeting the partition's archive file
+     * @throws IOException if the writer cannot be created
+     */
+    public PaymentArchiveWriter newWriter(String partition) throws IOException {
+        return new PaymentArchiveWriter(fileFor(partition));
+    }
+
+    /**
+     * Opens a committed archive file and makes it visible to history queries.
+     *
+     * @param partition the partition name
+     * @return the reader for the archive
+     */
+    public PaymentArchiveReader register(String partition) {
+        try {
+            PaymentArchiveReader reader = new PaymentArchiveReader(fileFor(partition));
+            readers.put(partition, reader);
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of archived partitions. Archives are only ever added, so every instance that has seen the
+     * same archive files returns the same number.
+     *
+     * @return the number of archived partitions
+     */
+    public int size() {
+        return readers.size();
+    }
+
+    /**
+     * Returns the readers of all archived partitions, newest partition first.
+     *
+     * @return the archive readers
+     */
+    public List<PaymentArchiveReader> readersNewestFirst() {
+        return new ArrayList<>(readers.values());
+    }
+
+    private Path fileFor(String partition) {
+        return directory.resolve(FILE_PREFIX + partition + FILE_SUFFIX);
+    }
+}
@@ -0,0 +1,455 @@
+package com.restapi.demo.transaction.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Streams archived payments into a single column-oriented file.
+ * <p>
+ * Every column is written to its own temporary file while rows are appended, so memory use does not depend on the
+ * number of rows. Columns are compressed with lightweight encodings that stay readable from a memory-mapped buffer:
+ * ids and creation times as zig-zag varint deltas, account ids, directions and statuses as varint indexes into a
+ * shared string dictionary, and amounts as a varint scale followed by a zig-zag varint unscaled value. The deltas start
+ * over every {@value #BLOCK_ROWS} rows, and the file records where each such block starts in every column, so a reader
+ * can start decoding at any block.
+ * <p>
+ * The dictionary is sorted, so that readers can look entries up in place, and every account in it is followed by the
+ * numbers of the rows it appears in, so that a reader can go straight to an account's rows. Both are only known once
+ * all rows have been seen. Until then the strings of each row are kept in a temporary file, and the distinct strings
+ * and the account row numbers are collected in bounded buffers that are sorted and spilled to temporary runs when they
+ * fill up. {@link #commit()} merges the runs, translates the strings into dictionary indexes and assembles the header,
+ * dictionary, row index and columns into the final file. It forces the file to disk and moves it into place
+ * atomically, so a reader never sees a partially written archive.
+ */
+public class PaymentArchiveWriter implements Closeable {
+
+    static final int MAGIC = 0x50415243; // "PARC"
+    static final int VERSION = 1;
+    static final int COLUMN_COUNT = 7;
+    static final int BLOCK_ROWS = 64;
+
+    static final int ID = 0;
+    static final int CREATED_AT = 1;
+    static final int FROM_ACCOUNT = 2;
+    static final int TO_ACCOUNT = 3;
+    static final int DIRECTION = 4;
+    static final int AMOUNT = 5;
+    static final int STATUS = 6;
+
+    /** Dictionary offsets and bytes, row index offsets and row numbers, then block offsets and data per column. */
+    static final int SECTION_COUNT = 4 + 2 * COLUMN_COUNT;
+
+    static final int DEFAULT_SPILL_THRESHOLD = 1 << 18;
+
+    private static final int[] APPENDED_COLUMNS = {ID, CREATED_AT, AMOUNT};
+    private static final int[] DICTIONARY_COLUMNS = {FROM_ACCOUNT, TO_ACCOUNT, DIRECTION, STATUS};
+
+    private final Path target;
+    private final Path workDirectory;
+    private final int spillThreshold;
+    private final Path[] columnFiles = new Path[COLUMN_COUNT];
+    private final DataOutputStream[] columns = new DataOutputStream[COLUMN_COUNT];
+    private final Path[] blockFiles = new Path[COLUMN_COUNT];
+    private final DataOutputStream[] blocks = new DataOutputStream[COLUMN_COUNT];
+    private final Path stringsFile;
+    private final DataOutputStream strings;
+    private final Set<String> pendingEntries = new HashSet<>();
+    private final List<Path> dictionaryRuns = new ArrayList<>();
+    private final List<Path> rowIndexRuns = new ArrayList<>();
+
+    private long rowCount;
+    private long previousId;
+    private long previousCreatedAt;
+    private long minCreatedAt = Long.MAX_VALUE;
+    private long maxCreatedAt = Long.MIN_VALUE;
+
+    /**
+     * Opens a writer for the archive file at the given path.
+     *
+     * @param target the final location of the archive file
+     * @throws IOException if the temporary column files cannot be created
+     */
+    public PaymentArchiveWriter(Path target) throws IOException {
+        this(target, DEFAULT_SPILL_THRESHOLD);
+    }
+
+    /**
+     * Opens a writer for the archive file at the given path.
+     *
+     * @param target         the final location of the archive file
+     * @param spillThreshold the number of distinct strings or account row numbers held in memory before they are
+     *                       spilled to a temporary run
+     * @throws IOException if the temporary column files cannot be created
+     */
+    PaymentArchiveWriter(Path target, int spillThreshold) throws IOException {
+        this.target = target;
+        this.spillThreshold = spillThreshold;
+        this.workDirectory = Files.createTempDirectory(target.getParent(), target.getFileName() + ".");
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columnFiles[i] = workDirectory.resolve("column-" + i);
+            columns[i] = newOutput(columnFiles[i]);
+            blockFiles[i] = workDirectory.resolve("blocks-" + i);
+            blocks[i] = newOutput(blockFiles[i]);
+        }
+        stringsFile = workDirectory.resolve("strings");
+        strings = newOutput(stringsFile);
+    }
+
+    /**
+     * Appends a single payment row. Rows should be appended in ascending id order for the deltas to stay small.
+     *
+     * @param id          the payment ID
+     * @param createdAt   the payment creation time
+     * @param fromAccount the sending account ID, may be {@code null}
+     * @param toAccount   the receiving account ID, may be {@code null}
+     * @param direction   the payment direction
+     * @param status      the payment status, may be {@code null}
+     * @param amount      the payment amount
+     * @throws IOException if a column cannot be written or the archive already holds the most rows it can
+     */
+    public void append(long id, Instant createdAt, String fromAccount, String toAccount, String direction,
+                       String status, BigDecimal amount) throws IOException {
+        if (rowCount == Integer.MAX_VALUE) {
+            throw new IOException("An archive file holds at most " + Integer.MAX_VALUE + " payments");
+        }
+        if (rowCount % BLOCK_ROWS == 0) {
+            for (int column : APPENDED_COLUMNS) {
+                blocks[column].writeInt(columns[column].size());
+            }
+            previousId = 0;
+            previousCreatedAt = 0;
+        }
+        long createdAtMicros = ChronoUnit.MICROS.between(Instant.EPOCH, createdAt);
+        writeVarLong(columns[ID], zigZag(id - previousId));
+        writeVarLong(columns[CREATED_AT], zigZag(createdAtMicros - previousCreatedAt));
+        writeVarLong(columns[AMOUNT], amount.scale());
+        writeVarLong(columns[AMOUNT], zigZag(amount.unscaledValue().longValueExact()));
+        writeString(fromAccount);
+        writeString(toAccount);
+        writeString(direction);
+        writeString(status);
+
+        previousId = id;
+        previousCreatedAt = createdAtMicros;
+        minCreatedAt = Math.min(minCreatedAt, createdAtMicros);
+        maxCreatedAt = Math.max(maxCreatedAt, createdAtMicros);
+        rowCount++;
+    }
+
+    /**
+     * Returns the number of rows appended so far.
+     *
+     * @return the number of appended rows
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the archive file and atomically moves it to its final location.
+     *
+     * @throws IOException if the archive cannot be written
+     */
+    public void commit() throws IOException {
+        strings.close();
+        spillEntries();
+        Path dictionaryOffsets = workDirectory.resolve("dictionary-offsets");
+        Path dictionaryBytes = workDirectory.resolve("dictionary-bytes");
+        int dictionarySize = mergeDictionaryRuns(dictionaryOffsets, dictionaryBytes);
+        writeDictionaryColumns(new ArchiveDictionary(map(dictionaryOffsets), map(dictionaryBytes)));
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns[i].close();
+            blocks[i].close();
+        }
+        Path rowIndexOffsets = workDirectory.resolve("row-index-offsets");
+        Path rowIndex = workDirectory.resolve("row-index");
+        mergeRowIndexRuns(dictionarySize, rowIndexOffsets, rowIndex);
+
+        List<Path> sections = new ArrayList<>(List.of(dictionaryOffsets, dictionaryBytes, rowIndexOffsets, rowIndex));
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            sections.add(blockFiles[i]);
+            sections.add(columnFiles[i]);
+        }
+        Path assembled = workDirectory.resolve("archive");
+        try (FileChannel channel = FileChannel.open(assembled, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            OutputStream channelStream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(channelStream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(rowCount);
+            out.writeLong(rowCount == 0 ? 0 : minCreatedAt);
+            out.writeLong(rowCount == 0 ? 0 : maxCreatedAt);
+            out.writeInt(BLOCK_ROWS);
+            for (Path section : sections) {
+                out.writeLong(Files.size(section));
+            }
+            for (Path section : sections) {
+                try (InputStream in = Files.newInputStream(section)) {
+                    in.transferTo(out);
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(assembled, target, StandardCopyOption.ATOMIC_MOVE);
+        close();
+    }
+
+    /**
+     * Discards the temporary files. The final archive file is left untouched.
+     *
+     * @throws IOException if the temporary files cannot be removed
+     */
+    @Override
+    public void close() throws IOException {
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns[i].close();
+            blocks[i].close();
+        }
+        strings.close();
+        if (!Files.exists(workDirectory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(workDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(workDirectory);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            strings.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.writeInt(bytes.length);
+        strings.write(bytes);
+        if (pendingEntries.add(value) && pendingEntries.size() >= spillThreshold) {
+            spillEntries();
+        }
+    }
+
+    private void spillEntries() throws IOException {
+        byte[][] sorted = new byte[pendingEntries.size()][];
+        int count = 0;
+        for (String entry : pendingEntries) {
+            sorted[count++] = entry.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(sorted, Arrays::compareUnsigned);
+        Path run = workDirectory.resolve("dictionary-run-" + dictionaryRuns.size());
+        try (DataOutputStream out = newOutput(run)) {
+            out.writeInt(sorted.length);
+            for (byte[] entry : sorted) {
+                out.writeShort(entry.length);
+                out.write(entry);
+            }
+        }
+        dictionaryRuns.add(run);
+        pendingEntries.clear();
+    }
+
+    /**
+     * Merges the sorted dictionary runs into the dictionary offsets and bytes, dropping duplicates.
+     *
+     * @return the number of dictionary entries
+     */
+    private int mergeDictionaryRuns(Path offsetsFile, Path bytesFile) throws IOException {
+        record Head(byte[] entry, DataInputStream in, int remaining) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::entry, Arrays::compareUnsigned));
+        List<DataInputStream> inputs = new ArrayList<>();
+        int size = 0;
+        try (DataOutputStream offsets = newOutput(offsetsFile); DataOutputStream bytes = newOutput(bytesFile)) {
+            for (Path run : dictionaryRuns) {
+                DataInputStream in = newInput(run);
+                inputs.add(in);
+                int count = in.readInt();
+                if (count > 0) {
+                    heads.add(new Head(readEntry(in), in, count - 1));
+                }
+            }
+            offsets.writeInt(0);
+            byte[] previous = null;
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                if (previous == null || !Arrays.equals(previous, head.entry())) {
+                    bytes.write(head.entry());
+                    offsets.writeInt(bytes.size());
+                    previous = head.entry();
+                    size++;
+                }
+                if (head.remaining() > 0) {
+                    heads.add(new Head(readEntry(head.in()), head.in(), head.remaining() - 1));
+                }
+            }
+        } finally {
+            for (DataInputStream in : inputs) {
+                in.close();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes the account, direction and status columns as dictionary indexes and collects the rows of every account.
+     */
+    private void writeDictionaryColumns(ArchiveDictionary dictionary) throws IOException {
+        long[] rowIndex = new long[(int) Math.min(spillThreshold, 2 * rowCount)];
+        int pending = 0;
+        try (DataInputStream in = newInput(stringsFile)) {
+            for (int row = 0; row < rowCount; row++) {
+                if (row % BLOCK_ROWS == 0) {
+                    for (int column : DICTIONARY_COLUMNS) {
+                        blocks[column].writeInt(columns[column].size());
+                    }
+                }
+                int from = 0;
+                for (int column : DICTIONARY_COLUMNS) {
+                    int length = in.readInt();
+                    int index = 0;
+                    if (length >= 0) {
+                        byte[] bytes = new byte[length];
+                        in.readFully(bytes);
+                        index = dictionary.indexOf(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                    writeVarLong(columns[column], index);
+                    boolean account = column == FROM_ACCOUNT || column == TO_ACCOUNT;
+                    // A payment from an account to itself is listed once
+                    if (account && index != 0 && !(column == TO_ACCOUNT && index == from)) {
+                        if (pending == rowIndex.length) {
+                            spillRowIndex(rowIndex, pending);
+                            pending = 0;
+                        }
+                        rowIndex[pending++] = (long) index << 32 | row;
+                    }
+                    if (column == FROM_ACCOUNT) {
+                        from = index;
+                    }
+                }
+            }
+        }
+        spillRowIndex(rowIndex, pending);
+    }
+
+    private void spillRowIndex(long[] rowIndex, int count) throws IOException {
+        Arrays.sort(rowIndex, 0, count);
+        Path run = workDirectory.resolve("row-index-run-" + rowIndexRuns.size());
+        try (DataOutputStream out = newOutput(run)) {
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(rowIndex[i]);
+            }
+        }
+        rowIndexRuns.add(run);
+    }
+
+    /**
+     * Merges the sorted row index runs into one list of row numbers per dictionary entry, written as varint deltas,
+     * and a table of {@code dictionarySize + 1} ints giving where each entry's list starts.
+     */
+    private void mergeRowIndexRuns(int dictionarySize, Path offsetsFile, Path rowIndexFile) throws IOException {
+        record Head(long value, DataInputStream in, int remaining) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparingLong(Head::value));
+        List<DataInputStream> inputs = new ArrayList<>();
+        try (DataOutputStream offsets = newOutput(offsetsFile); DataOutputStream rows = newOutput(rowIndexFile)) {
+            for (Path run : rowIndexRuns) {
+                DataInputStream in = newInput(run);
+                inputs.add(in);
+                int count = in.readInt();
+                if (count > 0) {
+                    heads.add(new Head(in.readLong(), in, count - 1));
+                }
+            }
+            int entry = 0;
+            long previousRow = 0;
+            offsets.writeInt(0);
+            while (!heads.isEmpty()) {
+                Head head = heads.poll();
+                int index = (int) (head.value() >>> 32);
+                long row = head.value() & 0xFFFFFFFFL;
+                while (entry < index) {
+                    // Entries without rows, directions and statuses among them, get an empty list
+                    if (entry > 0) {
+                        offsets.writeInt(rows.size());
+                    }
+                    entry++;
+                    previousRow = 0;
+                }
+                writeVarLong(rows, row - previousRow);
+                previousRow = row;
+                if (head.remaining() > 0) {
+                    heads.add(new Head(head.in().readLong(), head.in(), head.remaining() - 1));
+                }
+            }
+            for (; entry <= dictionarySize; entry++) {
+                if (entry > 0) {
+                    offsets.writeInt(rows.size());
+                }
+            }
+        } finally {
+            for (DataInputStream in : inputs) {
+                in.close();
+            }
+        }
+    }
+
+    private static byte[] readEntry(DataInputStream in) throws IOException {
+        byte[] entry = new byte[in.readUnsignedShort()];
+        in.readFully(entry);
+        return entry;
+    }
+
+    private static DataOutputStream newOutput(Path file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+    }
+
+    private static DataInputStream newInput(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
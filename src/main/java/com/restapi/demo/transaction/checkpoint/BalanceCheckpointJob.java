@@ -0,0 +1,174 @@
+package com.restapi.demo.transaction.checkpoint;
+
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository;
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository.BalanceCheckpoint;
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import com.restapi.demo.transaction.repository.LedgerScanRepository.AccountState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records the balance of every account at a common point in time, so that historical balances can be computed from
+ * the nearest checkpoint instead of from the whole payment history.
+ * <p>
+ * A run takes its checkpoint at {@code balance-checkpoints.settle-seconds} before it starts, which leaves time for
+ * payments created just before that point to commit. The accounts table is read in ID-order chunks of
+ * {@code balance-checkpoints.chunk-size}. For each chunk, the balances and the payments created after the checkpoint
+ * time are read within one repeatable-read transaction, so that subtracting the latter from the former gives the
+ * balances as of the checkpoint time even though payments keep flowing. Accounts whose version has not changed since
+ * their latest checkpoint are skipped. Each chunk is written in its own short transaction, followed by a pause of
+ * {@code balance-checkpoints.pause-millis} to leave room for live traffic.
+ * <p>
+ * Historical balances count payments by their current status at their creation time. An account that sent or
+ * received a payment created up to the checkpoint time that is still {@code PENDING_CREDIT} is therefore not
+ * checkpointed in that run: the payment's credit or refund would later change the balance at a time before the
+ * checkpoint, and the checkpoint would disagree with every other way of computing that balance. The next run
+ * checkpoints the account once the payment has settled.
+ * <p>
+ * Payments are only archived months after they were created, long after any checkpoint time, so the archive is not
+ * read here.
+ */
+@Component
+public class BalanceCheckpointJob {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceCheckpointJob.class);
+
+    private final LedgerScanRepository scanRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final int chunkSize;
+    private final long pauseMillis;
+    private final Duration settleDelay;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Constructs a BalanceCheckpointJob.
+     *
+     * @param scanRepository       The LedgerScanRepository to use for reading balances and payments in chunks.
+     * @param checkpointRepository The BalanceCheckpointRepository to store the checkpoints with.
+     * @param transactionManager   The transaction manager used for reading and writing each chunk.
+     * @param chunkSize            The number of accounts checkpointed per transaction.
+     * @param pauseMillis          The pause between chunks in milliseconds.
+     * @param settleSeconds        How long before the start of a run its checkpoint is taken, in seconds.
+     */
+    @Autowired
+    public BalanceCheckpointJob(LedgerScanRepository scanRepository,
+                                BalanceCheckpointRepository checkpointRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${balance-checkpoints.chunk-size:1000}") int chunkSize,
+                                @Value("${balance-checkpoints.pause-millis:50}") long pauseMillis,
+                                @Value("${balance-checkpoints.settle-seconds:300}") long settleSeconds) {
+        this.scanRepository = scanRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.pauseMillis = pauseMillis;
+        this.settleDelay = Duration.ofSeconds(settleSeconds);
+    }
+
+    /**
+     * Takes a checkpoint on the configured schedule.
+     */
+    @Scheduled(cron = "${balance-checkpoints.cron:0 15 1 * * *}", zone = "UTC")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Checkpoints the balance of every account that changed since its latest checkpoint. Does nothing if a run is
+     * already in progress.
+     *
+     * @return the number of checkpoints written, or -1 if a run was already in progress
+     */
+    public long run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Balance checkpoint already running, skipping");
+            return -1;
+        }
+        try {
+            Instant started = Instant.now();
+            Instant takenAt = started.minus(settleDelay).truncatedTo(ChronoUnit.MICROS);
+            long accounts = 0;
+            long written = 0;
+            String lastId = "";
+            int read;
+            do {
+                List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+                String afterId = lastId;
+                List<AccountState> chunk = snapshotTransaction.execute(
+                        status -> readChunk(afterId, takenAt, checkpoints));
+                read = chunk.size();
+                if (!checkpoints.isEmpty()) {
+                    writeTransaction.executeWithoutResult(status -> checkpointRepository.insert(checkpoints));
+                }
+                if (read > 0) {
+                    lastId = chunk.get(read - 1).getId();
+                }
+                accounts += read;
+                written += checkpoints.size();
+                pause();
+            } while (read == chunkSize);
+            log.info("Balance checkpoint at {} wrote {} of {} accounts in {} ms", takenAt, written, accounts,
+                    Duration.between(started, Instant.now()).toMillis());
+            return written;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private List<AccountState> readChunk(String afterId, Instant takenAt, List<BalanceCheckpoint> checkpoints) {
+        List<AccountState> chunk = scanRepository.findAccountStatesAfter(afterId, chunkSize);
+        List<String> ids = chunk.stream().map(AccountState::getId).toList();
+        Map<String, Long> checkpointedVersions = checkpointRepository.findLatestVersions(ids);
+        Map<String, BigDecimal> flowsSince = scanRepository.sumNetFlowsAfter(ids, takenAt);
+        Set<String> unsettled = scanRepository.findAccountsWithPendingCredits(ids, takenAt);
+        for (AccountState account : chunk) {
+            Long checkpointedVersion = checkpointedVersions.get(account.getId());
+            if (checkpointedVersion != null && checkpointedVersion == account.getVersion()) {
+                continue;
+            }
+            if (unsettled.contains(account.getId())) {
+                continue;
+            }
+            BigDecimal balance = account.getBalance()
+                    .subtract(flowsSince.getOrDefault(account.getId(), BigDecimal.ZERO));
+            checkpoints.add(new BalanceCheckpoint(account.getId(), takenAt, balance, account.getVersion()));
+        }
+        return chunk;
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(pauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Balance checkpoint interrupted", e);
+        }
+    }
+}
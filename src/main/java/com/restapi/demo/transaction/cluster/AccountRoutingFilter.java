@@ -0,0 +1,98 @@
+package com.restapi.demo.transaction.cluster;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Forwards requests concerning an account owned by another node to that node.
+ * <p>
+ * Requests under {@code /v1/accounts/{id}} are routed by the account in the path, and payments by their sending
+ * account, whose owner runs the transfer. Everything else, including listing, searching and creating accounts and
+ * payment history, reads or writes the shared database directly and is handled by whichever node receives it.
+ * Requests that were already forwarded once are never forwarded again.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class AccountRoutingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountRoutingFilter.class);
+
+    private static final String ACCOUNTS_PREFIX = "/v1/accounts/";
+    private static final String SEARCH_PATH = "/v1/accounts/search";
+    private static final String PAYMENTS_PATH = "/v1/payments";
+
+    private final ClusterTopology topology;
+    private final ClusterClient clusterClient;
+
+    /**
+     * Constructs an AccountRoutingFilter.
+     *
+     * @param topology      The ClusterTopology that decides which node owns an account.
+     * @param clusterClient The ClusterClient used to forward requests.
+     */
+    @Autowired
+    public AccountRoutingFilter(ClusterTopology topology, ClusterClient clusterClient) {
+        this.topology = topology;
+        this.clusterClient = clusterClient;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean forwarded = request.getHeader(ClusterClient.FORWARDED_BY_HEADER) != null;
+        String accountId = forwarded ? null : routingAccount(request);
+        if (accountId == null || !topology.isOwnedElsewhere(accountId)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String owner = topology.ownerOf(accountId);
+        try {
+            clusterClient.forward(owner, request, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+        } catch (IOException e) {
+            log.warn("Could not forward {} {} to node {}", request.getMethod(), request.getRequestURI(), owner, e);
+            if (!response.isCommitted()) {
+                response.sendError(HttpStatus.BAD_GATEWAY.value());
+            }
+        }
+    }
+
+    /**
+     * Returns the account whose owner should handle the request, or {@code null} if any node may handle it.
+     */
+    static String routingAccount(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith(ACCOUNTS_PREFIX) && !path.equals(SEARCH_PATH)) {
+            int end = path.indexOf('/', ACCOUNTS_PREFIX.length());
+            String segment = path.substring(ACCOUNTS_PREFIX.length(), end < 0 ? path.length() : end);
+            return segment.isEmpty() ? null : URLDecoder.decode(segment, StandardCharsets.UTF_8);
+        }
+        if (path.equals(PAYMENTS_PATH) && "POST".equals(request.getMethod()) && request.getQueryString() != null) {
+            // Only the query string is looked at: reading form parameters would consume a body that still has to be
+            // forwarded.
+            String from = UriComponentsBuilder.newInstance().query(request.getQueryString()).build()
+                    .getQueryParams().getFirst("fromAccountId");
+            return from == null ? null : URLDecoder.decode(from, StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+}
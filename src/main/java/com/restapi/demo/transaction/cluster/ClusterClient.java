@@ -0,0 +1,194 @@
+package com.restapi.demo.transaction.cluster;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.json.PaymentJsonCodec;
+import com.restapi.demo.transaction.model.Payment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * HTTP client for calls between cluster nodes.
+ * <p>
+ * A single {@link HttpClient} is shared by all calls. It keeps idle HTTP/1.1 connections to every node open and reuses
+ * them, so forwarding a request does not pay for a TCP handshake each time.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterClient {
+
+    /**
+     * Header marking a request that has already been forwarded by the named node. A node receiving it handles the
+     * request itself, so nodes that briefly disagree about ownership cannot forward a request in circles.
+     */
+    public static final String FORWARDED_BY_HEADER = "X-Cluster-Forwarded-By";
+
+    /** Headers that describe a single connection or that HttpClient sets itself. */
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "proxy-authenticate", "proxy-authorization", "te", "trailer", "transfer-encoding",
+            "upgrade");
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final PaymentJsonCodec paymentCodec = new PaymentJsonCodec();
+    private final ClusterTopology topology;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    /**
+     * Constructs a ClusterClient.
+     *
+     * @param topology             The ClusterTopology to resolve node URLs with.
+     * @param connectTimeoutMillis The time allowed to open a connection to another node.
+     * @param requestTimeoutMillis The time allowed for another node to answer a call.
+     */
+    @Autowired
+    public ClusterClient(ClusterTopology topology,
+                         @Value("${cluster.connect-timeout-millis:1000}") long connectTimeoutMillis,
+                         @Value("${cluster.request-timeout-millis:5000}") long requestTimeoutMillis) {
+        this.topology = topology;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMillis))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    /**
+     * Sends the given request to another node unchanged and copies the node's answer into the response.
+     *
+     * @param nodeId   the ID of the node to forward to
+     * @param request  the request to forward
+     * @param response the response to fill in
+     * @throws IOException          if the node cannot be reached or the request body cannot be read
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the node
+     */
+    public void forward(String nodeId, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, InterruptedException {
+        String query = request.getQueryString();
+        URI target = URI.create(topology.urlOf(nodeId) + request.getRequestURI() + (query == null ? "" : "?" + query));
+        byte[] body = request.getInputStream().readAllBytes();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(target)
+                .timeout(requestTimeout)
+                .method(request.getMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofByteArray(body));
+        for (String name : Collections.list(request.getHeaderNames())) {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                for (String value : Collections.list(request.getHeaders(name))) {
+                    builder.header(name, value);
+                }
+            }
+        }
+        builder.header(FORWARDED_BY_HEADER, topology.getNodeId());
+
+        HttpResponse<byte[]> answer = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        response.setStatus(answer.statusCode());
+        for (Map.Entry<String, List<String>> header : answer.headers().map().entrySet()) {
+            if (!HOP_BY_HOP_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                for (String value : header.getValue()) {
+                    response.addHeader(header.getKey(), value);
+                }
+            }
+        }
+        response.setContentLength(answer.body().length);
+        response.getOutputStream().write(answer.body());
+    }
+
+    /**
+     * Asks the owner of a payment's receiving account to apply the credit of a cross-partition transfer.
+     *
+     * @param nodeId    the ID of the node owning the receiving account
+     * @param paymentId the ID of the pending payment
+     * @return the HTTP status returned by the node
+     * @throws IOException          if the node cannot be reached
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the node
+     */
+    public int requestCredit(String nodeId, long paymentId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(topology.urlOf(nodeId) + "/internal/v1/payments/" + paymentId + "/credit"))
+                .timeout(requestTimeout)
+                .header(FORWARDED_BY_HEADER, topology.getNodeId())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * Asks the owner of a sending account to make a payment, exactly as {@code POST /v1/payments} on that node would.
+     *
+     * @param nodeId        the ID of the node owning the sending account
+     * @param fromAccountId the ID of the account to transfer funds from
+     * @param toAccountId   the ID of the account to transfer funds to
+     * @param amount        the amount to transfer
+     * @return the payment made by the node
+     * @throws AccountNotFoundException   if the node answers 404 Not Found
+     * @throws InsufficientFundsException if the node answers 400 Bad Request
+     * @throws IOException                if the node cannot be reached or answers with any other status
+     * @throws InterruptedException       if the calling thread is interrupted while waiting for the node
+     */
+    public Payment makePayment(String nodeId, String fromAccountId, String toAccountId, BigDecimal amount)
+            throws IOException, InterruptedException {
+        String query = "fromAccountId=" + URLEncoder.encode(fromAccountId, StandardCharsets.UTF_8)
+                + "&toAccountId=" + URLEncoder.encode(toAccountId, StandardCharsets.UTF_8)
+                + "&amount=" + amount.toPlainString();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(topology.urlOf(nodeId) + "/v1/payments?" + query))
+                .timeout(requestTimeout)
+                .header(FORWARDED_BY_HEADER, topology.getNodeId())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<byte[]> answer = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        switch (answer.statusCode()) {
+            case 200 -> {
+                try (JsonParser parser = jsonFactory.createParser(answer.body())) {
+                    parser.nextToken();
+                    return paymentCodec.read(parser);
+                }
+            }
+            case 404 -> throw new AccountNotFoundException("Account not found on node " + nodeId);
+            case 400 -> throw new InsufficientFundsException("Insufficient balance in account with id: " + fromAccountId);
+            default -> throw new IOException("Node " + nodeId + " answered a payment with status " + answer.statusCode());
+        }
+    }
+
+    /**
+     * Asks the owner of a scheduled payment's sending account to execute the schedule, which is due.
+     *
+     * @param nodeId     the ID of the node owning the sending account
+     * @param scheduleId the ID of the schedule
+     * @return the HTTP status returned by the node
+     * @throws IOException          if the node cannot be reached
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the node
+     */
+    public int requestScheduledPayment(String nodeId, long scheduleId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(topology.urlOf(nodeId) + "/internal/v1/scheduled-payments/" + scheduleId + "/execute"))
+                .timeout(requestTimeout)
+                .header(FORWARDED_BY_HEADER, topology.getNodeId())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
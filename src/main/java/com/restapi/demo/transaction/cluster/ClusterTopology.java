@@ -0,0 +1,123 @@
+package com.restapi.demo.transaction.cluster;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The nodes of the cluster and which of them owns each account.
+ * <p>
+ * Accounts are assigned to nodes with a {@link ConsistentHashRing} over the node IDs listed in {@code cluster.nodes},
+ * so every node computes the same owner for an account without coordination. Mutations of an account are handled by
+ * its owner only, whether they arrive over HTTP, the binary listener or a scheduled payment, which keeps the
+ * serialization of updates to one account within a single process. The account's row lock still guards the updates
+ * made while nodes disagree about ownership, for example while {@code cluster.nodes} is being changed.
+ * <p>
+ * With {@code cluster.enabled=false}, the default, this node owns every account.
+ */
+@Component
+public class ClusterTopology {
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final Map<String, URI> nodeUrls;
+    private final ConsistentHashRing ring;
+
+    /**
+     * Constructs a ClusterTopology.
+     *
+     * @param enabled      Whether accounts are partitioned across several nodes.
+     * @param nodeId       The ID of this node.
+     * @param nodes        The members of the cluster as a comma separated list of {@code id=baseUrl} pairs.
+     * @param virtualNodes The number of points each node occupies on the hash ring.
+     */
+    @Autowired
+    public ClusterTopology(@Value("${cluster.enabled:false}") boolean enabled,
+                           @Value("${cluster.node-id:node1}") String nodeId,
+                           @Value("${cluster.nodes:}") String nodes,
+                           @Value("${cluster.virtual-nodes:128}") int virtualNodes) {
+        this.enabled = enabled;
+        this.nodeId = nodeId;
+        this.nodeUrls = enabled ? parseNodes(nodes) : Collections.emptyMap();
+        if (enabled && !nodeUrls.containsKey(nodeId)) {
+            throw new IllegalStateException("cluster.node-id " + nodeId + " is not listed in cluster.nodes");
+        }
+        this.ring = enabled ? new ConsistentHashRing(nodeUrls.keySet(), virtualNodes) : null;
+    }
+
+    /**
+     * Returns whether accounts are partitioned across several nodes.
+     *
+     * @return {@code true} if clustering is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the ID of this node.
+     *
+     * @return this node's ID
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Returns the ID of the node owning the given account.
+     *
+     * @param accountId the account ID
+     * @return the owning node's ID
+     */
+    public String ownerOf(String accountId) {
+        return enabled ? ring.ownerOf(accountId) : nodeId;
+    }
+
+    /**
+     * Returns whether the given account is owned by another node.
+     *
+     * @param accountId the account ID
+     * @return {@code true} if another node owns the account
+     */
+    public boolean isOwnedElsewhere(String accountId) {
+        return enabled && !nodeId.equals(ring.ownerOf(accountId));
+    }
+
+    /**
+     * Returns the base URL of the given node.
+     *
+     * @param nodeId the node ID
+     * @return the node's base URL
+     * @throws IllegalArgumentException if the node is not a member of the cluster
+     */
+    public URI urlOf(String nodeId) {
+        URI url = nodeUrls.get(nodeId);
+        if (url == null) {
+            throw new IllegalArgumentException("Unknown cluster node: " + nodeId);
+        }
+        return url;
+    }
+
+    private static Map<String, URI> parseNodes(String nodes) {
+        Map<String, URI> urls = new LinkedHashMap<>();
+        for (String entry : nodes.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int separator = trimmed.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("cluster.nodes entries must look like id=baseUrl: " + trimmed);
+            }
+            String url = trimmed.substring(separator + 1).trim();
+            urls.put(trimmed.substring(0, separator).trim(),
+                    URI.create(url.endsWith("/") ? url.substring(0, url.length() - 1) : url));
+        }
+        return urls;
+    }
+}
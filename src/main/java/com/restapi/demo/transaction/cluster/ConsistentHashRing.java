@@ -0,0 +1,114 @@
+package com.restapi.demo.transaction.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable consistent hash ring mapping keys to node IDs.
+ * <p>
+ * Every node is placed on the ring at {@code virtualNodes} points so that keys spread evenly and adding or removing a
+ * node only moves the keys between that node's points and their predecessors. A key belongs to the first point at or
+ * after its hash, wrapping around at the end. Points are held in two parallel sorted arrays and looked up by binary
+ * search, so a lookup does not allocate.
+ */
+public final class ConsistentHashRing {
+
+    private final long[] points;
+    private final String[] owners;
+    private final List<String> nodeIds;
+
+    /**
+     * Builds a ring over the given nodes.
+     *
+     * @param nodeIds      the IDs of the nodes on the ring
+     * @param virtualNodes the number of points per node
+     * @throws IllegalArgumentException if there are no nodes, a node ID is repeated or virtualNodes is not positive
+     */
+    public ConsistentHashRing(Collection<String> nodeIds, int virtualNodes) {
+        if (nodeIds.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.nodeIds = List.copyOf(nodeIds);
+        if (this.nodeIds.stream().distinct().count() != this.nodeIds.size()) {
+            throw new IllegalArgumentException("Duplicate node IDs: " + nodeIds);
+        }
+
+        int size = this.nodeIds.size() * virtualNodes;
+        long[] hashes = new long[size];
+        String[] hashOwners = new String[size];
+        Integer[] order = new Integer[size];
+        int i = 0;
+        for (String nodeId : this.nodeIds) {
+            for (int v = 0; v < virtualNodes; v++) {
+                hashes[i] = hash(nodeId + "#" + v);
+                hashOwners[i] = nodeId;
+                order[i] = i;
+                i++;
+            }
+        }
+        // Ties between nodes are broken by node ID so that every member builds exactly the same ring.
+        Arrays.sort(order, (a, b) -> hashes[a] != hashes[b]
+                ? Long.compare(hashes[a], hashes[b])
+                : hashOwners[a].compareTo(hashOwners[b]));
+        points = new long[size];
+        owners = new String[size];
+        for (int j = 0; j < size; j++) {
+            points[j] = hashes[order[j]];
+            owners[j] = hashOwners[order[j]];
+        }
+    }
+
+    /**
+     * Returns the node owning the given key.
+     *
+     * @param key the key, for example an account ID
+     * @return the ID of the owning node
+     */
+    public String ownerOf(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+            if (index == points.length) {
+                index = 0;
+            }
+        } else {
+            // Step back to the first of several equal points so the tie-break order above applies.
+            while (index > 0 && points[index - 1] == points[index]) {
+                index--;
+            }
+        }
+        return owners[index];
+    }
+
+    /**
+     * Returns the IDs of the nodes on the ring, in the order they were given.
+     *
+     * @return the node IDs
+     */
+    public List<String> getNodeIds() {
+        return nodeIds;
+    }
+
+    /**
+     * Hashes a string to a 64-bit ring position: FNV-1a over the UTF-8 bytes followed by the MurmurHash3 finalizer,
+     * which spreads the similar keys typical of sequential account IDs across the whole ring.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xFF;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
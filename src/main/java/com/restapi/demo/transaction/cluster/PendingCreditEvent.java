@@ -0,0 +1,28 @@
+package com.restapi.demo.transaction.cluster;
+
+/**
+ * Published when a transfer has debited its sending account and the credit has to be applied by the node owning the
+ * receiving account.
+ */
+public class PendingCreditEvent {
+
+    private final Long paymentId;
+    private final String toAccountId;
+
+    /**
+     * @param paymentId   the ID of the pending payment
+     * @param toAccountId the ID of the receiving account
+     */
+    public PendingCreditEvent(Long paymentId, String toAccountId) {
+        this.paymentId = paymentId;
+        this.toAccountId = toAccountId;
+    }
+
+    public Long getPaymentId() {
+        return paymentId;
+    }
+
+    public String getToAccountId() {
+        return toAccountId;
+    }
+}
@@ -0,0 +1,167 @@
+package com.restapi.demo.transaction.cluster;
+
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import com.restapi.demo.transaction.service.PaymentService;
+import com.restapi.demo.transaction.service.PendingCreditCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the credits of cross-partition transfers to the nodes owning the receiving accounts.
+ * <p>
+ * A credit is sent as soon as the debit has committed. Credits that could not be delivered, because the owner was
+ * unreachable, the queue was full or this node restarted, stay {@link Payment#STATUS_PENDING_CREDIT} and are picked
+ * up again by a periodic sweep over the pending payments whose sender this node owns. The credit endpoint is
+ * idempotent, so a credit delivered twice is applied once. If the owner answers 410 Gone, because the receiving
+ * account no longer exists, the sender is refunded; any other answer, including 404, is retried.
+ * <p>
+ * Ownership follows from the hash ring rather than from a column, so the sweep reads the pending payments of all
+ * nodes with a {@link PendingCreditCursor} and skips those of other senders. It goes on reading until it has sent
+ * {@code cluster.credit-retry-batch-size} credits, and the next sweep continues where it stopped. Once a receiving
+ * node fails to take a credit, its other credits are left for the next sweep instead of waiting on it one by one.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class PendingCreditRelay implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingCreditRelay.class);
+
+    private final ClusterTopology topology;
+    private final ClusterClient clusterClient;
+    private final PaymentService paymentService;
+    private final PendingCreditCursor retryCursor;
+    private final Duration retryAfter;
+    private final int retryBatchSize;
+    private final ThreadPoolExecutor senders;
+
+    /**
+     * Constructs a PendingCreditRelay.
+     *
+     * @param topology          The ClusterTopology to find the owner of a receiving account.
+     * @param clusterClient     The ClusterClient to send credits with.
+     * @param paymentService    The PaymentService to apply local credits and refunds with.
+     * @param paymentRepository The PaymentRepository to find undelivered credits in.
+     * @param senders           The number of threads sending credits.
+     * @param queueCapacity     The number of credits that may wait for a sender before being left to the sweep.
+     * @param retryAfterMillis  How long a credit may stay pending before the sweep sends it again.
+     * @param retryBatchSize    The maximum number of pending credits sent per sweep.
+     */
+    @Autowired
+    public PendingCreditRelay(ClusterTopology topology, ClusterClient clusterClient, PaymentService paymentService,
+                              PaymentRepository paymentRepository,
+                              @Value("${cluster.credit-senders:4}") int senders,
+                              @Value("${cluster.credit-queue-capacity:10000}") int queueCapacity,
+                              @Value("${cluster.credit-retry-after-millis:10000}") long retryAfterMillis,
+                              @Value("${cluster.credit-retry-batch-size:500}") int retryBatchSize) {
+        this.topology = topology;
+        this.clusterClient = clusterClient;
+        this.paymentService = paymentService;
+        this.retryCursor = new PendingCreditCursor(paymentRepository);
+        this.retryAfter = Duration.ofMillis(retryAfterMillis);
+        this.retryBatchSize = retryBatchSize;
+        this.senders = new ThreadPoolExecutor(senders, senders, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Queues the credit of a transfer whose debit has just committed. Transfers going through account mailboxes
+     * publish the event after their debit has committed, outside a transaction.
+     *
+     * @param event the pending credit
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPendingCredit(PendingCreditEvent event) {
+        senders.execute(() -> deliver(event.getPaymentId(), event.getToAccountId()));
+    }
+
+    /**
+     * Sends again the credits of transfers started by this node that have been pending for too long.
+     */
+    @Scheduled(fixedDelayString = "${cluster.credit-retry-interval-millis:5000}")
+    public void retryPendingCredits() {
+        Set<String> failedNodes = new HashSet<>();
+        retryCursor.sweep(Instant.now().minus(retryAfter), retryBatchSize, payment -> {
+            if (topology.isOwnedElsewhere(payment.getFromAccount())) {
+                return false;
+            }
+            String receivingNode = topology.ownerOf(payment.getToAccount());
+            if (failedNodes.contains(receivingNode)) {
+                return false;
+            }
+            if (!deliver(payment.getId(), payment.getToAccount())) {
+                failedNodes.add(receivingNode);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Delivers a credit to the owner of the receiving account.
+     *
+     * @return {@code false} if the owner could not be reached, did not accept the credit or applying it failed
+     */
+    private boolean deliver(Long paymentId, String toAccountId) {
+        String owner = topology.ownerOf(toAccountId);
+        try {
+            if (owner.equals(topology.getNodeId())) {
+                completeLocally(paymentId);
+                return true;
+            }
+            int status = clusterClient.requestCredit(owner, paymentId);
+            // Only 410 means the receiving account is gone; a 404 may come from a node without the credit endpoint
+            if (status == HttpStatus.GONE.value()) {
+                log.info("Account {} no longer exists, reversing payment {}", toAccountId, paymentId);
+                paymentService.reverseDebit(paymentId);
+            } else if (status != HttpStatus.OK.value()) {
+                log.warn("Node {} answered {} to the credit of payment {}, will retry", owner, status, paymentId);
+                return false;
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Could not reach node {} to credit payment {}, will retry: {}", owner, paymentId, e.toString());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException e) {
+            log.error("Delivering the credit of payment {} failed, will retry", paymentId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Applies a credit on this node, for a receiving account that has moved here since the transfer started.
+     */
+    private void completeLocally(Long paymentId) {
+        try {
+            paymentService.completeCredit(paymentId);
+        } catch (AccountNotFoundException e) {
+            paymentService.reverseDebit(paymentId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        senders.shutdown();
+    }
+}
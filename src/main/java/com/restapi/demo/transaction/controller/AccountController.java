@@ -3,45 +3,93 @@ package com.restapi.demo.transaction.controller;
 import com.restapi.demo.transaction.exception.*;
 import com.restapi.demo.transaction.model.Account;
 import com.restapi.demo.transaction.service.AccountService;
+import com.restapi.demo.transaction.service.HistoricalBalanceService;
+import com.restapi.demo.transaction.service.HistoricalBalanceService.HistoricalBalance;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 @RestController
 @RequestMapping("/v1/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class AccountController {
 
+    private static final int MAX_SEARCH_RESULTS = 1000;
+
     private final AccountService accountService;
+    private final HistoricalBalanceService historicalBalanceService;
 
     @Autowired
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService, HistoricalBalanceService historicalBalanceService) {
         this.accountService = accountService;
+        this.historicalBalanceService = historicalBalanceService;
     }
 
     /**
-     * Returns a list of all accounts.
+     * Returns a list of all accounts. The response carries an ETag, and a request whose If-None-Match header still
+     * matches it is answered with 304 Not Modified without loading the accounts.
      *
-     * @return a ResponseEntity containing a list of accounts and an HTTP status code
+     * @param request the current request, used to evaluate If-None-Match
+     * @return a ResponseEntity containing a list of accounts and an HTTP status code, or {@code null} if the response
+     * has been completed with 304 Not Modified
      */
     @GetMapping
-    public ResponseEntity<List<Account>> getAllAccounts() {
+    public ResponseEntity<List<Account>> getAllAccounts(WebRequest request) {
+        // The version is read before the accounts, so a body can be newer than its ETag but never older.
+        if (request.checkNotModified(accountService.getAllAccountsVersion())) {
+            return null;
+        }
         List<Account> accounts = accountService.getAllAccounts();
         return ResponseEntity.ok(accounts);
     }
 
     /**
-     * Returns the account with the specified ID.
+     * Returns the accounts whose owner contains the given text, or starts with it when {@code match=prefix}, ignoring
+     * case.
+     *
+     * @param owner the text to look for, at least three characters for a substring search
+     * @param match either {@code substring} or {@code prefix}
+     * @param limit the maximum number of accounts to return, up to 1000
+     * @return a ResponseEntity containing the matching accounts and an HTTP status code
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Account>> searchAccounts(@RequestParam String owner,
+                                                        @RequestParam(defaultValue = "substring") String match,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        boolean prefix = "prefix".equals(match);
+        if ((!prefix && !"substring".equals(match)) || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Account> accounts = accountService.searchAccountsByOwner(owner, prefix,
+                Math.min(limit, MAX_SEARCH_RESULTS));
+        return ResponseEntity.ok(accounts);
+    }
+
+    /**
+     * Returns the account with the specified ID. The response carries the account version and creation time as its
+     * ETag, and a request whose If-None-Match header still matches it is answered with 304 Not Modified without
+     * loading the account.
      *
      * @param accountId the ID of the account to retrieve
-     * @return a ResponseEntity containing the account and an HTTP status code
+     * @param request   the current request, used to evaluate If-None-Match
+     * @return a ResponseEntity containing the account and an HTTP status code, or {@code null} if the response has
+     * been completed with 304 Not Modified
      */
     @GetMapping("/{accountId}")
-    public ResponseEntity<Account> getAccountById(@PathVariable String accountId) {
+    public ResponseEntity<Account> getAccountById(@PathVariable String accountId, WebRequest request) {
         try {
+            if (request.checkNotModified(accountService.getAccountVersion(accountId))) {
+                return null;
+            }
             Account account = accountService.getAccountById(accountId);
             return ResponseEntity.ok(account);
         } catch (AccountNotFoundException e) {
@@ -51,11 +99,28 @@ public class AccountController {
         }
     }
 
+    /**
+     * Returns the balance the account with the specified ID had at the given time, derived from the nearest balance
+     * checkpoint and the payments created between the checkpoint and that time.
+     *
+     * @param accountId the ID of the account
+     * @param at        the time as an ISO-8601 instant, e.g. {@code 2024-05-01T00:00:00Z}, not in the future
+     * @return a ResponseEntity containing the balance and an HTTP status code
+     */
+    @GetMapping("/{accountId}/balance")
+    public ResponseEntity<HistoricalBalance> getBalanceAt(@PathVariable String accountId,
+                                                          @RequestParam
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                          Instant at) {
+        return ResponseEntity.ok(historicalBalanceService.getBalanceAt(accountId, at));
+    }
+
     /**
      * Creates a new account.
      *
      * @param account the account to create
-     * @return a ResponseEntity containing the created account and an HTTP status code
+     * @return a ResponseEntity containing the created account and an HTTP status code, or 409 Conflict if the
+     * account ID is already taken
      */
     @PostMapping
     public ResponseEntity<Account> createAccount(@RequestBody Account account) {
@@ -108,6 +173,8 @@ public class AccountController {
             return ResponseEntity.badRequest().body("Insufficient funds.");
         } catch (AccountNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
@@ -186,8 +253,18 @@ public class AccountController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
+    @ExceptionHandler(AccountAlreadyExistsException.class)
+    public ResponseEntity<String> handleAccountAlreadyExistsException(AccountAlreadyExistsException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
     @ExceptionHandler(InsufficientFundsException.class)
     public ResponseEntity<String> handleInsufficientFundsException(InsufficientFundsException ex) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
 }
@@ -0,0 +1,49 @@
+package com.restapi.demo.transaction.controller;
+
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoints called by other cluster nodes. Only registered with {@code cluster.enabled=true}.
+ */
+@RestController
+@RequestMapping("/internal/v1/payments")
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterPaymentController {
+
+    private final PaymentService paymentService;
+
+    @Autowired
+    public ClusterPaymentController(PaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    /**
+     * Applies the credit of a cross-partition transfer to the receiving account, which this node owns.
+     *
+     * @param paymentId the ID of the pending payment
+     * @return a ResponseEntity containing the Payment object, 410 Gone if the receiving account no longer exists, or
+     * 400 if the payment does not exist. The sending node refunds the sender on 410 only; a 404 could come from a node
+     * that does not serve this endpoint at all.
+     */
+    @PostMapping("/{paymentId}/credit")
+    public ResponseEntity<Payment> completeCredit(@PathVariable Long paymentId) {
+        try {
+            return ResponseEntity.ok(paymentService.completeCredit(paymentId));
+        } catch (AccountNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.GONE).body(null);
+        } catch (InvalidAccountException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.restapi.demo.transaction.controller;
+
+import com.restapi.demo.transaction.scheduling.ScheduledPaymentExecutor;
+import com.restapi.demo.transaction.scheduling.ScheduledPaymentScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+/**
+ * Endpoints for scheduled payments called by other cluster nodes. Only registered with {@code cluster.enabled=true}.
+ */
+@RestController
+@RequestMapping("/internal/v1/scheduled-payments")
+@ConditionalOnProperty(name = "cluster.enabled", havingValue = "true")
+public class ClusterScheduledPaymentController {
+
+    private final ScheduledPaymentExecutor executor;
+
+    private final ScheduledPaymentScheduler scheduler;
+
+    @Autowired
+    public ClusterScheduledPaymentController(ScheduledPaymentExecutor executor, ScheduledPaymentScheduler scheduler) {
+        this.executor = executor;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Executes a due schedule whose sending account this node owns and keeps it on this node's timing wheel.
+     *
+     * @param scheduleId the ID of the schedule
+     * @return a ResponseEntity with status 200 once the occurrence has been executed or found to be no longer due
+     */
+    @PostMapping("/{scheduleId}/execute")
+    public ResponseEntity<Void> execute(@PathVariable Long scheduleId) {
+        Instant next = executor.executeHandedOver(scheduleId);
+        if (next != null) {
+            scheduler.schedule(scheduleId, next);
+        }
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.restapi.demo.transaction.controller;
+
+import com.restapi.demo.transaction.limit.ConcurrencyLimitStats;
+import com.restapi.demo.transaction.limit.ConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/concurrency-limit")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitController {
+
+    private final ConcurrencyLimiter limiter;
+
+    @Autowired
+    public ConcurrencyLimitController(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    /**
+     * Returns the current concurrency limit, the requests in flight and the queue and rejection counters of the read
+     * and write lanes.
+     *
+     * @return a ResponseEntity containing the limiter's stats
+     */
+    @GetMapping
+    public ResponseEntity<ConcurrencyLimitStats> getStats() {
+        return ResponseEntity.ok(limiter.getStats());
+    }
+}
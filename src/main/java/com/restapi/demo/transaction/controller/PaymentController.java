@@ -2,29 +2,40 @@ package com.restapi.demo.transaction.controller;
 
 import com.restapi.demo.transaction.exception.AccountNotFoundException;
 import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
 import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.service.PaymentHistoryService;
 import com.restapi.demo.transaction.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 @RestController
 @RequestMapping("/v1/payments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class PaymentController {
 
     private final PaymentService paymentService;
 
+    private final PaymentHistoryService paymentHistoryService;
+
     @Autowired
     /**
-     * Constructs a new PaymentController with the given PaymentService.
+     * Constructs a new PaymentController with the given PaymentService and PaymentHistoryService.
      *
      * @param paymentService the PaymentService to use
+     * @param paymentHistoryService the PaymentHistoryService to use
      */
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, PaymentHistoryService paymentHistoryService) {
         this.paymentService = paymentService;
+        this.paymentHistoryService = paymentHistoryService;
     }
 
     @PostMapping
@@ -46,8 +57,37 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
         } catch (InsufficientFundsException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
+
+    /**
+     * Returns one page of the payment history of an account, newest first. Payments that have been moved to the
+     * archive are included transparently. The response carries an ETag, and a request whose If-None-Match header
+     * still matches it is answered with 304 Not Modified without reading the payments or the archive.
+     *
+     * @param accountId the ID of the account
+     * @param page the zero-based page number
+     * @param size the page size
+     * @param request the current request, used to evaluate If-None-Match
+     * @return a ResponseEntity containing the payments on the page and a status code, or {@code null} if the response
+     * has been completed with 304 Not Modified
+     */
+    @GetMapping("/history")
+    public ResponseEntity<List<Payment>> getPaymentHistory(@RequestParam String accountId,
+                                                           @RequestParam(defaultValue = "0") int page,
+                                                           @RequestParam(defaultValue = "50") int size,
+                                                           WebRequest request) {
+        try {
+            if (request.checkNotModified(paymentHistoryService.getHistoryVersion(accountId, page, size))) {
+                return null;
+            }
+            return ResponseEntity.ok(paymentHistoryService.getPaymentHistory(accountId, page, size));
+        } catch (InvalidAccountException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        }
+    }
 }
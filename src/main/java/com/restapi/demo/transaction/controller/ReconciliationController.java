@@ -0,0 +1,37 @@
+package com.restapi.demo.transaction.controller;
+
+import com.restapi.demo.transaction.reconciliation.ReconciliationJob;
+import com.restapi.demo.transaction.reconciliation.ReconciliationReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/reconciliation")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReconciliationController {
+
+    private final ReconciliationJob reconciliationJob;
+
+    @Autowired
+    public ReconciliationController(ReconciliationJob reconciliationJob) {
+        this.reconciliationJob = reconciliationJob;
+    }
+
+    /**
+     * Returns the report of the most recent reconciliation run.
+     *
+     * @return a ResponseEntity containing the report, or 404 if no run has completed yet
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<ReconciliationReport> getLatestReport() {
+        ReconciliationReport report = reconciliationJob.getLatestReport();
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+}
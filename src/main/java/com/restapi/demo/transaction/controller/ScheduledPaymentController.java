@@ -0,0 +1,127 @@
+package com.restapi.demo.transaction.controller;
+
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.exception.ScheduledPaymentNotFoundException;
+import com.restapi.demo.transaction.model.ScheduledPayment;
+import com.restapi.demo.transaction.service.ScheduledPaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/v1/scheduled-payments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ScheduledPaymentController {
+
+    private final ScheduledPaymentService scheduledPaymentService;
+
+    @Autowired
+    public ScheduledPaymentController(ScheduledPaymentService scheduledPaymentService) {
+        this.scheduledPaymentService = scheduledPaymentService;
+    }
+
+    /**
+     * Schedules a future-dated or recurring payment.
+     *
+     * @param request the schedule to create
+     * @return a ResponseEntity containing the created schedule and an HTTP status code
+     */
+    @PostMapping
+    public ResponseEntity<ScheduledPayment> createScheduledPayment(@RequestBody ScheduledPaymentRequest request) {
+        ScheduledPayment schedule = scheduledPaymentService.createScheduledPayment(request.getFromAccountId(),
+                request.getToAccountId(), request.getAmount(), request.getFirstExecutionAt(),
+                request.getIntervalSeconds());
+        return ResponseEntity.status(HttpStatus.CREATED).body(schedule);
+    }
+
+    /**
+     * Returns the schedule with the specified ID.
+     *
+     * @param scheduleId the ID of the schedule
+     * @return a ResponseEntity containing the schedule and an HTTP status code
+     */
+    @GetMapping("/{scheduleId}")
+    public ResponseEntity<ScheduledPayment> getScheduledPayment(@PathVariable Long scheduleId) {
+        return ResponseEntity.ok(scheduledPaymentService.getScheduledPayment(scheduleId));
+    }
+
+    /**
+     * Cancels the schedule with the specified ID.
+     *
+     * @param scheduleId the ID of the schedule
+     * @return a ResponseEntity containing the cancelled schedule and an HTTP status code
+     */
+    @DeleteMapping("/{scheduleId}")
+    public ResponseEntity<ScheduledPayment> cancelScheduledPayment(@PathVariable Long scheduleId) {
+        return ResponseEntity.ok(scheduledPaymentService.cancelScheduledPayment(scheduleId));
+    }
+
+    public static class ScheduledPaymentRequest {
+        private String fromAccountId;
+        private String toAccountId;
+        private BigDecimal amount;
+        private Instant firstExecutionAt;
+        private Long intervalSeconds;
+
+        public String getFromAccountId() {
+            return fromAccountId;
+        }
+
+        public void setFromAccountId(String fromAccountId) {
+            this.fromAccountId = fromAccountId;
+        }
+
+        public String getToAccountId() {
+            return toAccountId;
+        }
+
+        public void setToAccountId(String toAccountId) {
+            this.toAccountId = toAccountId;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public Instant getFirstExecutionAt() {
+            return firstExecutionAt;
+        }
+
+        public void setFirstExecutionAt(Instant firstExecutionAt) {
+            this.firstExecutionAt = firstExecutionAt;
+        }
+
+        public Long getIntervalSeconds() {
+            return intervalSeconds;
+        }
+
+        public void setIntervalSeconds(Long intervalSeconds) {
+            this.intervalSeconds = intervalSeconds;
+        }
+    }
+
+    @ExceptionHandler(ScheduledPaymentNotFoundException.class)
+    public ResponseEntity<String> handleScheduledPaymentNotFoundException(ScheduledPaymentNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<String> handleAccountNotFoundException(AccountNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidAccountException.class)
+    public ResponseEntity<String> handleInvalidAccountException(InvalidAccountException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,16 @@
+package com.restapi.demo.transaction.exception;
+
+/**
+ * Thrown when an account is created with an ID that is already taken.
+ */
+public class AccountAlreadyExistsException extends RuntimeException {
+
+    /**
+     * Constructs an {@code AccountAlreadyExistsException} with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public AccountAlreadyExistsException(String message) {
+        super(message);
+    }
+}
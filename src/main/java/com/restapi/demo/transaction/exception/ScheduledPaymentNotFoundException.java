@@ -0,0 +1,16 @@
+package com.restapi.demo.transaction.exception;
+
+/**
+ * Thrown when a scheduled payment is not found in the system.
+ */
+public class ScheduledPaymentNotFoundException extends RuntimeException {
+
+    /**
+     * Constructs a {@code ScheduledPaymentNotFoundException} with the specified detail message.
+     *
+     * @param message the detail message.
+     */
+    public ScheduledPaymentNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,173 @@
+package com.restapi.demo.transaction.ingest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fixed-layout binary frames for the low-latency payment listener. All integers are big-endian.
+ *
+ * <pre>
+ * Request, {@value #REQUEST_SIZE} bytes:
+ *   0  u16  magic 0x5059
+ *   2  u8   version
+ *   3  u8   type, {@value #TYPE_PAYMENT_REQUEST}
+ *   4  i64  correlation ID, echoed in the response
+ *  12  u8   from account ID length
+ *  13  36   from account ID, ASCII, zero padded
+ *  49  u8   to account ID length
+ *  50  36   to account ID, ASCII, zero padded
+ *  86  i64  amount, unscaled, greater than zero
+ *  94  u8   amount scale, at most 127
+ *  95  u8   reserved
+ *
+ * Response, {@value #RESPONSE_SIZE} bytes:
+ *   0  u16  magic 0x5059
+ *   2  u8   version
+ *   3  u8   type, {@value #TYPE_PAYMENT_RESPONSE}
+ *   4  i64  correlation ID
+ *  12  u8   status
+ *  13  3    reserved
+ *  16  i64  payment ID, 0 unless the status is {@value #STATUS_OK}
+ * </pre>
+ *
+ * Requests on one connection may be pipelined; responses carry the correlation ID of their request and are not
+ * necessarily returned in request order.
+ */
+public final class BinaryPaymentProtocol {
+
+    public static final short MAGIC = 0x5059;
+    public static final byte VERSION = 1;
+    public static final byte TYPE_PAYMENT_REQUEST = 1;
+    public static final byte TYPE_PAYMENT_RESPONSE = 2;
+
+    public static final int REQUEST_SIZE = 96;
+    public static final int RESPONSE_SIZE = 24;
+    public static final int MAX_ACCOUNT_ID_LENGTH = 36;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_ACCOUNT_NOT_FOUND = 1;
+    public static final byte STATUS_INSUFFICIENT_FUNDS = 2;
+    public static final byte STATUS_INVALID_ACCOUNT = 3;
+    public static final byte STATUS_MALFORMED = 4;
+    public static final byte STATUS_INTERNAL_ERROR = 5;
+    public static final byte STATUS_OVERLOADED = 6;
+
+    private static final int FROM_OFFSET = 12;
+    private static final int TO_OFFSET = 49;
+    private static final int AMOUNT_OFFSET = 86;
+    private static final int SCALE_OFFSET = 94;
+
+    private BinaryPaymentProtocol() {
+    }
+
+    /**
+     * Decodes the request starting at the buffer's position into the given frame and advances the position past it.
+     * The account IDs are copied into the frame's own byte arrays, so nothing is allocated.
+     *
+     * @param buffer the buffer holding at least {@value #REQUEST_SIZE} bytes
+     * @param frame  the frame to decode into
+     * @return {@code true} if the frame is well formed and its amount is positive
+     */
+    public static boolean decodeRequest(ByteBuffer buffer, PaymentFrame frame) {
+        int start = buffer.position();
+        boolean valid = buffer.getShort(start) == MAGIC
+                && buffer.get(start + 2) == VERSION
+                && buffer.get(start + 3) == TYPE_PAYMENT_REQUEST;
+        frame.correlationId = buffer.getLong(start + 4);
+        frame.fromLength = buffer.get(start + FROM_OFFSET) & 0xFF;
+        frame.toLength = buffer.get(start + TO_OFFSET) & 0xFF;
+        valid &= frame.fromLength > 0 && frame.fromLength <= MAX_ACCOUNT_ID_LENGTH
+                && frame.toLength > 0 && frame.toLength <= MAX_ACCOUNT_ID_LENGTH;
+        if (valid) {
+            buffer.get(start + FROM_OFFSET + 1, frame.from, 0, frame.fromLength);
+            buffer.get(start + TO_OFFSET + 1, frame.to, 0, frame.toLength);
+        }
+        frame.unscaledAmount = buffer.getLong(start + AMOUNT_OFFSET);
+        // A scale byte above 127 reads as negative and is rejected along with it
+        frame.scale = buffer.get(start + SCALE_OFFSET);
+        valid &= frame.unscaledAmount > 0 && frame.scale >= 0;
+        buffer.position(start + REQUEST_SIZE);
+        return valid;
+    }
+
+    /**
+     * Encodes a request at the buffer's position and advances the position past it.
+     *
+     * @param buffer         the buffer to write to
+     * @param correlationId  the correlation ID
+     * @param fromAccountId  the sending account ID, ASCII, at most {@value #MAX_ACCOUNT_ID_LENGTH} bytes
+     * @param toAccountId    the receiving account ID, ASCII, at most {@value #MAX_ACCOUNT_ID_LENGTH} bytes
+     * @param unscaledAmount the unscaled amount
+     * @param scale          the scale of the amount
+     */
+    public static void encodeRequest(ByteBuffer buffer, long correlationId, String fromAccountId, String toAccountId,
+                                     long unscaledAmount, int scale) {
+        int start = buffer.position();
+        byte[] from = fromAccountId.getBytes(StandardCharsets.US_ASCII);
+        byte[] to = toAccountId.getBytes(StandardCharsets.US_ASCII);
+        if (from.length > MAX_ACCOUNT_ID_LENGTH || to.length > MAX_ACCOUNT_ID_LENGTH) {
+            throw new IllegalArgumentException("Account IDs are limited to " + MAX_ACCOUNT_ID_LENGTH + " bytes");
+        }
+        for (int i = 0; i < REQUEST_SIZE; i++) {
+            buffer.put(start + i, (byte) 0);
+        }
+        buffer.putShort(start, MAGIC);
+        buffer.put(start + 2, VERSION);
+        buffer.put(start + 3, TYPE_PAYMENT_REQUEST);
+        buffer.putLong(start + 4, correlationId);
+        buffer.put(start + FROM_OFFSET, (byte) from.length);
+        buffer.put(start + FROM_OFFSET + 1, from);
+        buffer.put(start + TO_OFFSET, (byte) to.length);
+        buffer.put(start + TO_OFFSET + 1, to);
+        buffer.putLong(start + AMOUNT_OFFSET, unscaledAmount);
+        buffer.put(start + SCALE_OFFSET, (byte) scale);
+        buffer.position(start + REQUEST_SIZE);
+    }
+
+    /**
+     * Encodes the response of the given frame at the buffer's position and advances the position past it.
+     *
+     * @param buffer the buffer to write to
+     * @param frame  the completed frame
+     */
+    public static void encodeResponse(ByteBuffer buffer, PaymentFrame frame) {
+        buffer.putShort(MAGIC);
+        buffer.put(VERSION);
+        buffer.put(TYPE_PAYMENT_RESPONSE);
+        buffer.putLong(frame.correlationId);
+        buffer.put(frame.status);
+        buffer.put((byte) 0);
+        buffer.putShort((short) 0);
+        buffer.putLong(frame.paymentId);
+    }
+
+    /**
+     * A request and its response. Frames are pooled and reused, so they hold their account IDs in fixed-size
+     * arrays rather than strings.
+     */
+    public static final class PaymentFrame {
+
+        long correlationId;
+        final byte[] from = new byte[MAX_ACCOUNT_ID_LENGTH];
+        int fromLength;
+        final byte[] to = new byte[MAX_ACCOUNT_ID_LENGTH];
+        int toLength;
+        long unscaledAmount;
+        int scale;
+        byte status;
+        long paymentId;
+
+        String fromAccountId() {
+            return new String(from, 0, fromLength, StandardCharsets.US_ASCII);
+        }
+
+        String toAccountId() {
+            return new String(to, 0, toLength, StandardCharsets.US_ASCII);
+        }
+
+        void complete(byte status, long paymentId) {
+            this.status = status;
+            this.paymentId = paymentId;
+        }
+    }
+}
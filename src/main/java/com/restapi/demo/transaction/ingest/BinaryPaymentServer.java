@@ -0,0 +1,397 @@
+package com.restapi.demo.transaction.ingest;
+
+import com.restapi.demo.transaction.cluster.ClusterClient;
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.ingest.BinaryPaymentProtocol.PaymentFrame;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional TCP listener accepting payments as {@link BinaryPaymentProtocol} frames.
+ * <p>
+ * One selector thread accepts connections and does all socket reads and writes through pooled direct buffers.
+ * Requests are decoded into pooled frames and handed to a bounded worker pool, which calls
+ * {@link PaymentService#makePayment} exactly as the REST endpoint does. Completed frames are queued on their
+ * connection and written back by the selector thread. A connection stops being read once it has
+ * {@code payments.binary.max-in-flight-per-connection} requests outstanding, and requests that find the worker queue
+ * full are answered with {@link BinaryPaymentProtocol#STATUS_OVERLOADED} instead of waiting.
+ * <p>
+ * In a cluster, a payment whose sending account is owned by another node is handed to that node with
+ * {@link ClusterClient#makePayment}, as {@code AccountRoutingFilter} does for the REST endpoint, so every transfer
+ * runs on the owner of its sender whichever node's listener received it.
+ * <p>
+ * Enabled with {@code payments.binary.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.binary.enabled", havingValue = "true")
+public class BinaryPaymentServer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryPaymentServer.class);
+
+    private final PaymentService paymentService;
+    private final ClusterTopology topology;
+    private final ObjectProvider<ClusterClient> clusterClient;
+    private final int port;
+    private final int workers;
+    private final int queueCapacity;
+    private final int maxInFlightPerConnection;
+
+    private final DirectBufferPool bufferPool;
+    private final ConcurrentLinkedQueue<PaymentFrame> framePool = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private ThreadPoolExecutor workerPool;
+    private Thread selectorThread;
+    private volatile boolean running;
+
+    /**
+     * Constructs a BinaryPaymentServer.
+     *
+     * @param paymentService           The PaymentService that executes the payments.
+     * @param topology                 The ClusterTopology that decides which node owns a sending account.
+     * @param clusterClient            The ClusterClient used to hand payments to other nodes, only available with
+     *                                 {@code cluster.enabled=true}.
+     * @param port                     The TCP port to listen on.
+     * @param workers                  The number of worker threads calling the PaymentService.
+     * @param queueCapacity            The number of requests that may wait for a worker.
+     * @param maxInFlightPerConnection The number of pipelined requests allowed per connection.
+     * @param bufferSize               The size of each connection's read and write buffer in bytes.
+     */
+    @Autowired
+    public BinaryPaymentServer(PaymentService paymentService, ClusterTopology topology,
+                               ObjectProvider<ClusterClient> clusterClient,
+                               @Value("${payments.binary.port:3100}") int port,
+                               @Value("${payments.binary.workers:16}") int workers,
+                               @Value("${payments.binary.queue-capacity:4096}") int queueCapacity,
+                               @Value("${payments.binary.max-in-flight-per-connection:1024}") int maxInFlightPerConnection,
+                               @Value("${payments.binary.buffer-size:65536}") int bufferSize) {
+        this.paymentService = paymentService;
+        this.topology = topology;
+        this.clusterClient = clusterClient;
+        this.port = port;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.maxInFlightPerConnection = maxInFlightPerConnection;
+        this.bufferPool = new DirectBufferPool(bufferSize, 256);
+    }
+
+    @Override
+    public void start() {
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open binary payment listener on port " + port, e);
+        }
+        workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+        running = true;
+        selectorThread = new Thread(this::runSelector, "binary-payment-selector");
+        selectorThread.start();
+        log.info("Binary payment listener started on port {}", port);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        try {
+            if (selectorThread != null) {
+                selectorThread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runSelector() {
+        try {
+            while (running) {
+                selector.select();
+                Connection pending;
+                while ((pending = pendingWrites.poll()) != null) {
+                    pending.flush();
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable()) {
+                        connection.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        connection.flush();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Binary payment listener failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                log.warn("Error closing binary payment listener", e);
+            }
+        }
+    }
+
+    private void accept() {
+        SocketChannel channel = null;
+        Connection connection = null;
+        try {
+            channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            connection = new Connection(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException e) {
+            // Out of file descriptors, or the peer reset before we got to it: drop this connection only
+            log.warn("Could not accept binary payment connection: {}", e.toString());
+            if (connection != null) {
+                connection.close();
+            } else if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException closeFailure) {
+                    log.debug("Error closing binary payment connection", closeFailure);
+                }
+            }
+        }
+    }
+
+    private void process(Connection connection, PaymentFrame frame) {
+        try {
+            Payment payment = makePayment(frame.fromAccountId(), frame.toAccountId(),
+                    BigDecimal.valueOf(frame.unscaledAmount, frame.scale));
+            frame.complete(BinaryPaymentProtocol.STATUS_OK, payment.getId() == null ? 0 : payment.getId());
+        } catch (AccountNotFoundException e) {
+            frame.complete(BinaryPaymentProtocol.STATUS_ACCOUNT_NOT_FOUND, 0);
+        } catch (InsufficientFundsException e) {
+            frame.complete(BinaryPaymentProtocol.STATUS_INSUFFICIENT_FUNDS, 0);
+        } catch (InvalidAccountException e) {
+            frame.complete(BinaryPaymentProtocol.STATUS_INVALID_ACCOUNT, 0);
+        } catch (IOException e) {
+            log.warn("Could not hand binary payment {} to the owner of account {}", frame.correlationId,
+                    frame.fromAccountId(), e);
+            frame.complete(BinaryPaymentProtocol.STATUS_INTERNAL_ERROR, 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            frame.complete(BinaryPaymentProtocol.STATUS_INTERNAL_ERROR, 0);
+        } catch (RuntimeException e) {
+            log.error("Binary payment {} failed", frame.correlationId, e);
+            frame.complete(BinaryPaymentProtocol.STATUS_INTERNAL_ERROR, 0);
+        }
+        connection.complete(frame);
+    }
+
+    private Payment makePayment(String fromAccountId, String toAccountId, BigDecimal amount)
+            throws IOException, InterruptedException {
+        // A payment to the same account is rejected by the PaymentService before it touches anything
+        if (!fromAccountId.equals(toAccountId) && topology.isOwnedElsewhere(fromAccountId)) {
+            return clusterClient.getObject().makePayment(topology.ownerOf(fromAccountId), fromAccountId, toAccountId,
+                    amount);
+        }
+        return paymentService.makePayment(fromAccountId, toAccountId, amount);
+    }
+
+    private PaymentFrame acquireFrame() {
+        PaymentFrame frame = framePool.poll();
+        return frame != null ? frame : new PaymentFrame();
+    }
+
+    /**
+     * State of one client connection. Everything except {@link #complete(PaymentFrame)} runs on the selector thread.
+     */
+    private final class Connection {
+
+        private final SocketChannel channel;
+        private final ByteBuffer readBuffer = bufferPool.acquire();
+        private final ByteBuffer writeBuffer = bufferPool.acquire();
+        private final ConcurrentLinkedQueue<PaymentFrame> completed = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean queuedForWrite = new AtomicBoolean();
+        private SelectionKey key;
+        private int inFlight;
+        private boolean closed;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        void read() {
+            try {
+                if (channel.read(readBuffer) < 0) {
+                    close();
+                    return;
+                }
+            } catch (IOException e) {
+                close();
+                return;
+            }
+            decodeBuffered();
+        }
+
+        private void decodeBuffered() {
+            readBuffer.flip();
+            while (readBuffer.remaining() >= BinaryPaymentProtocol.REQUEST_SIZE && inFlight < maxInFlightPerConnection) {
+                PaymentFrame frame = acquireFrame();
+                inFlight++;
+                if (!BinaryPaymentProtocol.decodeRequest(readBuffer, frame)) {
+                    frame.complete(BinaryPaymentProtocol.STATUS_MALFORMED, 0);
+                    complete(frame);
+                    continue;
+                }
+                try {
+                    workerPool.execute(() -> process(this, frame));
+                } catch (RejectedExecutionException e) {
+                    frame.complete(BinaryPaymentProtocol.STATUS_OVERLOADED, 0);
+                    complete(frame);
+                }
+            }
+            readBuffer.compact();
+            updateInterest();
+        }
+
+        void complete(PaymentFrame frame) {
+            completed.add(frame);
+            if (queuedForWrite.compareAndSet(false, true)) {
+                pendingWrites.add(this);
+                selector.wakeup();
+            }
+        }
+
+        void flush() {
+            queuedForWrite.set(false);
+            if (closed) {
+                releaseCompleted();
+                return;
+            }
+            // Write until every completed frame is out or the socket stops accepting data; in the latter case
+            // OP_WRITE brings us back once it drains.
+            boolean socketFull = false;
+            while (!socketFull && (writeBuffer.position() > 0 || !completed.isEmpty())) {
+                PaymentFrame frame;
+                while (writeBuffer.remaining() >= BinaryPaymentProtocol.RESPONSE_SIZE
+                        && (frame = completed.poll()) != null) {
+                    BinaryPaymentProtocol.encodeResponse(writeBuffer, frame);
+                    framePool.offer(frame);
+                    inFlight--;
+                }
+                writeBuffer.flip();
+                try {
+                    channel.write(writeBuffer);
+                } catch (IOException e) {
+                    writeBuffer.clear();
+                    close();
+                    return;
+                }
+                socketFull = writeBuffer.hasRemaining();
+                writeBuffer.compact();
+            }
+            if (readBuffer.position() >= BinaryPaymentProtocol.REQUEST_SIZE && inFlight < maxInFlightPerConnection) {
+                decodeBuffered();
+            } else {
+                updateInterest();
+            }
+        }
+
+        private void updateInterest() {
+            if (closed || !key.isValid()) {
+                return;
+            }
+            int ops = 0;
+            if (inFlight < maxInFlightPerConnection) {
+                ops |= SelectionKey.OP_READ;
+            }
+            if (writeBuffer.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (key != null) {
+                key.cancel();
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Error closing binary payment connection", e);
+            }
+            bufferPool.release(readBuffer);
+            bufferPool.release(writeBuffer);
+            releaseCompleted();
+        }
+
+        private void releaseCompleted() {
+            PaymentFrame frame;
+            while ((frame = completed.poll()) != null) {
+                framePool.offer(frame);
+            }
+        }
+    }
+}
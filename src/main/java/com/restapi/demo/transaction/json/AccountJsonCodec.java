@@ -0,0 +1,39 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.restapi.demo.transaction.model.Account;
+
+import java.io.IOException;
+
+/**
+ * JSON mapping of {@link Account}. The version is not part of the body; it is sent as the ETag instead.
+ */
+public class AccountJsonCodec implements JsonCodec<Account> {
+
+    private static final byte[] ID = JsonFields.name("id", true);
+    private static final byte[] OWNER = JsonFields.name("owner", false);
+    private static final byte[] BALANCE = JsonFields.name("balance", false);
+
+    @Override
+    public void write(Account account, JsonOutput output) {
+        output.raw('{')
+                .raw(ID).string(account.getId())
+                .raw(OWNER).string(account.getOwner())
+                .raw(BALANCE).number(account.getBalance())
+                .raw('}');
+    }
+
+    @Override
+    public Account read(JsonParser parser) throws IOException {
+        Account account = new Account();
+        for (boolean more = JsonFields.firstField(parser); more; more = JsonFields.nextField(parser)) {
+            switch (parser.currentName()) {
+                case "id" -> account.setId(JsonFields.readString(parser));
+                case "owner" -> account.setOwner(JsonFields.readString(parser));
+                case "balance" -> account.setBalance(JsonFields.readDecimal(parser));
+                default -> JsonFields.skipValue(parser);
+            }
+        }
+        return account;
+    }
+}
@@ -0,0 +1,36 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.restapi.demo.transaction.controller.AccountController.DepositRequest;
+
+import java.io.IOException;
+
+/**
+ * JSON mapping of the body of {@code POST /v1/accounts/{fromAccountId}/deposit}.
+ */
+public class DepositRequestJsonCodec implements JsonCodec<DepositRequest> {
+
+    private static final byte[] TO_ACCOUNT_ID = JsonFields.name("toAccountId", true);
+    private static final byte[] AMOUNT = JsonFields.name("amount", false);
+
+    @Override
+    public void write(DepositRequest request, JsonOutput output) {
+        output.raw('{')
+                .raw(TO_ACCOUNT_ID).string(request.getToAccountId())
+                .raw(AMOUNT).number(request.getAmount())
+                .raw('}');
+    }
+
+    @Override
+    public DepositRequest read(JsonParser parser) throws IOException {
+        DepositRequest request = new DepositRequest();
+        for (boolean more = JsonFields.firstField(parser); more; more = JsonFields.nextField(parser)) {
+            switch (parser.currentName()) {
+                case "toAccountId" -> request.setToAccountId(JsonFields.readString(parser));
+                case "amount" -> request.setAmount(JsonFields.readDecimal(parser));
+                default -> JsonFields.skipValue(parser);
+            }
+        }
+        return request;
+    }
+}
@@ -0,0 +1,32 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+
+/**
+ * Hand-written JSON mapping of one type, used instead of Jackson's reflective bean mapping on hot endpoints. Codecs
+ * produce and accept the same JSON as the application's {@code ObjectMapper}.
+ *
+ * @param <T> the mapped type
+ */
+public interface JsonCodec<T> {
+
+    /**
+     * Writes the value as a JSON object.
+     *
+     * @param value  the value, not {@code null}
+     * @param output the output to write to
+     */
+    void write(T value, JsonOutput output);
+
+    /**
+     * Reads a value from a parser positioned on the {@code START_OBJECT} token of the value. Unknown fields are
+     * skipped, as the application's {@code ObjectMapper} does.
+     *
+     * @param parser the parser
+     * @return the value
+     * @throws IOException if the input is not a valid JSON object of the expected shape
+     */
+    T read(JsonParser parser) throws IOException;
+}
@@ -0,0 +1,125 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Helpers shared by the codecs. The readers accept the same scalar coercions as Jackson's default deserializers, such
+ * as numbers sent as strings.
+ */
+final class JsonFields {
+
+    private JsonFields() {
+    }
+
+    /**
+     * Returns the bytes of {@code "name":}, or of {@code ,"name":} if the field is not the first of its object.
+     */
+    static byte[] name(String name, boolean first) {
+        return ((first ? "\"" : ",\"") + name + "\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Moves the parser to the first field of the object it is positioned on.
+     *
+     * @return {@code true} while the parser is on a field name, for use as the loop condition together with
+     * {@link #nextField(JsonParser)}
+     */
+    static boolean firstField(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected a JSON object but found " + parser.currentToken());
+        }
+        return nextField(parser);
+    }
+
+    /**
+     * Moves the parser past the value of the current field to the next field name.
+     *
+     * @return {@code true} if the parser is on a field name, {@code false} at the end of the object
+     */
+    static boolean nextField(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.FIELD_NAME) {
+            return true;
+        }
+        if (token != JsonToken.END_OBJECT) {
+            throw new JsonParseException(parser, "Unexpected token " + token + " in JSON object");
+        }
+        return false;
+    }
+
+    static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == null || !token.isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a string but found " + token);
+        }
+        return parser.getText();
+    }
+
+    static BigDecimal readDecimal(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDecimalValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Not a decimal number: " + text, e);
+            }
+        }
+        throw new JsonParseException(parser, "Expected a number but found " + token);
+    }
+
+    static Long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Long.valueOf(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "Not an integer: " + parser.getText(), e);
+            }
+        }
+        throw new JsonParseException(parser, "Expected an integer but found " + token);
+    }
+
+    static Instant readInstant(JsonParser parser) throws IOException {
+        String text = readString(parser);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "Not an ISO-8601 instant: " + text, e);
+        }
+    }
+
+    static void skipValue(JsonParser parser) throws IOException {
+        parser.nextToken();
+        parser.skipChildren();
+    }
+}
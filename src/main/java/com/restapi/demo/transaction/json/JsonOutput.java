@@ -0,0 +1,307 @@
+package com.restapi.demo.transaction.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Growable UTF-8 byte buffer that JSON documents are written into before being copied to the response in one call.
+ * <p>
+ * Strings are escaped the way Jackson's UTF-8 generator escapes them by default: quotes, backslashes, control
+ * characters and characters outside the Basic Multilingual Plane, with the short forms for the common control
+ * characters. Instances are not thread-safe and are meant to be reused through
+ * a {@link JsonOutputPool}.
+ */
+public final class JsonOutput {
+
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer;
+    private int size;
+
+    /**
+     * @param initialCapacity the initial size of the buffer in bytes
+     */
+    public JsonOutput(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * Appends bytes that are already valid JSON, such as a precomputed field name with its quotes and colon.
+     *
+     * @param bytes the bytes to append
+     * @return this output
+     */
+    public JsonOutput raw(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+        return this;
+    }
+
+    /**
+     * Appends a single ASCII character, such as a bracket or comma.
+     *
+     * @param c the character
+     * @return this output
+     */
+    public JsonOutput raw(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends a quoted and escaped string, or {@code null}.
+     *
+     * @param value the string, may be {@code null}
+     * @return this output
+     */
+    public JsonOutput string(String value) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        int length = value.length();
+        // Worst case without escapes is three bytes per char; escapes are rare and grow the buffer on demand.
+        ensureCapacity(length * 3 + 2);
+        byte[] out = buffer;
+        int pos = size;
+        out[pos++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    out[pos++] = (byte) c;
+                    continue;
+                }
+                size = pos;
+                escape(c);
+                ensureCapacity((length - i) * 3 + 1);
+                out = buffer;
+                pos = size;
+            } else if (c < 0x800) {
+                out[pos++] = (byte) (0xC0 | (c >> 6));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // Like Jackson's UTF-8 generator, characters outside the BMP are written as escaped surrogate pairs.
+                size = pos;
+                ensureCapacity(12 + (length - i) * 3);
+                unicodeEscape(c);
+                unicodeEscape(value.charAt(++i));
+                out = buffer;
+                pos = size;
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate cannot be encoded in UTF-8, so it is escaped as Jackson does
+                size = pos;
+                ensureCapacity(6 + (length - i) * 3);
+                unicodeEscape(c);
+                out = buffer;
+                pos = size;
+            } else {
+                out[pos++] = (byte) (0xE0 | (c >> 12));
+                out[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out[pos++] = '"';
+        size = pos;
+        return this;
+    }
+
+    /**
+     * Appends a number in the notation of {@link BigDecimal#toString()}, as Jackson does by default, or {@code null}.
+     *
+     * @param value the number, may be {@code null}
+     * @return this output
+     */
+    public JsonOutput number(BigDecimal value) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        return ascii(value.toString());
+    }
+
+    /**
+     * Appends a number, or {@code null}.
+     *
+     * @param value the number, may be {@code null}
+     * @return this output
+     */
+    public JsonOutput number(Long value) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        long v = value;
+        if (v < 0) {
+            if (v == Long.MIN_VALUE) {
+                return ascii(Long.toString(v));
+            }
+            raw('-');
+            v = -v;
+        }
+        ensureCapacity(19);
+        int digits = 1;
+        for (long rest = v / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        int pos = size + digits;
+        size = pos;
+        do {
+            buffer[--pos] = (byte) ('0' + (v % 10));
+            v /= 10;
+        } while (v != 0);
+        return this;
+    }
+
+    /**
+     * Appends an instant as an ISO-8601 string in the format of {@link DateTimeFormatter#ISO_INSTANT}, as Jackson
+     * writes it with {@code WRITE_DATES_AS_TIMESTAMPS} disabled, or {@code null}. Years 0 to 9999 are formatted
+     * here without going through the formatter.
+     *
+     * @param value the instant, may be {@code null}
+     * @return this output
+     */
+    public JsonOutput instant(Instant value) {
+        if (value == null) {
+            return raw(NULL);
+        }
+        long seconds = value.getEpochSecond();
+        LocalDate date = LocalDate.ofEpochDay(Math.floorDiv(seconds, SECONDS_PER_DAY));
+        if (date.getYear() < 0 || date.getYear() > 9999) {
+            raw('"');
+            ascii(value.toString());
+            return raw('"');
+        }
+        int secondOfDay = (int) Math.floorMod(seconds, SECONDS_PER_DAY);
+        int nano = value.getNano();
+        ensureCapacity(32);
+        buffer[size++] = '"';
+        digits(date.getYear(), 4);
+        buffer[size++] = '-';
+        digits(date.getMonthValue(), 2);
+        buffer[size++] = '-';
+        digits(date.getDayOfMonth(), 2);
+        buffer[size++] = 'T';
+        digits(secondOfDay / 3600, 2);
+        buffer[size++] = ':';
+        digits(secondOfDay / 60 % 60, 2);
+        buffer[size++] = ':';
+        digits(secondOfDay % 60, 2);
+        if (nano != 0) {
+            buffer[size++] = '.';
+            if (nano % 1_000_000 == 0) {
+                digits(nano / 1_000_000, 3);
+            } else if (nano % 1000 == 0) {
+                digits(nano / 1000, 6);
+            } else {
+                digits(nano, 9);
+            }
+        }
+        buffer[size++] = 'Z';
+        buffer[size++] = '"';
+        return this;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the size of the document
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Copies the document to the given stream.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the stream fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    /**
+     * Returns a copy of the document.
+     *
+     * @return the document bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Discards the document so the output can be reused.
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    private JsonOutput ascii(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a non-negative number with leading zeros; the caller ensures capacity.
+     */
+    private void digits(int value, int count) {
+        for (int pos = size + count - 1; pos >= size; pos--) {
+            buffer[pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += count;
+    }
+
+    private void escape(char c) {
+        char shortForm = switch (c) {
+            case '"', '\\' -> c;
+            case '\b' -> 'b';
+            case '\f' -> 'f';
+            case '\n' -> 'n';
+            case '\r' -> 'r';
+            case '\t' -> 't';
+            default -> 0;
+        };
+        if (shortForm == 0) {
+            unicodeEscape(c);
+            return;
+        }
+        ensureCapacity(2);
+        buffer[size++] = '\\';
+        buffer[size++] = (byte) shortForm;
+    }
+
+    private void unicodeEscape(char c) {
+        ensureCapacity(6);
+        buffer[size++] = '\\';
+        buffer[size++] = 'u';
+        buffer[size++] = HEX[c >> 12];
+        buffer[size++] = HEX[(c >> 8) & 0xF];
+        buffer[size++] = HEX[(c >> 4) & 0xF];
+        buffer[size++] = HEX[c & 0xF];
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = size + additional;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
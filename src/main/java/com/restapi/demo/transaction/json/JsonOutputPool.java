@@ -0,0 +1,62 @@
+package com.restapi.demo.transaction.json;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of {@link JsonOutput} buffers shared by all request threads.
+ * <p>
+ * A shared queue is used rather than a thread-local buffer because with virtual threads every request runs on a new
+ * thread, so a thread-local buffer would never be reused. Buffers that grew beyond the retained capacity while
+ * writing an unusually large document are dropped instead of being pooled.
+ */
+public class JsonOutputPool {
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<JsonOutput> outputs = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    /**
+     * @param initialCapacity     the initial capacity of new buffers in bytes
+     * @param maxRetainedCapacity the largest buffer capacity kept for reuse in bytes
+     * @param maxPooled           the maximum number of idle buffers kept for reuse
+     */
+    public JsonOutputPool(int initialCapacity, int maxRetainedCapacity, int maxPooled) {
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Returns an empty output, reusing an idle one if available.
+     *
+     * @return the output
+     */
+    public JsonOutput acquire() {
+        JsonOutput output = outputs.poll();
+        if (output == null) {
+            return new JsonOutput(initialCapacity);
+        }
+        pooled.decrementAndGet();
+        return output;
+    }
+
+    /**
+     * Returns an output to the pool.
+     *
+     * @param output the output, which must not be used afterwards
+     */
+    public void release(JsonOutput output) {
+        if (output.capacity() > maxRetainedCapacity) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            output.reset();
+            outputs.offer(output);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
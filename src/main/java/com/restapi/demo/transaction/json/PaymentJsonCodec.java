@@ -0,0 +1,51 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.restapi.demo.transaction.model.Payment;
+
+import java.io.IOException;
+
+/**
+ * JSON mapping of {@link Payment}, with the fields in the order Jackson uses for it.
+ */
+public class PaymentJsonCodec implements JsonCodec<Payment> {
+
+    private static final byte[] ID = JsonFields.name("id", true);
+    private static final byte[] FROM_ACCOUNT = JsonFields.name("fromAccount", false);
+    private static final byte[] TO_ACCOUNT = JsonFields.name("toAccount", false);
+    private static final byte[] AMOUNT = JsonFields.name("amount", false);
+    private static final byte[] CREATED_AT = JsonFields.name("createdAt", false);
+    private static final byte[] STATUS = JsonFields.name("status", false);
+    private static final byte[] DIRECTION = JsonFields.name("direction", false);
+
+    @Override
+    public void write(Payment payment, JsonOutput output) {
+        output.raw('{')
+                .raw(ID).number(payment.getId())
+                .raw(FROM_ACCOUNT).string(payment.getFromAccount())
+                .raw(TO_ACCOUNT).string(payment.getToAccount())
+                .raw(AMOUNT).number(payment.getAmount())
+                .raw(CREATED_AT).instant(payment.getCreatedAt())
+                .raw(STATUS).string(payment.getStatus())
+                .raw(DIRECTION).string(payment.getDirection())
+                .raw('}');
+    }
+
+    @Override
+    public Payment read(JsonParser parser) throws IOException {
+        Payment payment = new Payment();
+        for (boolean more = JsonFields.firstField(parser); more; more = JsonFields.nextField(parser)) {
+            switch (parser.currentName()) {
+                case "id" -> payment.setId(JsonFields.readLong(parser));
+                case "fromAccount" -> payment.setFromAccount(JsonFields.readString(parser));
+                case "toAccount" -> payment.setToAccount(JsonFields.readString(parser));
+                case "amount" -> payment.setAmount(JsonFields.readDecimal(parser));
+                case "createdAt" -> payment.setCreatedAt(JsonFields.readInstant(parser));
+                case "status" -> payment.setStatus(JsonFields.readString(parser));
+                case "direction" -> payment.setDirection(JsonFields.readString(parser));
+                default -> JsonFields.skipValue(parser);
+            }
+        }
+        return payment;
+    }
+}
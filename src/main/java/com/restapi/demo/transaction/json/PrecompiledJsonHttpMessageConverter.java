@@ -0,0 +1,151 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.restapi.demo.transaction.controller.AccountController.DepositRequest;
+import com.restapi.demo.transaction.controller.AccountController.WithdrawRequest;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.model.Payment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Reads and writes the JSON bodies of the account and payment endpoints with hand-written codecs instead of Jackson's
+ * reflective bean mapping.
+ * <p>
+ * Responses are written into a pooled buffer and sent with a {@code Content-Length} in a single write. Requests are
+ * read with Jackson's streaming parser, without data binding. Every other type, including lists of types without a
+ * codec, is left to the regular Jackson converter, which Spring Boot places after this one.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "json.precompiled-codecs.enabled", havingValue = "true", matchIfMissing = true)
+public class PrecompiledJsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private static final Map<Class<?>, JsonCodec<?>> CODECS = Map.of(
+            Account.class, new AccountJsonCodec(),
+            Payment.class, new PaymentJsonCodec(),
+            DepositRequest.class, new DepositRequestJsonCodec(),
+            WithdrawRequest.class, new WithdrawRequestJsonCodec());
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final JsonOutputPool outputPool;
+
+    /**
+     * Constructs a PrecompiledJsonHttpMessageConverter.
+     *
+     * @param initialBufferSize     The initial size of new output buffers in bytes.
+     * @param maxRetainedBufferSize The largest output buffer kept for reuse in bytes.
+     * @param maxPooledBuffers      The maximum number of idle output buffers kept for reuse.
+     */
+    @Autowired
+    public PrecompiledJsonHttpMessageConverter(
+            @Value("${json.precompiled-codecs.initial-buffer-size:4096}") int initialBufferSize,
+            @Value("${json.precompiled-codecs.max-retained-buffer-size:262144}") int maxRetainedBufferSize,
+            @Value("${json.precompiled-codecs.max-pooled-buffers:64}") int maxPooledBuffers) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        setDefaultCharset(StandardCharsets.UTF_8);
+        this.outputPool = new JsonOutputPool(initialBufferSize, maxRetainedBufferSize, maxPooledBuffers);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CODECS.containsKey(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return type instanceof Class<?> clazz && supports(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return codecFor(type != null ? type : clazz) != null && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException {
+        return readValue(codecFor(type), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return readValue(CODECS.get(clazz), inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage)
+            throws IOException {
+        JsonOutput output = outputPool.acquire();
+        try {
+            if (value instanceof Collection<?> values) {
+                JsonCodec<Object> codec = (JsonCodec<Object>) codecFor(type);
+                output.raw('[');
+                boolean first = true;
+                for (Object element : values) {
+                    if (!first) {
+                        output.raw(',');
+                    }
+                    first = false;
+                    codec.write(element, output);
+                }
+                output.raw(']');
+            } else {
+                ((JsonCodec<Object>) codecFor(value.getClass())).write(value, output);
+            }
+            outputMessage.getHeaders().setContentLength(output.size());
+            output.writeTo(outputMessage.getBody());
+        } finally {
+            outputPool.release(output);
+        }
+    }
+
+    private Object readValue(JsonCodec<?> codec, HttpInputMessage inputMessage) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            parser.nextToken();
+            return codec.read(parser);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e,
+                    inputMessage);
+        }
+    }
+
+    /**
+     * Returns the codec for a mapped type or for a collection of a mapped type, or {@code null} if there is none.
+     */
+    private static JsonCodec<?> codecFor(Type type) {
+        ResolvableType resolved = ResolvableType.forType(type);
+        if (Collection.class.isAssignableFrom(resolved.toClass())) {
+            resolved = resolved.asCollection().getGeneric(0);
+        }
+        Class<?> clazz = resolved.toClass();
+        JsonCodec<?> codec = CODECS.get(clazz);
+        if (codec == null) {
+            // Subclasses such as Hibernate proxies use the codec of the mapped type.
+            for (Map.Entry<Class<?>, JsonCodec<?>> entry : CODECS.entrySet()) {
+                if (entry.getKey().isAssignableFrom(clazz)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return codec;
+    }
+}
@@ -0,0 +1,34 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.restapi.demo.transaction.controller.AccountController.WithdrawRequest;
+
+import java.io.IOException;
+
+/**
+ * JSON mapping of the body of {@code POST /v1/accounts/{accountId}/withdraw}.
+ */
+public class WithdrawRequestJsonCodec implements JsonCodec<WithdrawRequest> {
+
+    private static final byte[] AMOUNT = JsonFields.name("amount", true);
+
+    @Override
+    public void write(WithdrawRequest request, JsonOutput output) {
+        output.raw('{')
+                .raw(AMOUNT).number(request.getAmount())
+                .raw('}');
+    }
+
+    @Override
+    public WithdrawRequest read(JsonParser parser) throws IOException {
+        WithdrawRequest request = new WithdrawRequest();
+        for (boolean more = JsonFields.firstField(parser); more; more = JsonFields.nextField(parser)) {
+            if ("amount".equals(parser.currentName())) {
+                request.setAmount(JsonFields.readDecimal(parser));
+            } else {
+                JsonFields.skipValue(parser);
+            }
+        }
+        return request;
+    }
+}
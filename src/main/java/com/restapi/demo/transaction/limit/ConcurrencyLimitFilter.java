@@ -0,0 +1,80 @@
+package com.restapi.demo.transaction.limit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Admits requests to the account and payment endpoints through the {@link ConcurrencyLimiter} and answers the ones
+ * it rejects with 503 and a {@code Retry-After} header, without touching the database.
+ * <p>
+ * {@code GET} and {@code HEAD} requests use the read lane and everything else the write lane. Requests that
+ * {@code AccountRoutingFilter} forwards to another node have left the chain before this filter, so they are limited
+ * on the node that runs them.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String ACCOUNTS_PATH = "/v1/accounts";
+    private static final String PAYMENTS_PATH = "/v1/payments";
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * Constructs a ConcurrencyLimitFilter.
+     *
+     * @param limiter The ConcurrencyLimiter to admit requests through.
+     */
+    @Autowired
+    public ConcurrencyLimitFilter(ConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !isUnder(path, ACCOUNTS_PATH) && !isUnder(path, PAYMENTS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        ConcurrencyLimiter.Lane lane = "GET".equals(method) || "HEAD".equals(method)
+                ? ConcurrencyLimiter.Lane.READ
+                : ConcurrencyLimiter.Lane.WRITE;
+        if (!limiter.tryAcquire(lane)) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            chain.doFilter(request, response);
+            failed = response.getStatus() >= 500;
+        } finally {
+            limiter.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    private static boolean isUnder(String path, String prefix) {
+        return path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/');
+    }
+}
@@ -0,0 +1,124 @@
+package com.restapi.demo.transaction.limit;
+
+/**
+ * A snapshot of the {@link ConcurrencyLimiter}: its current limit and latencies, and the counters of each lane since
+ * startup.
+ */
+public class ConcurrencyLimitStats {
+
+    private final int limit;
+    private final int inFlight;
+    private final double shortRttMillis;
+    private final double longRttMillis;
+    private final LaneStats writes;
+    private final LaneStats reads;
+
+    public ConcurrencyLimitStats(int limit, int inFlight, double shortRttMillis, double longRttMillis,
+                                 LaneStats writes, LaneStats reads) {
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.shortRttMillis = shortRttMillis;
+        this.longRttMillis = longRttMillis;
+        this.writes = writes;
+        this.reads = reads;
+    }
+
+    /**
+     * Returns the number of requests that may currently be in flight.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Returns the average latency of the most recent window of completed requests.
+     *
+     * @return the short-term latency in milliseconds
+     */
+    public double getShortRttMillis() {
+        return shortRttMillis;
+    }
+
+    /**
+     * Returns the latency the short-term latency is compared with.
+     *
+     * @return the long-term latency in milliseconds
+     */
+    public double getLongRttMillis() {
+        return longRttMillis;
+    }
+
+    public LaneStats getWrites() {
+        return writes;
+    }
+
+    public LaneStats getReads() {
+        return reads;
+    }
+
+    /**
+     * The counters of one lane.
+     */
+    public static class LaneStats {
+
+        private final int queued;
+        private final long admitted;
+        private final long admittedAfterWait;
+        private final long rejected;
+        private final long totalWaitMillis;
+
+        public LaneStats(int queued, long admitted, long admittedAfterWait, long rejected, long totalWaitMillis) {
+            this.queued = queued;
+            this.admitted = admitted;
+            this.admittedAfterWait = admittedAfterWait;
+            this.rejected = rejected;
+            this.totalWaitMillis = totalWaitMillis;
+        }
+
+        /**
+         * Returns the number of requests currently waiting for a slot.
+         *
+         * @return the queue length
+         */
+        public int getQueued() {
+            return queued;
+        }
+
+        public long getAdmitted() {
+            return admitted;
+        }
+
+        /**
+         * Returns how many of the admitted requests had to wait for a slot.
+         *
+         * @return the number of requests admitted from the queue
+         */
+        public long getAdmittedAfterWait() {
+            return admittedAfterWait;
+        }
+
+        /**
+         * Returns the number of requests answered with 503 because the queue was full or their wait ran out.
+         *
+         * @return the number of rejected requests
+         */
+        public long getRejected() {
+            return rejected;
+        }
+
+        /**
+         * Returns the time spent waiting in the queue by all requests, admitted or not.
+         *
+         * @return the total wait in milliseconds
+         */
+        public long getTotalWaitMillis() {
+            return totalWaitMillis;
+        }
+    }
+}
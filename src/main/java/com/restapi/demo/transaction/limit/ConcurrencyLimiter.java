@@ -0,0 +1,216 @@
+package com.restapi.demo.transaction.limit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caps the number of database-bound requests in flight at a limit that follows their latency (see
+ * {@link GradientLimit}), so that a slow database makes requests fail fast instead of piling up on the connection
+ * pool.
+ * <p>
+ * Requests are admitted through one of two lanes sharing the limit. When the limit is reached, a request waits in a
+ * short queue of its lane for at most the lane's maximum wait, and is rejected if the queue is full or the wait runs
+ * out. A freed slot goes to a waiting write before any waiting read, and no read is admitted while a write is queued,
+ * so balance updates keep going when reads pile up.
+ */
+@Component
+@ConditionalOnProperty(name = "concurrency-limit.enabled", havingValue = "true")
+public class ConcurrencyLimiter {
+
+    /**
+     * The lanes requests are admitted through.
+     */
+    public enum Lane {
+        WRITE, READ
+    }
+
+    private final GradientLimit gradientLimit;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LaneState writes;
+    private final LaneState reads;
+
+    private int limit;
+    private int inFlight;
+
+    /**
+     * Constructs a ConcurrencyLimiter.
+     *
+     * @param initialLimit       The limit to start with.
+     * @param minLimit           The lowest the limit may fall to.
+     * @param maxLimit           The highest the limit may grow to.
+     * @param tolerance          How many times the long-term latency recent requests may take before the limit is
+     *                           reduced.
+     * @param smoothing          The share of each newly estimated limit that is applied, between 0 and 1.
+     * @param backoffRatio       The factor the limit is multiplied with when requests fail with a server error.
+     * @param windowSize         The number of completed requests the limit is recalculated after.
+     * @param longWindow         The number of windows the long-term latency averages over.
+     * @param writeQueueCapacity The number of writes that may wait for a slot.
+     * @param writeMaxWaitMillis How long a write may wait for a slot.
+     * @param readQueueCapacity  The number of reads that may wait for a slot.
+     * @param readMaxWaitMillis  How long a read may wait for a slot.
+     */
+    @Autowired
+    public ConcurrencyLimiter(@Value("${concurrency-limit.initial-limit:20}") int initialLimit,
+                              @Value("${concurrency-limit.min-limit:4}") int minLimit,
+                              @Value("${concurrency-limit.max-limit:200}") int maxLimit,
+                              @Value("${concurrency-limit.rtt-tolerance:1.5}") double tolerance,
+                              @Value("${concurrency-limit.smoothing:0.2}") double smoothing,
+                              @Value("${concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                              @Value("${concurrency-limit.window-size:20}") int windowSize,
+                              @Value("${concurrency-limit.long-window:100}") int longWindow,
+                              @Value("${concurrency-limit.write.queue-capacity:100}") int writeQueueCapacity,
+                              @Value("${concurrency-limit.write.max-wait-millis:50}") long writeMaxWaitMillis,
+                              @Value("${concurrency-limit.read.queue-capacity:50}") int readQueueCapacity,
+                              @Value("${concurrency-limit.read.max-wait-millis:10}") long readMaxWaitMillis) {
+        this(new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, smoothing, backoffRatio, windowSize,
+                        longWindow),
+                writeQueueCapacity, writeMaxWaitMillis, readQueueCapacity, readMaxWaitMillis);
+    }
+
+    ConcurrencyLimiter(GradientLimit gradientLimit, int writeQueueCapacity, long writeMaxWaitMillis,
+                       int readQueueCapacity, long readMaxWaitMillis) {
+        this.gradientLimit = gradientLimit;
+        this.limit = gradientLimit.getLimit();
+        this.writes = new LaneState(lock.newCondition(), writeQueueCapacity, writeMaxWaitMillis);
+        this.reads = new LaneState(lock.newCondition(), readQueueCapacity, readMaxWaitMillis);
+    }
+
+    /**
+     * Admits a request if a slot is free or becomes free within the lane's maximum wait. Every admitted request must
+     * be followed by exactly one call to {@link #release}.
+     *
+     * @param lane the lane of the request
+     * @return whether the request was admitted
+     */
+    public boolean tryAcquire(Lane lane) {
+        LaneState state = state(lane);
+        lock.lock();
+        try {
+            if (canAdmit(lane)) {
+                inFlight++;
+                state.admitted++;
+                return true;
+            }
+            if (state.queued >= state.queueCapacity || state.maxWaitNanos <= 0) {
+                state.rejected++;
+                return false;
+            }
+            state.queued++;
+            long start = System.nanoTime();
+            long remaining = state.maxWaitNanos;
+            try {
+                while (!canAdmit(lane)) {
+                    if (remaining <= 0) {
+                        state.rejected++;
+                        return false;
+                    }
+                    remaining = state.available.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                state.rejected++;
+                return false;
+            } finally {
+                state.queued--;
+                state.waitNanos += System.nanoTime() - start;
+            }
+            inFlight++;
+            state.admitted++;
+            state.admittedAfterWait++;
+            return true;
+        } finally {
+            // A slot this caller gave up on, or a read that was held back by this write, may be usable by others
+            signalWaiters(false);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Frees the slot of a completed request and feeds its latency into the limit.
+     *
+     * @param rttNanos the time the request took once admitted
+     * @param dropped  whether it failed with a server error
+     */
+    public void release(long rttNanos, boolean dropped) {
+        lock.lock();
+        try {
+            boolean changed = gradientLimit.onSample(rttNanos, inFlight, dropped);
+            inFlight--;
+            limit = gradientLimit.getLimit();
+            signalWaiters(changed);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit, the requests in flight and the counters of both lanes.
+     *
+     * @return a snapshot of the limiter
+     */
+    public ConcurrencyLimitStats getStats() {
+        lock.lock();
+        try {
+            return new ConcurrencyLimitStats(limit, inFlight,
+                    gradientLimit.getShortRttNanos() / 1e6, gradientLimit.getLongRttNanos() / 1e6,
+                    writes.stats(), reads.stats());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canAdmit(Lane lane) {
+        return inFlight < limit && (lane == Lane.WRITE || writes.queued == 0);
+    }
+
+    private void signalWaiters(boolean all) {
+        if (inFlight >= limit) {
+            return;
+        }
+        if (all) {
+            writes.available.signalAll();
+            reads.available.signalAll();
+        } else if (writes.queued > 0) {
+            writes.available.signal();
+        } else if (reads.queued > 0) {
+            reads.available.signal();
+        }
+    }
+
+    private LaneState state(Lane lane) {
+        return lane == Lane.WRITE ? writes : reads;
+    }
+
+    /**
+     * The queue and counters of one lane, guarded by the limiter's lock.
+     */
+    private static final class LaneState {
+
+        final Condition available;
+        final int queueCapacity;
+        final long maxWaitNanos;
+
+        int queued;
+        long admitted;
+        long admittedAfterWait;
+        long rejected;
+        long waitNanos;
+
+        LaneState(Condition available, int queueCapacity, long maxWaitMillis) {
+            this.available = available;
+            this.queueCapacity = queueCapacity;
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        }
+
+        ConcurrencyLimitStats.LaneStats stats() {
+            return new ConcurrencyLimitStats.LaneStats(queued, admitted, admittedAfterWait, rejected,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.restapi.demo.transaction.limit;
+
+/**
+ * Estimates how many database-bound requests may run at once from the latency they see.
+ * <p>
+ * Completed requests are collected in windows of a fixed number of samples. At the end of each window, the average
+ * latency of the window (the short-term latency) is compared with an exponential average over many windows (the
+ * long-term latency). While the short-term latency stays within {@code tolerance} times the long-term latency, the
+ * limit grows by about the square root of itself per window. Beyond that, the limit is scaled down by the ratio of
+ * the two, but by no more than half per window. A window in which a request failed with a server error cuts the limit
+ * by {@code backoffRatio} straight away, because a connection pool timeout shows up as an error rather than as
+ * latency. All changes are smoothed and kept between the minimum and maximum limit.
+ * <p>
+ * Not thread-safe: {@link ConcurrencyLimiter} only calls it while holding its lock.
+ */
+class GradientLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final int windowSize;
+    private final double longRttWeight;
+
+    private double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    private int windowSamples;
+    private long windowRttSum;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    /**
+     * @param initialLimit the limit to start with
+     * @param minLimit     the lowest the limit may fall to
+     * @param maxLimit     the highest the limit may grow to
+     * @param tolerance    how many times the long-term latency the short-term latency may reach before the limit is
+     *                     reduced
+     * @param smoothing    the share of each newly estimated limit that is applied, between 0 and 1
+     * @param backoffRatio the factor the limit is multiplied with after a window containing a failed request
+     * @param windowSize   the number of completed requests per window
+     * @param longWindow   the number of windows the long-term latency averages over
+     */
+    GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+                  double backoffRatio, int windowSize, int longWindow) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.backoffRatio = backoffRatio;
+        this.windowSize = Math.max(1, windowSize);
+        this.longRttWeight = 2.0 / (Math.max(1, longWindow) + 1);
+        this.limit = clamp(initialLimit);
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    double getShortRttNanos() {
+        return shortRttNanos;
+    }
+
+    double getLongRttNanos() {
+        return longRttNanos;
+    }
+
+    /**
+     * Records one completed request.
+     *
+     * @param rttNanos the time the request took once admitted
+     * @param inFlight the number of requests in flight while it ran, itself included
+     * @param dropped  whether it failed with a server error
+     * @return whether the limit changed
+     */
+    boolean onSample(long rttNanos, int inFlight, boolean dropped) {
+        windowSamples++;
+        windowRttSum += rttNanos;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+        windowDropped |= dropped;
+        if (windowSamples < windowSize) {
+            return false;
+        }
+        int previous = getLimit();
+        update((double) windowRttSum / windowSamples, windowMaxInFlight, windowDropped);
+        windowSamples = 0;
+        windowRttSum = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+        return getLimit() != previous;
+    }
+
+    private void update(double rttNanos, int inFlight, boolean dropped) {
+        shortRttNanos = rttNanos;
+        if (dropped) {
+            limit = clamp(limit * backoffRatio);
+            return;
+        }
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * longRttWeight;
+        }
+        if (longRttNanos > rttNanos * 2) {
+            // Latency is back well below the long-term average, e.g. after a slow period of the database: let the
+            // average catch up sooner, or the limit would keep growing against a stale baseline
+            longRttNanos *= 0.95;
+        }
+        if (inFlight < limit / 2) {
+            // Too few requests to reach the limit, so their latency says nothing about it
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / rttNanos));
+        double estimate = limit * gradient + Math.sqrt(limit);
+        limit = clamp(limit * (1 - smoothing) + estimate * smoothing);
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -1,7 +1,9 @@
 package com.restapi.demo.transaction.model;
 
-import javax.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Table(name = "accounts")
@@ -20,6 +22,25 @@ public class Account {
     @Column(name = "balance", nullable = false)
     private BigDecimal balance;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonIgnore
+    private Long version;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @JsonIgnore
+    private Instant createdAt;
+
+    /**
+     * Stamps the creation time before the account is first persisted, unless one was already set.
+     */
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+    }
+
     /**
      * Returns the owner of the account.
      * @return The owner of the account.
@@ -67,4 +88,38 @@ public class Account {
     public void setId(String id) {
         this.id = id;
     }
+
+    /**
+     * Returns the version of the account, incremented by every update. It is exposed as the ETag of the account
+     * rather than in the JSON body.
+     * @return The version of the account, or {@code null} if it has not been saved yet.
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the account.
+     * @param version The version of the account.
+     */
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    /**
+     * Returns the time the account was created. Together with the version it identifies a state of the account,
+     * even across deleting and recreating an account with the same ID.
+     * @return The creation time, or {@code null} if the account has not been saved yet.
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the time the account was created.
+     * @param createdAt The creation time.
+     */
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
 }
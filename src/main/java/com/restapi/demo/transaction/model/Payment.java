@@ -1,7 +1,8 @@
 package com.restapi.demo.transaction.model;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.Instant;
 
 /**
  * Represents a payment entity in the database, with information about the sender, receiver, amount, and direction of the payment.
@@ -10,6 +11,10 @@ import java.math.BigDecimal;
 @Table(name = "payments")
 public class Payment {
 
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_PENDING_CREDIT = "PENDING_CREDIT";
+    public static final String STATUS_REVERSED = "REVERSED";
+
     public Payment() {
     }
 
@@ -18,15 +23,35 @@ public class Payment {
     @Column(name = "id", nullable = false)
     private Long id;
 
-    @Column(name = "from_account", nullable = false)
+    @Column(name = "from_account")
     private String fromAccount;
 
-    @Column(name = "to_account", nullable = false)
+    @Column(name = "to_account")
     private String toAccount;
 
     @Column(name = "amount", nullable = false)
     private BigDecimal amount;
 
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "status")
+    private String status;
+
+    /**
+     * Stamps the creation time before the payment is first persisted, unless one was already set, and marks the
+     * payment completed unless a status was set.
+     */
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = Instant.now();
+        }
+        if (status == null) {
+            status = STATUS_COMPLETED;
+        }
+    }
+
     /**
      * Returns the unique identifier of the payment.
      *
@@ -46,7 +71,8 @@ public class Payment {
     }
 
     /**
-     * Returns the account ID of the sender of the payment.
+     * Returns the account ID of the sender of the payment, or {@code null} if the money entered the system from
+     * outside, as with a deposit or the opening balance of an account.
      *
      * @return the account ID of the sender
      */
@@ -64,7 +90,8 @@ public class Payment {
     }
 
     /**
-     * Returns the account ID of the receiver of the payment.
+     * Returns the account ID of the receiver of the payment, or {@code null} if the money left the system, as with a
+     * withdrawal.
      *
      * @return the account ID of the receiver
      */
@@ -99,6 +126,65 @@ public class Payment {
         this.amount = amount;
     }
 
+    /**
+     * Returns the time at which the payment was created. The payments table is range partitioned on this column.
+     *
+     * @return the payment creation time
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the time at which the payment was created.
+     *
+     * @param createdAt the payment creation time to set
+     */
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Returns the status of the payment. A transfer between accounts owned by different nodes is
+     * {@value #STATUS_PENDING_CREDIT} between debiting the sender and crediting the receiver, and
+     * {@value #STATUS_REVERSED} if the credit could not be applied and the sender was refunded. Payments written
+     * before the status was introduced have no status and are completed.
+     *
+     * @return the payment status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the payment.
+     *
+     * @param status the payment status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Returns whether the sender of the payment has been debited, which is the case unless the payment was reversed.
+     *
+     * @param status the payment status, may be {@code null}
+     * @return {@code true} if the sender was debited
+     */
+    public static boolean isDebited(String status) {
+        return !STATUS_REVERSED.equals(status);
+    }
+
+    /**
+     * Returns whether the receiver of the payment has been credited.
+     *
+     * @param status the payment status, may be {@code null}
+     * @return {@code true} if the receiver was credited
+     */
+    public static boolean isCredited(String status) {
+        return status == null || STATUS_COMPLETED.equals(status);
+    }
+
     /**
      * Returns the direction of the payment, i.e. whether it was incoming or outgoing.
      *
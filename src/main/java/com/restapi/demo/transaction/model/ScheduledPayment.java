@@ -0,0 +1,220 @@
+package com.restapi.demo.transaction.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Represents a future-dated or recurring payment. The schedule is the durable record; the in-memory timing wheel
+ * is rebuilt from it after a restart.
+ */
+@Entity
+@Table(name = "scheduled_payments")
+public class ScheduledPayment {
+
+    public static final String STATUS_ACTIVE = "ACTIVE";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * The length of the {@code last_error} column; longer messages are cut off.
+     */
+    public static final int MAX_ERROR_LENGTH = 255;
+
+    public ScheduledPayment() {
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "from_account", nullable = false)
+    private String fromAccount;
+
+    @Column(name = "to_account", nullable = false)
+    private String toAccount;
+
+    @Column(name = "amount", nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "next_execution_at", nullable = false)
+    private Instant nextExecutionAt;
+
+    @Column(name = "interval_seconds")
+    private Long intervalSeconds;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "last_executed_at")
+    private Instant lastExecutedAt;
+
+    @Column(name = "last_error", length = MAX_ERROR_LENGTH)
+    private String lastError;
+
+    /**
+     * Returns the unique identifier of the schedule.
+     *
+     * @return the schedule ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier of the schedule.
+     *
+     * @param id the schedule ID to set
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns the account ID the payments are sent from.
+     *
+     * @return the sending account ID
+     */
+    public String getFromAccount() {
+        return fromAccount;
+    }
+
+    /**
+     * Sets the account ID the payments are sent from.
+     *
+     * @param fromAccount the sending account ID to set
+     */
+    public void setFromAccount(String fromAccount) {
+        this.fromAccount = fromAccount;
+    }
+
+    /**
+     * Returns the account ID the payments are sent to.
+     *
+     * @return the receiving account ID
+     */
+    public String getToAccount() {
+        return toAccount;
+    }
+
+    /**
+     * Sets the account ID the payments are sent to.
+     *
+     * @param toAccount the receiving account ID to set
+     */
+    public void setToAccount(String toAccount) {
+        this.toAccount = toAccount;
+    }
+
+    /**
+     * Returns the amount of each payment.
+     *
+     * @return the payment amount
+     */
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    /**
+     * Sets the amount of each payment.
+     *
+     * @param amount the payment amount to set
+     */
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    /**
+     * Returns the time of the next execution.
+     *
+     * @return the next execution time
+     */
+    public Instant getNextExecutionAt() {
+        return nextExecutionAt;
+    }
+
+    /**
+     * Sets the time of the next execution.
+     *
+     * @param nextExecutionAt the next execution time to set
+     */
+    public void setNextExecutionAt(Instant nextExecutionAt) {
+        this.nextExecutionAt = nextExecutionAt;
+    }
+
+    /**
+     * Returns the interval between executions in seconds, or {@code null} for a one-off payment.
+     *
+     * @return the interval in seconds
+     */
+    public Long getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Sets the interval between executions in seconds, or {@code null} for a one-off payment.
+     *
+     * @param intervalSeconds the interval in seconds to set
+     */
+    public void setIntervalSeconds(Long intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Returns the status of the schedule: ACTIVE, COMPLETED, CANCELLED or FAILED.
+     *
+     * @return the schedule status
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the schedule.
+     *
+     * @param status the schedule status to set
+     */
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    /**
+     * Returns the time of the most recent execution.
+     *
+     * @return the last execution time
+     */
+    public Instant getLastExecutedAt() {
+        return lastExecutedAt;
+    }
+
+    /**
+     * Sets the time of the most recent execution.
+     *
+     * @param lastExecutedAt the last execution time to set
+     */
+    public void setLastExecutedAt(Instant lastExecutedAt) {
+        this.lastExecutedAt = lastExecutedAt;
+    }
+
+    /**
+     * Returns the reason the most recent execution failed, or {@code null} if it succeeded.
+     *
+     * @return the last error
+     */
+    public String getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Sets the reason the most recent execution failed, cut off after {@value #MAX_ERROR_LENGTH} characters.
+     *
+     * @param lastError the last error to set
+     */
+    public void setLastError(String lastError) {
+        this.lastError = lastError != null && lastError.length() > MAX_ERROR_LENGTH
+                ? lastError.substring(0, MAX_ERROR_LENGTH)
+                : lastError;
+    }
+}
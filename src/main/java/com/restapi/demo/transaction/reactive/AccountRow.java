@@ -0,0 +1,99 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.model.Account;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.domain.Persistable;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Row of the accounts table as read and written by R2DBC. The JPA {@link Account} entity remains the API
+ * representation; rows are converted at the edge so both stacks serve the same JSON.
+ */
+@Table("accounts")
+public class AccountRow implements Persistable<String> {
+
+    @Id
+    private String id;
+    private String owner;
+    private BigDecimal balance;
+    @Version
+    private Long version;
+
+    @Transient
+    private boolean newRow;
+
+    public AccountRow() {
+    }
+
+    /**
+     * Creates a row to be inserted. Account IDs are assigned by clients, so the row cannot tell from its ID whether
+     * it is new.
+     *
+     * @param account the account to insert
+     * @return the new row
+     */
+    public static AccountRow newRow(Account account) {
+        AccountRow row = new AccountRow();
+        row.id = account.getId();
+        row.owner = account.getOwner();
+        row.balance = account.getBalance();
+        row.newRow = true;
+        return row;
+    }
+
+    /**
+     * Converts the row to the API representation.
+     *
+     * @return the account
+     */
+    public Account toAccount() {
+        Account account = new Account();
+        account.setId(id);
+        account.setOwner(owner);
+        account.setBalance(balance);
+        account.setVersion(version);
+        return account;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+}
@@ -0,0 +1,126 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.model.Payment;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Row of the payments table as read and written by R2DBC. The creation time is held as a UTC
+ * {@link LocalDateTime}, matching how the JPA stack stores it.
+ */
+@Table("payments")
+public class PaymentRow {
+
+    @Id
+    private Long id;
+    @Column("from_account")
+    private String fromAccount;
+    @Column("to_account")
+    private String toAccount;
+    private BigDecimal amount;
+    private String direction;
+    private String status;
+    @Column("created_at")
+    private LocalDateTime createdAt;
+
+    public PaymentRow() {
+    }
+
+    /**
+     * Creates a completed payment row stamped with the current time.
+     *
+     * @param fromAccount the sending account ID, may be {@code null}
+     * @param toAccount   the receiving account ID, may be {@code null}
+     * @param amount      the amount
+     * @param direction   the direction
+     * @return the new row
+     */
+    public static PaymentRow completed(String fromAccount, String toAccount, BigDecimal amount, String direction) {
+        PaymentRow row = new PaymentRow();
+        row.fromAccount = fromAccount;
+        row.toAccount = toAccount;
+        row.amount = amount;
+        row.direction = direction;
+        row.status = Payment.STATUS_COMPLETED;
+        row.createdAt = LocalDateTime.now(ZoneOffset.UTC);
+        return row;
+    }
+
+    /**
+     * Converts the row to the API representation.
+     *
+     * @return the payment
+     */
+    public Payment toPayment() {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setFromAccount(fromAccount);
+        payment.setToAccount(toAccount);
+        payment.setAmount(amount);
+        payment.setDirection(direction);
+        payment.setStatus(status);
+        payment.setCreatedAt(createdAt == null ? null : createdAt.toInstant(ZoneOffset.UTC));
+        return payment;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFromAccount() {
+        return fromAccount;
+    }
+
+    public void setFromAccount(String fromAccount) {
+        this.fromAccount = fromAccount;
+    }
+
+    public String getToAccount() {
+        return toAccount;
+    }
+
+    public void setToAccount(String toAccount) {
+        this.toAccount = toAccount;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
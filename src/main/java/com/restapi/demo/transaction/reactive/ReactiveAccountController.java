@@ -0,0 +1,154 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.controller.AccountController;
+import com.restapi.demo.transaction.controller.AccountController.DepositRequest;
+import com.restapi.demo.transaction.controller.AccountController.WithdrawRequest;
+import com.restapi.demo.transaction.exception.AccountAlreadyExistsException;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Account;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive variant of {@link AccountController} with the same paths, status codes and bodies.
+ */
+@RestController
+@RequestMapping("/v1/accounts")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountController {
+
+    private final ReactiveAccountService accountService;
+
+    @Autowired
+    public ReactiveAccountController(ReactiveAccountService accountService) {
+        this.accountService = accountService;
+    }
+
+    /**
+     * Returns all accounts.
+     *
+     * @return the accounts
+     */
+    @GetMapping
+    public Flux<Account> getAllAccounts() {
+        return accountService.getAllAccounts();
+    }
+
+    /**
+     * Returns the account with the specified ID.
+     *
+     * @param accountId the ID of the account to retrieve
+     * @return a ResponseEntity containing the account, or 404 if it does not exist
+     */
+    @GetMapping("/{accountId}")
+    public Mono<ResponseEntity<Account>> getAccountById(@PathVariable String accountId) {
+        return accountService.getAccountById(accountId)
+                .map(ResponseEntity::ok)
+                .onErrorResume(AccountNotFoundException.class, e -> Mono.just(ResponseEntity.notFound().build()));
+    }
+
+    /**
+     * Creates a new account.
+     *
+     * @param account the account to create
+     * @return a ResponseEntity containing the created account, or 409 Conflict if the account ID is already taken
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Account>> createAccount(@RequestBody Account account) {
+        return accountService.createAccount(account)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    /**
+     * Updates the account with the specified ID.
+     *
+     * @param accountId the ID of the account to update
+     * @param account   the updated account object
+     * @return a ResponseEntity containing the updated account
+     */
+    @PutMapping("/{accountId}")
+    public Mono<ResponseEntity<Account>> updateAccount(@PathVariable String accountId, @RequestBody Account account) {
+        return accountService.updateAccount(accountId, account).map(ResponseEntity::ok);
+    }
+
+    /**
+     * Deletes the account with the specified ID.
+     *
+     * @param accountId the ID of the account to delete
+     * @return a ResponseEntity with status 204
+     */
+    @DeleteMapping("/{accountId}")
+    public Mono<ResponseEntity<Void>> deleteAccount(@PathVariable String accountId) {
+        return accountService.deleteAccount(accountId).thenReturn(ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Deposits funds from one account to another.
+     *
+     * @param fromAccountId  the ID of the account to transfer funds from
+     * @param depositRequest the account to transfer funds to and the amount
+     * @return a ResponseEntity with a confirmation message, or an error status
+     */
+    @PostMapping("/{fromAccountId}/deposit")
+    public Mono<ResponseEntity<String>> deposit(@PathVariable String fromAccountId,
+                                                @RequestBody DepositRequest depositRequest) {
+        String message = String.format("Successfully transferred %s from account %s to account %s.",
+                depositRequest.getAmount(), fromAccountId, depositRequest.getToAccountId());
+        return accountService.deposit(depositRequest.getToAccountId(), depositRequest.getAmount(), fromAccountId)
+                .thenReturn(ResponseEntity.ok(message))
+                .onErrorResume(e -> {
+                    if (e instanceof InsufficientFundsException) {
+                        return Mono.just(ResponseEntity.badRequest().body("Insufficient funds."));
+                    }
+                    if (e instanceof AccountNotFoundException) {
+                        return Mono.just(ResponseEntity.notFound().build());
+                    }
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+
+    /**
+     * Withdraws funds from the account.
+     *
+     * @param accountId       the ID of the account to withdraw from
+     * @param withdrawRequest the amount to withdraw
+     * @return a ResponseEntity with status 204, or an error status and message
+     */
+    @PostMapping("/{accountId}/withdraw")
+    public Mono<ResponseEntity<String>> withdraw(@PathVariable String accountId,
+                                                 @RequestBody WithdrawRequest withdrawRequest) {
+        return accountService.withdraw(accountId, withdrawRequest.getAmount())
+                .thenReturn(ResponseEntity.noContent().<String>build())
+                .onErrorResume(e -> e instanceof AccountNotFoundException || e instanceof InsufficientFundsException,
+                        e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())))
+                .onErrorResume(InvalidAccountException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage())));
+    }
+
+    @ExceptionHandler(AccountNotFoundException.class)
+    public ResponseEntity<String> handleAccountNotFoundException(AccountNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidAccountException.class)
+    public ResponseEntity<String> handleInvalidAccountException(InvalidAccountException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<String> handleInsufficientFundsException(InsufficientFundsException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(AccountAlreadyExistsException.class)
+    public ResponseEntity<String> handleAccountAlreadyExistsException(AccountAlreadyExistsException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+}
@@ -0,0 +1,40 @@
+package com.restapi.demo.transaction.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface ReactiveAccountRepository extends R2dbcRepository<AccountRow, String> {
+
+    /**
+     * Subtracts the amount from the account's balance if the balance covers it. The check and the update are a
+     * single statement, so concurrent debits cannot overdraw the account. Like a JPA update, it increments the
+     * account version.
+     *
+     * @param id     the account ID
+     * @param amount the amount to subtract
+     * @return the number of updated rows, 0 if the account does not exist or the balance is too low
+     */
+    @Modifying
+    @Query("UPDATE accounts SET balance = balance - :amount, version = version + 1 " +
+            "WHERE id = :id AND balance >= :amount")
+    Mono<Integer> debit(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    /**
+     * Adds the amount to the account's balance unless that would make the balance negative.
+     *
+     * @param id     the account ID
+     * @param amount the amount to add, may be negative
+     * @return the number of updated rows, 0 if the account does not exist or the balance would become negative
+     */
+    @Modifying
+    @Query("UPDATE accounts SET balance = balance + :amount, version = version + 1 " +
+            "WHERE id = :id AND balance + :amount >= 0")
+    Mono<Integer> credit(@Param("id") String id, @Param("amount") BigDecimal amount);
+}
@@ -0,0 +1,215 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.exception.AccountAlreadyExistsException;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.service.AccountService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-blocking counterpart of {@link AccountService}, with the same validation, errors and ledger entries.
+ * <p>
+ * Balance changes are conditional {@code UPDATE} statements rather than read-modify-write cycles, so concurrent
+ * updates of one account are serialized by the database row lock without any lock in this process.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveAccountService {
+
+    private final ReactiveAccountRepository accountRepository;
+    private final ReactivePaymentRepository paymentRepository;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Constructs a ReactiveAccountService.
+     *
+     * @param accountRepository     The ReactiveAccountRepository to use for accessing account data.
+     * @param paymentRepository     The ReactivePaymentRepository to use for recording balance changes.
+     * @param transactionalOperator The TransactionalOperator to run multi-statement updates in.
+     */
+    @Autowired
+    public ReactiveAccountService(ReactiveAccountRepository accountRepository,
+                                  ReactivePaymentRepository paymentRepository,
+                                  TransactionalOperator transactionalOperator) {
+        this.accountRepository = accountRepository;
+        this.paymentRepository = paymentRepository;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Retrieves the account with the specified ID.
+     *
+     * @param accountId The ID of the account to retrieve.
+     * @return The account, or an {@link AccountNotFoundException} or {@link InvalidAccountException} error.
+     */
+    public Mono<Account> getAccountById(String accountId) {
+        if (accountId == null || accountId.isEmpty()) {
+            return Mono.error(new InvalidAccountException("Account id cannot be null or empty"));
+        }
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account not found")))
+                .map(AccountRow::toAccount);
+    }
+
+    /**
+     * Retrieves all accounts.
+     *
+     * @return All accounts.
+     */
+    public Flux<Account> getAllAccounts() {
+        return accountRepository.findAll().map(AccountRow::toAccount);
+    }
+
+    /**
+     * Creates a new account and records its opening balance. An existing account is never overwritten.
+     *
+     * @param account The account to create.
+     * @return The newly created account, or an {@link AccountAlreadyExistsException} error if an account already
+     * exists with its ID.
+     */
+    public Mono<Account> createAccount(Account account) {
+        Mono<Boolean> exists = account.getId() == null ? Mono.just(false) : accountRepository.existsById(account.getId());
+        return exists
+                .flatMap(taken -> taken
+                        ? Mono.<AccountRow>error(new AccountAlreadyExistsException("Account already exists"))
+                        : accountRepository.save(AccountRow.newRow(account)))
+                // Another request created the account between the check and the insert.
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> new AccountAlreadyExistsException("Account already exists"))
+                .flatMap(row -> recordBalanceChange(row.getId(), BigDecimal.ZERO, row.getBalance()).thenReturn(row))
+                .map(AccountRow::toAccount)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Updates an existing account and records any change of its balance.
+     *
+     * @param accountId      The ID of the account to update.
+     * @param updatedAccount The updated account data.
+     * @return The updated account, or an {@link AccountNotFoundException} or {@link InvalidAccountException} error.
+     */
+    public Mono<Account> updateAccount(String accountId, Account updatedAccount) {
+        if (accountId == null || accountId.isEmpty()) {
+            return Mono.error(new InvalidAccountException("Account id cannot be null or empty"));
+        }
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account not found")))
+                .flatMap(row -> {
+                    BigDecimal previousBalance = row.getBalance();
+                    row.setOwner(updatedAccount.getOwner());
+                    row.setBalance(updatedAccount.getBalance());
+                    return accountRepository.save(row)
+                            .flatMap(saved -> recordBalanceChange(accountId, previousBalance, saved.getBalance())
+                                    .thenReturn(saved));
+                })
+                .map(AccountRow::toAccount)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Deletes the account with the specified ID and records its remaining balance as paid out.
+     *
+     * @param accountId The ID of the account to delete.
+     * @return Completion, or an {@link AccountNotFoundException} or {@link InvalidAccountException} error.
+     */
+    public Mono<Void> deleteAccount(String accountId) {
+        if (accountId == null || accountId.isEmpty()) {
+            return Mono.error(new InvalidAccountException("Account id cannot be null or empty"));
+        }
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(() -> new AccountNotFoundException("Account not found")))
+                .flatMap(row -> recordBalanceChange(accountId, row.getBalance(), BigDecimal.ZERO)
+                        .then(accountRepository.delete(row)))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Withdraws the specified amount from the account with the specified ID.
+     *
+     * @param accountId The ID of the account to withdraw from.
+     * @param amount    The amount to withdraw.
+     * @return Completion, or an {@link AccountNotFoundException}, {@link InvalidAccountException} or
+     * {@link InsufficientFundsException} error.
+     */
+    public Mono<Void> withdraw(String accountId, BigDecimal amount) {
+        if (accountId == null || accountId.isEmpty()) {
+            return Mono.error(new InvalidAccountException("Account id cannot be null or empty"));
+        }
+        return accountRepository.debit(accountId, amount)
+                .flatMap(updated -> updated > 0
+                        ? paymentRepository.save(PaymentRow.completed(accountId, null, amount, "outgoing")).then()
+                        : failedUpdate(accountId, new InsufficientFundsException("Insufficient funds in account")))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Deposits the specified amount into the account with the specified ID, taking it from another account if one
+     * is given and exists.
+     *
+     * @param accountId     The ID of the account to deposit into.
+     * @param amount        The amount to deposit.
+     * @param fromAccountId The ID of the account that the funds are being transferred from, may be {@code null}.
+     * @return Completion, or an {@link AccountNotFoundException}, {@link InvalidAccountException} or
+     * {@link InsufficientFundsException} error.
+     */
+    public Mono<Void> deposit(String accountId, BigDecimal amount, String fromAccountId) {
+        if (accountId == null || accountId.isEmpty()) {
+            return Mono.error(new InvalidAccountException("Account id cannot be null or empty"));
+        }
+        return accountRepository.credit(accountId, amount)
+                .flatMap(updated -> updated > 0
+                        ? debitSender(accountId, amount, fromAccountId).flatMap(paymentRepository::save).then()
+                        : failedUpdate(accountId, new InsufficientFundsException("Insufficient funds")))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Debits the sender of a deposit, if one is given and exists, and returns the payment to record.
+     */
+    private Mono<PaymentRow> debitSender(String accountId, BigDecimal amount, String fromAccountId) {
+        PaymentRow incoming = PaymentRow.completed(null, accountId, amount, "incoming");
+        if (fromAccountId == null || fromAccountId.isEmpty()) {
+            return Mono.just(incoming);
+        }
+        return accountRepository.existsById(fromAccountId).flatMap(exists -> !exists
+                ? Mono.just(incoming)
+                : accountRepository.debit(fromAccountId, amount).flatMap(updated -> updated > 0
+                        ? Mono.just(PaymentRow.completed(fromAccountId, accountId, amount, "outgoing"))
+                        : Mono.error(new InsufficientFundsException("Insufficient funds"))));
+    }
+
+    /**
+     * Turns a conditional update that matched no row into the right error: the account does not exist, or the
+     * condition did not hold.
+     */
+    private Mono<Void> failedUpdate(String accountId, RuntimeException conditionFailed) {
+        return accountRepository.existsById(accountId)
+                .flatMap(exists -> Mono.error(exists
+                        ? conditionFailed
+                        : new AccountNotFoundException("Account not found")));
+    }
+
+    private Mono<Void> recordBalanceChange(String accountId, BigDecimal previousBalance, BigDecimal newBalance) {
+        if (newBalance == null) {
+            return Mono.empty();
+        }
+        BigDecimal difference = newBalance.subtract(previousBalance == null ? BigDecimal.ZERO : previousBalance);
+        if (difference.signum() == 0) {
+            return Mono.empty();
+        }
+        PaymentRow payment = difference.signum() > 0
+                ? PaymentRow.completed(null, accountId, difference.abs(), "incoming")
+                : PaymentRow.completed(accountId, null, difference.abs(), "outgoing");
+        return paymentRepository.save(payment).then();
+    }
+}
@@ -0,0 +1,72 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.controller.PaymentController;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Payment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Reactive variant of {@link PaymentController} with the same paths, status codes and bodies.
+ */
+@RestController
+@RequestMapping("/v1/payments")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentController {
+
+    private final ReactivePaymentService paymentService;
+
+    @Autowired
+    public ReactivePaymentController(ReactivePaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    /**
+     * Makes a payment from one account to another.
+     *
+     * @param fromAccountId the ID of the account to transfer funds from
+     * @param toAccountId   the ID of the account to transfer funds to
+     * @param amount        the amount to transfer
+     * @return a ResponseEntity containing the Payment object and a status code
+     */
+    @PostMapping
+    public Mono<ResponseEntity<Payment>> makePayment(@RequestParam String fromAccountId,
+                                                     @RequestParam String toAccountId,
+                                                     @RequestParam BigDecimal amount) {
+        return paymentService.makePayment(fromAccountId, toAccountId, amount)
+                .map(ResponseEntity::ok)
+                .onErrorResume(e -> {
+                    HttpStatus status = e instanceof AccountNotFoundException ? HttpStatus.NOT_FOUND
+                            : e instanceof InsufficientFundsException ? HttpStatus.BAD_REQUEST
+                            : HttpStatus.INTERNAL_SERVER_ERROR;
+                    return Mono.just(ResponseEntity.status(status).body(null));
+                });
+    }
+
+    /**
+     * Returns one page of the payment history of an account, newest first, including archived payments.
+     *
+     * @param accountId the ID of the account
+     * @param page      the zero-based page number
+     * @param size      the page size
+     * @return a ResponseEntity containing the payments on the page and a status code
+     */
+    @GetMapping("/history")
+    public Mono<ResponseEntity<List<Payment>>> getPaymentHistory(@RequestParam String accountId,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "50") int size) {
+        return paymentService.getPaymentHistory(accountId, page, size)
+                .map(ResponseEntity::ok)
+                .onErrorResume(InvalidAccountException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.restapi.demo.transaction.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactivePaymentRepository extends R2dbcRepository<PaymentRow, Long> {
+
+    /**
+     * Returns the payments sent from or received by the given account, newest first.
+     *
+     * @param accountId the ID of the account
+     * @param limit     the maximum number of payments to return
+     * @return the account's payments, newest first
+     */
+    @Query("SELECT * FROM payments WHERE from_account = :accountId OR to_account = :accountId " +
+            "ORDER BY created_at DESC, id DESC LIMIT :limit")
+    Flux<PaymentRow> findHistory(@Param("accountId") String accountId, @Param("limit") int limit);
+}
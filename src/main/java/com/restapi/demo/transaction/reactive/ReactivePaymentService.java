@@ -0,0 +1,116 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.service.PaymentHistoryService;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link PaymentService#makePayment} and {@link PaymentHistoryService}.
+ * <p>
+ * A transfer runs in one reactive transaction: both accounts are looked up, the sender is debited with a conditional
+ * update that fails if the balance does not cover the amount, the receiver is credited and the payment recorded.
+ * Cross-partition transfers are not supported, so this variant refuses to start with {@code cluster.enabled=true}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentService {
+
+    private final ReactiveAccountRepository accountRepository;
+    private final ReactivePaymentRepository paymentRepository;
+    private final PaymentHistoryService historyService;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Constructs a ReactivePaymentService.
+     *
+     * @param accountRepository     The ReactiveAccountRepository to use for updating balances.
+     * @param paymentRepository     The ReactivePaymentRepository to use for recording and reading payments.
+     * @param historyService        The PaymentHistoryService to complete histories from the archive with.
+     * @param transactionalOperator The TransactionalOperator to run transfers in.
+     * @param clusterTopology       The ClusterTopology, which must not be enabled.
+     */
+    @Autowired
+    public ReactivePaymentService(ReactiveAccountRepository accountRepository,
+                                  ReactivePaymentRepository paymentRepository,
+                                  PaymentHistoryService historyService,
+                                  TransactionalOperator transactionalOperator,
+                                  ClusterTopology clusterTopology) {
+        if (clusterTopology.isEnabled()) {
+            throw new IllegalStateException("The reactive payment API does not support cluster.enabled=true");
+        }
+        this.accountRepository = accountRepository;
+        this.paymentRepository = paymentRepository;
+        this.historyService = historyService;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    /**
+     * Makes a payment from one account to another.
+     *
+     * @param fromAccountId The ID of the account to transfer funds from.
+     * @param toAccountId   The ID of the account to transfer funds to.
+     * @param amount        The amount to transfer.
+     * @return The payment, or an {@link AccountNotFoundException}, {@link InsufficientFundsException} or
+     * {@link InvalidAccountException} error.
+     */
+    public Mono<Payment> makePayment(String fromAccountId, String toAccountId, BigDecimal amount) {
+        if (fromAccountId.equals(toAccountId)) {
+            return Mono.error(new InvalidAccountException("From account and to account cannot be the same."));
+        }
+        return requireAccount(fromAccountId)
+                .then(requireAccount(toAccountId))
+                .then(accountRepository.debit(fromAccountId, amount))
+                .flatMap(debited -> debited > 0
+                        ? accountRepository.credit(toAccountId, amount)
+                        : Mono.error(new InsufficientFundsException(
+                                "Insufficient balance in account with id: " + fromAccountId)))
+                .flatMap(credited -> credited > 0
+                        ? paymentRepository.save(PaymentRow.completed(fromAccountId, toAccountId, amount, "OUTGOING"))
+                        : Mono.error(new AccountNotFoundException("Account not found with id: " + toAccountId)))
+                .map(PaymentRow::toPayment)
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Returns one page of the payments sent from or received by the given account, newest first, including
+     * archived payments.
+     *
+     * @param accountId The ID of the account.
+     * @param page      The zero-based page number.
+     * @param size      The page size.
+     * @return The payments on the page, or an {@link InvalidAccountException} error.
+     */
+    public Mono<List<Payment>> getPaymentHistory(String accountId, int page, int size) {
+        try {
+            PaymentHistoryService.checkPage(accountId, page, size);
+        } catch (InvalidAccountException e) {
+            return Mono.error(e);
+        }
+        return paymentRepository.findHistory(accountId, (page + 1) * size)
+                .map(PaymentRow::toPayment)
+                .collectList()
+                // Scanning the memory-mapped archive files can fault pages in from disk, so it is kept off the
+                // event loop.
+                .publishOn(Schedulers.boundedElastic())
+                .map(payments -> historyService.completeFromArchive(accountId, payments, page, size));
+    }
+
+    private Mono<AccountRow> requireAccount(String accountId) {
+        return accountRepository.findById(accountId)
+                .switchIfEmpty(Mono.error(
+                        () -> new AccountNotFoundException("Account not found with id: " + accountId)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.restapi.demo.transaction.reconciliation;
+
+/**
+ * Open-addressing hash map from account ID to a net flow held as a primitive {@code long} of minor units.
+ * <p>
+ * Account IDs are strings in this schema, so the keys stay objects, but the values are never boxed and adding to an
+ * existing entry does not allocate. Not thread-safe; each fork/join task aggregates into its own map and the maps are
+ * merged as the tasks join.
+ */
+class AccountFlowMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private String[] keys;
+    private long[] values;
+    private int size;
+
+    AccountFlowMap() {
+        this(64);
+    }
+
+    AccountFlowMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new String[capacity];
+        values = new long[capacity];
+    }
+
+    /**
+     * Adds the given delta to the entry for the account, creating the entry if needed.
+     */
+    void add(String accountId, long delta) {
+        int slot = slot(keys, accountId);
+        if (keys[slot] == null) {
+            keys[slot] = accountId;
+            if (++size > keys.length * LOAD_FACTOR) {
+                resize();
+                slot = slot(keys, accountId);
+            }
+        }
+        values[slot] += delta;
+    }
+
+    /**
+     * Returns the net flow of the account, or 0 if the account has no entry.
+     */
+    long get(String accountId) {
+        int slot = slot(keys, accountId);
+        return keys[slot] == null ? 0 : values[slot];
+    }
+
+    /**
+     * Returns whether the account has an entry.
+     */
+    boolean containsKey(String accountId) {
+        return keys[slot(keys, accountId)] != null;
+    }
+
+    /**
+     * Removes the entry for the account and returns its value, or 0 if there was none. Used to find accounts that
+     * appear in payments but no longer exist.
+     */
+    long remove(String accountId) {
+        int slot = slot(keys, accountId);
+        if (keys[slot] == null) {
+            return 0;
+        }
+        long value = values[slot];
+        // Backward-shift deletion keeps linear probing chains intact without tombstones.
+        int mask = keys.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = mix(keys[next].hashCode()) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = 0;
+        size--;
+        return value;
+    }
+
+    /**
+     * Adds every entry of the other map into this one.
+     */
+    void mergeFrom(AccountFlowMap other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != null) {
+                add(other.keys[i], other.values[i]);
+            }
+        }
+    }
+
+    /**
+     * Calls the consumer for every entry.
+     */
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new String[oldKeys.length << 1];
+        values = new long[oldKeys.length << 1];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(String[] keys, String key) {
+        int mask = keys.length - 1;
+        int slot = mix(key.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @FunctionalInterface
+    interface EntryConsumer {
+        void accept(String accountId, long value);
+    }
+}
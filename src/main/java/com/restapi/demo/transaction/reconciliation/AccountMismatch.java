@@ -0,0 +1,46 @@
+package com.restapi.demo.transaction.reconciliation;
+
+import java.math.BigDecimal;
+
+/**
+ * An account whose stored balance differs from the balance implied by its payments.
+ */
+public class AccountMismatch {
+
+    private final String accountId;
+    private final BigDecimal balance;
+    private final BigDecimal expectedBalance;
+
+    public AccountMismatch(String accountId, BigDecimal balance, BigDecimal expectedBalance) {
+        this.accountId = accountId;
+        this.balance = balance;
+        this.expectedBalance = expectedBalance;
+    }
+
+    /**
+     * Returns the ID of the account, which may no longer exist if money was paid to or from a deleted account.
+     *
+     * @return the account ID
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * Returns the balance stored on the account, or {@code null} if the account does not exist.
+     *
+     * @return the stored balance
+     */
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    /**
+     * Returns the sum of all payments received by the account minus all payments sent from it.
+     *
+     * @return the expected balance
+     */
+    public BigDecimal getExpectedBalance() {
+        return expectedBalance;
+    }
+}
@@ -0,0 +1,284 @@
+package com.restapi.demo.transaction.reconciliation;
+
+import com.restapi.demo.transaction.archive.PaymentArchiveReader;
+import com.restapi.demo.transaction.archive.PaymentArchiveStore;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import com.restapi.demo.transaction.repository.LedgerScanRepository.AccountBalance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks that every account balance equals the sum of the payments received by the account minus the payments sent
+ * from it.
+ * <p>
+ * The payments table is split into ID-range chunks that a small fork/join pool aggregates in parallel, each task into
+ * its own {@link AccountFlowMap}; archive files are aggregated the same way. The accounts table is then read in ID
+ * order, chunk by chunk, and compared against the aggregated flows. All reads go through a shared
+ * {@link ReconciliationThrottle} so the job can run next to live traffic.
+ * <p>
+ * Because payments keep flowing while the tables are scanned, a difference found by the bulk pass is only a
+ * candidate. Each candidate is checked again on its own within a single repeatable-read transaction, and only
+ * confirmed differences are reported.
+ */
+@Component
+public class ReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ReconciliationJob.class);
+
+    private final LedgerScanRepository scanRepository;
+    private final PaymentArchiveStore archiveStore;
+    private final TransactionTemplate snapshotTransaction;
+    private final int chunkSize;
+    private final int parallelism;
+    private final long rowsPerSecond;
+    private final int amountScale;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ReconciliationReport> latestReport = new AtomicReference<>();
+
+    /**
+     * Constructs a ReconciliationJob.
+     *
+     * @param scanRepository     The LedgerScanRepository to use for reading accounts and payments in chunks.
+     * @param archiveStore       The PaymentArchiveStore holding archived payments.
+     * @param transactionManager The transaction manager used to confirm candidate mismatches.
+     * @param chunkSize          The number of payment IDs or accounts read per query.
+     * @param parallelism        The number of worker threads aggregating payments.
+     * @param rowsPerSecond      The maximum number of rows read per second, or 0 for no limit.
+     * @param amountScale        The number of decimal places of the amount and balance columns.
+     */
+    @Autowired
+    public ReconciliationJob(LedgerScanRepository scanRepository, PaymentArchiveStore archiveStore,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${reconciliation.chunk-size:5000}") int chunkSize,
+                             @Value("${reconciliation.parallelism:2}") int parallelism,
+                             @Value("${reconciliation.rows-per-second:50000}") long rowsPerSecond,
+                             @Value("${reconciliation.amount-scale:2}") int amountScale) {
+        this.scanRepository = scanRepository;
+        this.archiveStore = archiveStore;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setReadOnly(true);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.rowsPerSecond = rowsPerSecond;
+        this.amountScale = amountScale;
+    }
+
+    /**
+     * Runs the reconciliation on the configured schedule.
+     */
+    @Scheduled(cron = "${reconciliation.cron:0 0 3 * * *}", zone = "UTC")
+    public void scheduledRun() {
+        run();
+    }
+
+    /**
+     * Returns the report of the most recent completed run.
+     *
+     * @return the latest report, or {@code null} if the job has not completed yet
+     */
+    public ReconciliationReport getLatestReport() {
+        return latestReport.get();
+    }
+
+    /**
+     * Reconciles all accounts against all payments. Does nothing if a run is already in progress.
+     *
+     * @return the report of this run, or the previous report if a run was already in progress
+     */
+    public ReconciliationReport run() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Reconciliation already running, skipping");
+            return latestReport.get();
+        }
+        try {
+            ReconciliationReport report = reconcile();
+            latestReport.set(report);
+            if (report.getMismatches().isEmpty()) {
+                log.info("Reconciliation found no mismatches in {} accounts and {} payments",
+                        report.getAccountsChecked(), report.getPaymentsScanned());
+            } else {
+                log.warn("Reconciliation found {} mismatching accounts: {}", report.getMismatches().size(),
+                        report.getMismatches().stream().map(AccountMismatch::getAccountId).limit(100).toList());
+            }
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ReconciliationReport reconcile() {
+        Instant startedAt = Instant.now();
+        ReconciliationThrottle throttle = new ReconciliationThrottle(rowsPerSecond);
+        AtomicLong paymentsScanned = new AtomicLong();
+
+        AccountFlowMap flows;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<AccountFlowMap>> archiveTasks = new ArrayList<>();
+            for (PaymentArchiveReader reader : archiveStore.readersNewestFirst()) {
+                archiveTasks.add(pool.submit(() -> aggregateArchive(reader, throttle, paymentsScanned)));
+            }
+            long[] idRange = scanRepository.findPaymentIdRange();
+            flows = pool.invoke(new PaymentRangeTask(idRange[0], idRange[1] + 1, throttle, paymentsScanned));
+            for (ForkJoinTask<AccountFlowMap> task : archiveTasks) {
+                flows.mergeFrom(task.join());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, BigDecimal> candidates = new LinkedHashMap<>();
+        long accountsChecked = 0;
+        String lastId = "";
+        List<AccountBalance> chunk;
+        do {
+            chunk = scanRepository.findAccountBalancesAfter(lastId, chunkSize);
+            throttle.acquire(chunk.size());
+            for (AccountBalance account : chunk) {
+                long expected = flows.remove(account.getId());
+                if (toMinorUnits(account.getBalance()) != expected) {
+                    candidates.put(account.getId(), account.getBalance());
+                }
+                lastId = account.getId();
+            }
+            accountsChecked += chunk.size();
+        } while (chunk.size() == chunkSize);
+        // Whatever is left was paid to or from accounts that no longer exist.
+        flows.forEach((accountId, expected) -> {
+            if (expected != 0) {
+                candidates.put(accountId, null);
+            }
+        });
+
+        List<AccountMismatch> mismatches = new ArrayList<>();
+        for (String accountId : candidates.keySet()) {
+            throttle.acquire(1);
+            AccountMismatch mismatch = snapshotTransaction.execute(status -> confirm(accountId));
+            if (mismatch != null) {
+                mismatches.add(mismatch);
+            }
+        }
+        return new ReconciliationReport(startedAt, Instant.now(), accountsChecked, paymentsScanned.get(), mismatches);
+    }
+
+    private AccountMismatch confirm(String accountId) {
+        BigDecimal balance = scanRepository.findBalance(accountId);
+        BigDecimal[] archivedFlow = {BigDecimal.ZERO};
+        for (PaymentArchiveReader reader : archiveStore.readersNewestFirst()) {
+            reader.scan(accountId, (id, createdAt, from, to, direction, status, unscaledAmount, scale) -> {
+                BigDecimal amount = BigDecimal.valueOf(unscaledAmount, scale);
+                if (accountId.equals(to) && Payment.isCredited(status)) {
+                    archivedFlow[0] = archivedFlow[0].add(amount);
+                } else if (accountId.equals(from) && Payment.isDebited(status)) {
+                    archivedFlow[0] = archivedFlow[0].subtract(amount);
+                }
+            });
+        }
+        BigDecimal expected = scanRepository.sumNetFlow(accountId).add(archivedFlow[0]);
+        BigDecimal actual = balance == null ? BigDecimal.ZERO : balance;
+        if (actual.compareTo(expected) == 0) {
+            return null;
+        }
+        return new AccountMismatch(accountId, balance, expected);
+    }
+
+    private AccountFlowMap aggregateArchive(PaymentArchiveReader reader, ReconciliationThrottle throttle,
+                                            AtomicLong paymentsScanned) {
+        AccountFlowMap flows = new AccountFlowMap();
+        long[] rows = {0};
+        reader.scan((id, createdAt, from, to, direction, status, unscaledAmount, scale) -> {
+            long amount = scale == amountScale
+                    ? unscaledAmount
+                    : toMinorUnits(BigDecimal.valueOf(unscaledAmount, scale));
+            addFlow(flows, from, to, status, amount);
+            if (++rows[0] % chunkSize == 0) {
+                throttle.acquire(chunkSize);
+            }
+        });
+        paymentsScanned.addAndGet(rows[0]);
+        return flows;
+    }
+
+    private static void addFlow(AccountFlowMap flows, String from, String to, String status, long amount) {
+        if (from != null && Payment.isDebited(status)) {
+            flows.add(from, -amount);
+        }
+        if (to != null && Payment.isCredited(status)) {
+            flows.add(to, amount);
+        }
+    }
+
+    private long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(amountScale).longValueExact();
+    }
+
+    /**
+     * Aggregates the net flows of the payments with IDs in {@code [fromId, toId)}, splitting the range until it fits
+     * in a single chunk.
+     */
+    private class PaymentRangeTask extends RecursiveTask<AccountFlowMap> {
+
+        private final long fromId;
+        private final long toId;
+        private final ReconciliationThrottle throttle;
+        private final AtomicLong paymentsScanned;
+
+        PaymentRangeTask(long fromId, long toId, ReconciliationThrottle throttle, AtomicLong paymentsScanned) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.throttle = throttle;
+            this.paymentsScanned = paymentsScanned;
+        }
+
+        @Override
+        protected AccountFlowMap compute() {
+            if (toId - fromId <= chunkSize) {
+                AccountFlowMap flows = new AccountFlowMap(chunkSize);
+                long[] rows = {0};
+                scanRepository.scanPayments(fromId, toId, rs -> {
+                    addFlow(flows, rs.getString(1), rs.getString(2), rs.getString(4),
+                            toMinorUnits(rs.getBigDecimal(3)));
+                    rows[0]++;
+                });
+                paymentsScanned.addAndGet(rows[0]);
+                throttle.acquire(rows[0]);
+                return flows;
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            PaymentRangeTask left = new PaymentRangeTask(fromId, middle, throttle, paymentsScanned);
+            PaymentRangeTask right = new PaymentRangeTask(middle, toId, throttle, paymentsScanned);
+            left.fork();
+            AccountFlowMap flows = right.compute();
+            AccountFlowMap leftFlows = left.join();
+            if (leftFlows.size() > flows.size()) {
+                leftFlows.mergeFrom(flows);
+                return leftFlows;
+            }
+            flows.mergeFrom(leftFlows);
+            return flows;
+        }
+    }
+}
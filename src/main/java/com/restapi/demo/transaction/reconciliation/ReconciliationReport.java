@@ -0,0 +1,55 @@
+package com.restapi.demo.transaction.reconciliation;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The outcome of one reconciliation run.
+ */
+public class ReconciliationReport {
+
+    private final Instant startedAt;
+    private final Instant finishedAt;
+    private final long accountsChecked;
+    private final long paymentsScanned;
+    private final List<AccountMismatch> mismatches;
+
+    public ReconciliationReport(Instant startedAt, Instant finishedAt, long accountsChecked, long paymentsScanned,
+                                List<AccountMismatch> mismatches) {
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.accountsChecked = accountsChecked;
+        this.paymentsScanned = paymentsScanned;
+        this.mismatches = mismatches;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getAccountsChecked() {
+        return accountsChecked;
+    }
+
+    /**
+     * Returns the number of payments aggregated, from the payments table and the archive files together.
+     *
+     * @return the number of payments scanned
+     */
+    public long getPaymentsScanned() {
+        return paymentsScanned;
+    }
+
+    /**
+     * Returns the accounts whose mismatch was confirmed by a second, single-account check.
+     *
+     * @return the mismatching accounts
+     */
+    public List<AccountMismatch> getMismatches() {
+        return mismatches;
+    }
+}
@@ -0,0 +1,44 @@
+package com.restapi.demo.transaction.reconciliation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps the number of rows per second the reconciliation job reads, shared by all of its worker threads.
+ * <p>
+ * Each chunk reserves time in proportion to its row count; a caller whose reservation starts in the future sleeps
+ * until then, so short bursts are spread out instead of competing with the payment endpoints for the database.
+ */
+class ReconciliationThrottle {
+
+    private final long rowsPerSecond;
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param rowsPerSecond the maximum read rate, or 0 or less for no limit
+     */
+    ReconciliationThrottle(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    /**
+     * Waits until the given number of rows may be read.
+     */
+    void acquire(long rows) {
+        if (rowsPerSecond <= 0 || rows <= 0) {
+            return;
+        }
+        long cost = TimeUnit.SECONDS.toNanos(rows) / rowsPerSecond;
+        long now = System.nanoTime();
+        long start = nextFreeNanos.getAndUpdate(previous -> Math.max(previous, now) + cost);
+        long wait = start - now;
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.restapi.demo.transaction.repository;
 
 import com.restapi.demo.transaction.model.Account;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,4 +31,65 @@ public interface AccountRepository extends JpaRepository<Account, String> {
      *         or an empty optional if it does not.
      */
     Optional<Account> findById(String id);
+
+    /**
+     * Finds accounts whose owner starts with the given text, using the index on the owner column. Whether case is
+     * ignored depends on the column's collation.
+     *
+     * @param owner    The text the owner has to start with.
+     * @param pageable The maximum number of accounts to return.
+     * @return The matching accounts.
+     */
+    List<Account> findByOwnerStartingWith(String owner, Pageable pageable);
+
+    /**
+     * Finds accounts whose owner contains the given text. The index on the owner column cannot narrow this down, so
+     * it reads the index until enough accounts are found.
+     *
+     * @param owner    The text the owner has to contain.
+     * @param pageable The maximum number of accounts to return.
+     * @return The matching accounts.
+     */
+    List<Account> findByOwnerContaining(String owner, Pageable pageable);
+
+    /**
+     * Finds the account with the specified ID and locks its row until the surrounding transaction ends.
+     *
+     * @param id The ID of the account to find.
+     * @return An optional containing the locked account, or an empty optional if it does not exist.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.id = :id")
+    Optional<Account> findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Returns the version and creation time of the account with the specified ID without loading the account.
+     *
+     * @param id The ID of the account.
+     * @return An optional containing the version, or an empty optional if the account does not exist.
+     */
+    @Query("select a.version as version, a.createdAt as createdAt from Account a where a.id = :id")
+    Optional<AccountVersion> findVersionById(@Param("id") String id);
+
+    /**
+     * Returns a fingerprint of the whole accounts table that changes whenever an account is created, updated or
+     * deleted: the number of accounts, the sum of their versions and the XOR of the CRC32 of their IDs and creation
+     * times. Only the primary key, version and creation time columns are read.
+     *
+     * @return The fingerprint of the accounts table.
+     */
+    @Query(value = "SELECT CONCAT(COUNT(*), '-', COALESCE(SUM(version), 0), '-', " +
+            "BIT_XOR(CRC32(CONCAT(id, '@', created_at)))) FROM accounts",
+            nativeQuery = true)
+    String findTableVersion();
+
+    /**
+     * The version and creation time of an account.
+     */
+    interface AccountVersion {
+
+        Long getVersion();
+
+        Instant getCreatedAt();
+    }
 }
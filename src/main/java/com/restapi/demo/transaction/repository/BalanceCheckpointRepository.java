@@ -0,0 +1,143 @@
+package com.restapi.demo.transaction.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the balance checkpoints table; see {@code db/balance-checkpoints.sql}.
+ */
+@Repository
+public class BalanceCheckpointRepository {
+
+    private static final RowMapper<BalanceCheckpoint> CHECKPOINT_MAPPER = (rs, rowNum) -> new BalanceCheckpoint(
+            rs.getString(1), rs.getObject(2, LocalDateTime.class).toInstant(ZoneOffset.UTC), rs.getBigDecimal(3),
+            rs.getLong(4));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a BalanceCheckpointRepository with the given JdbcTemplate.
+     *
+     * @param jdbcTemplate The JdbcTemplate to use for the checkpoints table.
+     */
+    @Autowired
+    public BalanceCheckpointRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the latest checkpoint of the given account taken at or before the given time.
+     *
+     * @param accountId the account ID
+     * @param at        the time
+     * @return the checkpoint, or {@code null} if there is none
+     */
+    public BalanceCheckpoint findLatestAtOrBefore(String accountId, Instant at) {
+        List<BalanceCheckpoint> checkpoints = jdbcTemplate.query(
+                "SELECT account_id, taken_at, balance, account_version FROM balance_checkpoints " +
+                        "WHERE account_id = ? AND taken_at <= ? ORDER BY taken_at DESC LIMIT 1",
+                CHECKPOINT_MAPPER, accountId, toUtc(at));
+        return checkpoints.isEmpty() ? null : checkpoints.get(0);
+    }
+
+    /**
+     * Returns the earliest checkpoint of the given account taken after the given time.
+     *
+     * @param accountId the account ID
+     * @param at        the time
+     * @return the checkpoint, or {@code null} if there is none
+     */
+    public BalanceCheckpoint findEarliestAfter(String accountId, Instant at) {
+        List<BalanceCheckpoint> checkpoints = jdbcTemplate.query(
+                "SELECT account_id, taken_at, balance, account_version FROM balance_checkpoints " +
+                        "WHERE account_id = ? AND taken_at > ? ORDER BY taken_at LIMIT 1",
+                CHECKPOINT_MAPPER, accountId, toUtc(at));
+        return checkpoints.isEmpty() ? null : checkpoints.get(0);
+    }
+
+    /**
+     * Returns the account version recorded by the latest checkpoint of each of the given accounts. Accounts without
+     * checkpoints are left out.
+     *
+     * @param accountIds the account IDs
+     * @return the latest checkpointed version, by account ID
+     */
+    public Map<String, Long> findLatestVersions(List<String> accountIds) {
+        Map<String, Long> versions = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return versions;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        jdbcTemplate.query("SELECT c.account_id, c.account_version FROM balance_checkpoints c " +
+                        "WHERE c.account_id IN (" + placeholders + ") AND c.taken_at = (SELECT MAX(l.taken_at) " +
+                        "FROM balance_checkpoints l WHERE l.account_id = c.account_id)",
+                rs -> {
+                    versions.put(rs.getString(1), rs.getLong(2));
+                }, accountIds.toArray());
+        return versions;
+    }
+
+    /**
+     * Inserts checkpoints in a single batch.
+     *
+     * @param checkpoints the checkpoints to insert
+     */
+    public void insert(List<BalanceCheckpoint> checkpoints) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO balance_checkpoints (account_id, taken_at, balance, account_version) VALUES (?, ?, ?, ?)",
+                checkpoints, checkpoints.size(), (ps, checkpoint) -> {
+                    ps.setString(1, checkpoint.getAccountId());
+                    ps.setObject(2, toUtc(checkpoint.getTakenAt()));
+                    ps.setBigDecimal(3, checkpoint.getBalance());
+                    ps.setLong(4, checkpoint.getAccountVersion());
+                });
+    }
+
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    /**
+     * The balance of an account at the time a checkpoint was taken, and the account version it was read at.
+     */
+    public static class BalanceCheckpoint {
+        private final String accountId;
+        private final Instant takenAt;
+        private final BigDecimal balance;
+        private final long accountVersion;
+
+        public BalanceCheckpoint(String accountId, Instant takenAt, BigDecimal balance, long accountVersion) {
+            this.accountId = accountId;
+            this.takenAt = takenAt;
+            this.balance = balance;
+            this.accountVersion = accountVersion;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public Instant getTakenAt() {
+            return takenAt;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        public long getAccountVersion() {
+            return accountVersion;
+        }
+    }
+}
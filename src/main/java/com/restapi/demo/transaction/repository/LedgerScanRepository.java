@@ -0,0 +1,297 @@
+package com.restapi.demo.transaction.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the accounts and payments tables in bounded chunks for batch jobs, without loading entities into a
+ * persistence context.
+ */
+@Repository
+public class LedgerScanRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a LedgerScanRepository with the given JdbcTemplate.
+     *
+     * @param jdbcTemplate The JdbcTemplate to use for the scans.
+     */
+    @Autowired
+    public LedgerScanRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the lowest and highest payment IDs currently in the payments table.
+     *
+     * @return a two element array holding the lowest and highest payment ID, both 0 if the table is empty
+     */
+    public long[] findPaymentIdRange() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), 0) FROM payments",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+    }
+
+    /**
+     * Streams the sender, receiver, amount and status of every payment with an ID in the given range.
+     *
+     * @param fromId  the lowest payment ID, inclusive
+     * @param toId    the highest payment ID, exclusive
+     * @param handler the handler to receive the rows
+     */
+    public void scanPayments(long fromId, long toId, RowCallbackHandler handler) {
+        jdbcTemplate.query("SELECT from_account, to_account, amount, status FROM payments WHERE id >= ? AND id < ?",
+                handler, fromId, toId);
+    }
+
+    /**
+     * Returns the next chunk of account balances in ID order, starting after the given account ID.
+     *
+     * @param afterId the account ID to continue after, or an empty string to start at the beginning
+     * @param limit   the maximum number of accounts to return
+     * @return the accounts in the chunk, in ID order
+     */
+    public List<AccountBalance> findAccountBalancesAfter(String afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, balance FROM accounts WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new AccountBalance(rs.getString(1), rs.getBigDecimal(2)), afterId, limit);
+    }
+
+    /**
+     * Returns the next chunk of account balances and versions in ID order, starting after the given account ID.
+     *
+     * @param afterId the account ID to continue after, or an empty string to start at the beginning
+     * @param limit   the maximum number of accounts to return
+     * @return the accounts in the chunk, in ID order
+     */
+    public List<AccountState> findAccountStatesAfter(String afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, balance, version FROM accounts WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new AccountState(rs.getString(1), rs.getBigDecimal(2), rs.getLong(3)), afterId, limit);
+    }
+
+    /**
+     * Returns the net amount received by each of the given accounts through payments created after the given time,
+     * counted the same way as {@link #sumNetFlow}. Accounts without such payments are left out.
+     *
+     * @param accountIds the account IDs
+     * @param after      the creation time to start after
+     * @return the total received minus the total sent, by account ID
+     */
+    public Map<String, BigDecimal> sumNetFlowsAfter(List<String> accountIds, Instant after) {
+        Map<String, BigDecimal> flows = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return flows;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        List<Object> args = new ArrayList<>(accountIds);
+        args.add(toUtc(after));
+        jdbcTemplate.query("SELECT to_account, SUM(amount) FROM payments WHERE to_account IN (" + placeholders + ") " +
+                        "AND created_at > ? AND (status IS NULL OR status = 'COMPLETED') GROUP BY to_account",
+                rs -> {
+                    flows.merge(rs.getString(1), rs.getBigDecimal(2), BigDecimal::add);
+                }, args.toArray());
+        jdbcTemplate.query("SELECT from_account, SUM(amount) FROM payments WHERE from_account IN (" + placeholders
+                        + ") AND created_at > ? AND (status IS NULL OR status <> 'REVERSED') GROUP BY from_account",
+                rs -> {
+                    flows.merge(rs.getString(1), rs.getBigDecimal(2).negate(), BigDecimal::add);
+                }, args.toArray());
+        return flows;
+    }
+
+    /**
+     * Returns the net amount received by the given account through payments created within the given period, counted
+     * the same way as {@link #sumNetFlow}.
+     *
+     * @param accountId the account ID
+     * @param after     the creation time to start after
+     * @param upTo      the last creation time to include
+     * @return the total received minus the total sent
+     */
+    public BigDecimal sumNetFlowBetween(String accountId, Instant after, Instant upTo) {
+        LocalDateTime from = toUtc(after);
+        LocalDateTime to = toUtc(upTo);
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT COALESCE(SUM(amount), 0) FROM payments WHERE to_account = ? " +
+                        "AND created_at > ? AND created_at <= ? AND (status IS NULL OR status = 'COMPLETED')) " +
+                        "- (SELECT COALESCE(SUM(amount), 0) FROM payments WHERE from_account = ? " +
+                        "AND created_at > ? AND created_at <= ? AND (status IS NULL OR status <> 'REVERSED'))",
+                BigDecimal.class, accountId, from, to, accountId, from, to);
+    }
+
+    /**
+     * Returns the next chunk of account owners in ID order, starting after the given account ID.
+     *
+     * @param afterId the account ID to continue after, or an empty string to start at the beginning
+     * @param limit   the maximum number of accounts to return
+     * @return the accounts in the chunk, in ID order
+     */
+    public List<AccountOwner> findAccountOwnersAfter(String afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, owner FROM accounts WHERE id > ? ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new AccountOwner(rs.getString(1), rs.getString(2)), afterId, limit);
+    }
+
+    /**
+     * Returns which of the given accounts sent or received a payment created up to and including the given time that is
+     * still waiting for its credit.
+     *
+     * @param accountIds the account IDs
+     * @param upTo       the last creation time to include
+     * @return the IDs of the accounts with such a payment
+     */
+    public Set<String> findAccountsWithPendingCredits(List<String> accountIds, Instant upTo) {
+        Set<String> accounts = new HashSet<>();
+        if (accountIds.isEmpty()) {
+            return accounts;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        List<Object> args = new ArrayList<>();
+        args.add(toUtc(upTo));
+        args.addAll(accountIds);
+        args.add(toUtc(upTo));
+        args.addAll(accountIds);
+        jdbcTemplate.query("SELECT from_account FROM payments WHERE status = 'PENDING_CREDIT' AND created_at <= ? " +
+                        "AND from_account IN (" + placeholders + ") UNION SELECT to_account FROM payments " +
+                        "WHERE status = 'PENDING_CREDIT' AND created_at <= ? AND to_account IN (" + placeholders + ")",
+                rs -> {
+                    accounts.add(rs.getString(1));
+                }, args.toArray());
+        return accounts;
+    }
+
+    /**
+     * Returns the current owners of the given accounts. Accounts that do not exist are left out.
+     *
+     * @param accountIds the account IDs
+     * @return the owners, by account ID
+     */
+    public Map<String, String> findAccountOwners(List<String> accountIds) {
+        Map<String, String> owners = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return owners;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(accountIds.size(), "?"));
+        jdbcTemplate.query("SELECT id, owner FROM accounts WHERE id IN (" + placeholders + ")",
+                rs -> {
+                    owners.put(rs.getString(1), rs.getString(2));
+                }, accountIds.toArray());
+        return owners;
+    }
+
+    /**
+     * Returns the stored balance of the given account.
+     *
+     * @param accountId the account ID
+     * @return the balance, or {@code null} if the account does not exist
+     */
+    public BigDecimal findBalance(String accountId) {
+        List<BigDecimal> balances = jdbcTemplate.queryForList(
+                "SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        return balances.isEmpty() ? null : balances.get(0);
+    }
+
+    /**
+     * Returns the net amount received by the given account according to the payments table. Payments still waiting
+     * for their credit count only against the sender, and reversed payments do not count at all.
+     *
+     * @param accountId the account ID
+     * @return the total received minus the total sent
+     */
+    public BigDecimal sumNetFlow(String accountId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT (SELECT COALESCE(SUM(amount), 0) FROM payments WHERE to_account = ? " +
+                        "AND (status IS NULL OR status = 'COMPLETED')) " +
+                        "- (SELECT COALESCE(SUM(amount), 0) FROM payments WHERE from_account = ? " +
+                        "AND (status IS NULL OR status <> 'REVERSED'))",
+                BigDecimal.class, accountId, accountId);
+    }
+
+    /**
+     * The ID and balance of an account.
+     */
+    public static class AccountBalance {
+        private final String id;
+        private final BigDecimal balance;
+
+        public AccountBalance(String id, BigDecimal balance) {
+            this.id = id;
+            this.balance = balance;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+    }
+
+    /**
+     * Converts an instant to the UTC wall-clock time stored in the {@code DATETIME} columns, which Hibernate writes
+     * in UTC as well.
+     */
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    /**
+     * The ID, balance and version of an account.
+     */
+    public static class AccountState {
+        private final String id;
+        private final BigDecimal balance;
+        private final long version;
+
+        public AccountState(String id, BigDecimal balance, long version) {
+            this.id = id;
+            this.balance = balance;
+            this.version = version;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    /**
+     * The ID and owner of an account.
+     */
+    public static class AccountOwner {
+        private final String id;
+        private final String owner;
+
+        public AccountOwner(String id, String owner) {
+            this.id = id;
+            this.owner = owner;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.restapi.demo.transaction.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the monthly range partitions of the payments table.
+ * <p>
+ * The table is partitioned by {@code RANGE COLUMNS (created_at)} with one partition per month named
+ * {@code pYYYYMM} and a catch-all partition named {@code pmax}; see {@code db/payments-partitioned.sql}.
+ */
+@Repository
+public class PaymentPartitionRepository {
+
+    private static final DateTimeFormatter PARTITION_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("p\\d{6}");
+    private static final String MAX_PARTITION = "pmax";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructs a PaymentPartitionRepository with the given JdbcTemplate.
+     *
+     * @param jdbcTemplate The JdbcTemplate to use for partition maintenance.
+     */
+    @Autowired
+    public PaymentPartitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the partition name holding payments created in the given month.
+     *
+     * @param month the month
+     * @return the partition name
+     */
+    public static String partitionName(YearMonth month) {
+        return month.format(PARTITION_FORMAT);
+    }
+
+    /**
+     * Returns the month covered by the given partition.
+     *
+     * @param partition the partition name
+     * @return the month covered by the partition
+     */
+    public static YearMonth monthOf(String partition) {
+        return YearMonth.parse(partition, PARTITION_FORMAT);
+    }
+
+    /**
+     * Returns the names of all monthly partitions, oldest first.
+     *
+     * @return the monthly partition names
+     */
+    public List<String> findMonthlyPartitions() {
+        return jdbcTemplate.queryForList(
+                "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'payments' AND PARTITION_NAME LIKE 'p______' " +
+                        "ORDER BY PARTITION_ORDINAL_POSITION",
+                String.class);
+    }
+
+    /**
+     * Splits the catch-all partition so that a monthly partition exists for every month up to and including the
+     * given month.
+     *
+     * @param through the last month that should have its own partition
+     */
+    public void createPartitionsThrough(YearMonth through) {
+        List<String> existing = findMonthlyPartitions();
+        YearMonth next = existing.isEmpty()
+                ? YearMonth.now(ZoneOffset.UTC)
+                : monthOf(existing.get(existing.size() - 1)).plusMonths(1);
+        if (next.isAfter(through)) {
+            return;
+        }
+        StringBuilder ddl = new StringBuilder("ALTER TABLE payments REORGANIZE PARTITION ")
+                .append(MAX_PARTITION).append(" INTO (");
+        for (YearMonth month = next; !month.isAfter(through); month = month.plusMonths(1)) {
+            LocalDate upperBound = month.plusMonths(1).atDay(1);
+            ddl.append("PARTITION ").append(partitionName(month))
+                    .append(" VALUES LESS THAN ('").append(upperBound).append("'), ");
+        }
+        ddl.append("PARTITION ").append(MAX_PARTITION).append(" VALUES LESS THAN (MAXVALUE))");
+        jdbcTemplate.execute(ddl.toString());
+    }
+
+    /**
+     * Counts the payments stored in the given partition.
+     *
+     * @param partition the partition name
+     * @return the number of payments in the partition
+     */
+    public long countPartition(String partition) {
+        Long count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM payments PARTITION (" + checked(partition) + ")", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Streams every payment in the given partition, in id order, to the handler. The result set is read row by row
+     * rather than buffered, so the partition size is not limited by the heap.
+     *
+     * @param partition the partition name
+     * @param handler   the handler to receive the rows
+     */
+    public void streamPartition(String partition, RowCallbackHandler handler) {
+        String sql = "SELECT id, created_at, from_account, to_account, direction, status, amount "
+                + "FROM payments PARTITION ("
+                + checked(partition) + ") ORDER BY id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Drops the given partition together with all payments in it.
+     *
+     * @param partition the partition name
+     */
+    public void dropPartition(String partition) {
+        jdbcTemplate.execute("ALTER TABLE payments DROP PARTITION " + checked(partition));
+    }
+
+    private static String checked(String partition) {
+        if (!PARTITION_NAME.matcher(partition).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + partition);
+        }
+        return partition;
+    }
+}
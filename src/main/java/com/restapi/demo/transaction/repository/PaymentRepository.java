@@ -1,9 +1,16 @@
 package com.restapi.demo.transaction.repository;
 
 import com.restapi.demo.transaction.model.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,4 +30,66 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
      * @return an Optional containing the payment with the given ID, or an empty Optional if no payment is found
      */
     Optional<Payment> findById(Long id);
+
+    /**
+     * Returns the payments sent from or received by the given account, newest first.
+     *
+     * @param accountId the ID of the account
+     * @param pageable  the maximum number of payments to return
+     * @return the account's payments, newest first
+     */
+    @Query("select p from Payment p where p.fromAccount = :accountId or p.toAccount = :accountId " +
+            "order by p.createdAt desc, p.id desc")
+    List<Payment> findHistory(@Param("accountId") String accountId, Pageable pageable);
+
+    /**
+     * Returns a fingerprint of the payments of the given account still in the table: their number, the highest ID and
+     * the number of pending and of reversed payments. New payments raise the count and the highest ID, and the only
+     * changes made to existing payments, completing or reversing a pending one, change the two status counts.
+     *
+     * @param accountId the ID of the account
+     * @return the fingerprint of the account's payments
+     */
+    @Query(value = "SELECT CONCAT(COUNT(*), '-', COALESCE(MAX(id), 0), '-', " +
+            "COALESCE(SUM(status = '" + Payment.STATUS_PENDING_CREDIT + "'), 0), '-', " +
+            "COALESCE(SUM(status = '" + Payment.STATUS_REVERSED + "'), 0)) " +
+            "FROM payments WHERE from_account = :accountId OR to_account = :accountId", nativeQuery = true)
+    String findHistoryVersion(@Param("accountId") String accountId);
+
+    /**
+     * Returns the payment with the given ID and locks its row until the surrounding transaction ends.
+     *
+     * @param id the ID of the payment
+     * @return an Optional containing the locked payment, or an empty Optional if no payment is found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p where p.id = :id")
+    Optional<Payment> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Completes or reverses a pending payment. Payments that are no longer pending are left untouched.
+     *
+     * @param id     the ID of the payment
+     * @param status the new status
+     * @return the number of payments changed, 0 or 1
+     */
+    @Modifying
+    @Query("update Payment p set p.status = :status where p.id = :id " +
+            "and p.status = '" + Payment.STATUS_PENDING_CREDIT + "'")
+    int settlePendingPayment(@Param("id") Long id, @Param("status") String status);
+
+    /**
+     * Returns payments that have debited their sender but are still waiting for their credit, in ID order, starting
+     * after the given ID. Callers page through all of them by passing the last ID they have seen.
+     *
+     * @param afterId       only payments with a higher ID are returned
+     * @param upToId        only payments with this ID or a lower one are returned
+     * @param createdBefore only payments created before this instant are returned
+     * @param pageable      the maximum number of payments to return
+     * @return the pending payments, in ID order
+     */
+    @Query("select p from Payment p where p.status = '" + Payment.STATUS_PENDING_CREDIT + "' " +
+            "and p.id > :afterId and p.id <= :upToId and p.createdAt < :createdBefore order by p.id")
+    List<Payment> findPendingCredits(@Param("afterId") long afterId, @Param("upToId") long upToId,
+                                     @Param("createdBefore") Instant createdBefore, Pageable pageable);
 }
@@ -0,0 +1,57 @@
+package com.restapi.demo.transaction.repository;
+
+import com.restapi.demo.transaction.model.ScheduledPayment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledPaymentRepository extends JpaRepository<ScheduledPayment, Long> {
+
+    /**
+     * Returns the next chunk of active schedules due before the given time, in ID order, starting after the given ID.
+     * Only the ID, the sending account and the next execution time are loaded.
+     *
+     * @param from    the earliest next execution time, inclusive
+     * @param before  the latest next execution time, exclusive
+     * @param afterId the schedule ID to continue after
+     * @param pageable the maximum number of schedules to return
+     * @return the schedules in the chunk
+     */
+    @Query("select s.id as id, s.fromAccount as fromAccount, s.nextExecutionAt as nextExecutionAt " +
+            "from ScheduledPayment s " +
+            "where s.status = 'ACTIVE' and s.nextExecutionAt >= :from and s.nextExecutionAt < :before " +
+            "and s.id > :afterId order by s.id")
+    List<ScheduleSlot> findActiveDueBetween(@Param("from") Instant from, @Param("before") Instant before,
+                                            @Param("afterId") long afterId, Pageable pageable);
+
+    /**
+     * Finds the schedule with the given ID and locks its row until the end of the transaction, so that a schedule is
+     * executed at most once per occurrence even when several instances load it.
+     *
+     * @param id the schedule ID
+     * @return an optional containing the locked schedule if it exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ScheduledPayment s where s.id = :id")
+    Optional<ScheduledPayment> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * The ID, sending account and next execution time of a schedule.
+     */
+    interface ScheduleSlot {
+        Long getId();
+
+        String getFromAccount();
+
+        Instant getNextExecutionAt();
+    }
+}
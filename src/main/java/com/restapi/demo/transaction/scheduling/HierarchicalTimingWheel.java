@@ -0,0 +1,260 @@
+package com.restapi.demo.transaction.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical hashed timing wheel with O(1) insert and cancel.
+ * <p>
+ * Level 0 has one bucket per tick; every higher level has buckets that are {@code 2^wheelBits} times wider than the
+ * level below. A timeout is placed on the lowest level whose wheel still reaches its deadline. When the current tick
+ * enters a bucket of a higher level, that bucket is cascaded: its timeouts are re-inserted and land on a lower level,
+ * until they expire from level 0. Buckets are intrusive doubly-linked lists, so cancelling only unlinks a node.
+ * <p>
+ * The wheel is driven by calling {@link #advance(long, Consumer)} from a single ticking thread. Timeouts never expire
+ * before their deadline and expire at most one tick after it, provided the wheel is advanced on time.
+ *
+ * @param <T> the type of task held by each timeout
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelBits;
+    private final int mask;
+    private final Bucket<T>[][] wheels;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+    private int size;
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tickMillis  the duration of one tick in milliseconds
+     * @param wheelBits   the log2 of the number of buckets per level
+     * @param levels      the number of levels
+     * @param startMillis the current time in milliseconds
+     */
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelBits, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelBits <= 0 || levels <= 0 || (long) wheelBits * levels >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelBits = wheelBits;
+        this.mask = (1 << wheelBits) - 1;
+        this.wheels = new Bucket[levels][1 << wheelBits];
+        for (Bucket<T>[] wheel : wheels) {
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket<>();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Returns how far ahead of the current time a deadline can safely be scheduled.
+     *
+     * @return the horizon in milliseconds
+     */
+    public long getHorizonMillis() {
+        return ((1L << (wheelBits * wheels.length)) - (1L << (wheelBits * (wheels.length - 1)))) * tickMillis;
+    }
+
+    /**
+     * Returns the number of pending timeouts.
+     *
+     * @return the number of pending timeouts
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Schedules a task. A deadline that has already passed expires on the next tick.
+     *
+     * @param task           the task
+     * @param deadlineMillis the deadline in milliseconds since the epoch
+     * @return a handle that can cancel the timeout
+     * @throws IllegalArgumentException if the deadline lies beyond the horizon of the wheel
+     */
+    public Timeout<T> schedule(T task, long deadlineMillis) {
+        Timeout<T> timeout = new Timeout<>(this, task, Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis));
+        lock.lock();
+        try {
+            if (timeout.deadlineTick <= currentTick) {
+                timeout.deadlineTick = currentTick + 1;
+            }
+            if (!place(timeout)) {
+                throw new IllegalArgumentException("Deadline " + deadlineMillis + " is beyond the timing wheel horizon");
+            }
+            size++;
+            return timeout;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time and hands every expired task to the consumer. The consumer is called
+     * after the wheel's lock has been released.
+     *
+     * @param nowMillis the current time in milliseconds since the epoch
+     * @param expired   the consumer receiving expired tasks
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        List<T> due = new ArrayList<>();
+        lock.lock();
+        try {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                for (int level = wheels.length - 1; level > 0; level--) {
+                    int shift = wheelBits * level;
+                    if ((currentTick & ((1L << shift) - 1)) == 0) {
+                        cascade(wheels[level][(int) (currentTick >>> shift) & mask], due);
+                    }
+                }
+                drain(wheels[0][(int) currentTick & mask], due);
+            }
+        } finally {
+            lock.unlock();
+        }
+        due.forEach(expired);
+    }
+
+    private boolean place(Timeout<T> timeout) {
+        for (int level = 0; level < wheels.length; level++) {
+            int shift = wheelBits * level;
+            if ((timeout.deadlineTick >>> shift) - (currentTick >>> shift) <= mask) {
+                wheels[level][(int) (timeout.deadlineTick >>> shift) & mask].add(timeout);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cascade(Bucket<T> bucket, List<T> due) {
+        Timeout<T> timeout = bucket.head;
+        bucket.head = null;
+        bucket.tail = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.unlinked();
+            if (timeout.deadlineTick <= currentTick) {
+                size--;
+                due.add(timeout.task);
+            } else {
+                place(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    private void drain(Bucket<T> bucket, List<T> due) {
+        Timeout<T> timeout = bucket.head;
+        bucket.head = null;
+        bucket.tail = null;
+        while (timeout != null) {
+            Timeout<T> next = timeout.next;
+            timeout.unlinked();
+            size--;
+            due.add(timeout.task);
+            timeout = next;
+        }
+    }
+
+    /**
+     * A scheduled task that can be cancelled until it expires.
+     *
+     * @param <T> the type of task
+     */
+    public static final class Timeout<T> {
+
+        private final HierarchicalTimingWheel<T> wheel;
+        private final T task;
+        private long deadlineTick;
+        private Bucket<T> bucket;
+        private Timeout<T> previous;
+        private Timeout<T> next;
+
+        private Timeout(HierarchicalTimingWheel<T> wheel, T task, long deadlineTick) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Returns the scheduled task.
+         *
+         * @return the task
+         */
+        public T getTask() {
+            return task;
+        }
+
+        /**
+         * Cancels the timeout.
+         *
+         * @return {@code true} if the timeout was pending, {@code false} if it had already expired or been cancelled
+         */
+        public boolean cancel() {
+            wheel.lock.lock();
+            try {
+                if (bucket == null) {
+                    return false;
+                }
+                bucket.remove(this);
+                wheel.size--;
+                return true;
+            } finally {
+                wheel.lock.unlock();
+            }
+        }
+
+        private void unlinked() {
+            bucket = null;
+            previous = null;
+            next = null;
+        }
+    }
+
+    private static final class Bucket<T> {
+
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.unlinked();
+        }
+    }
+}
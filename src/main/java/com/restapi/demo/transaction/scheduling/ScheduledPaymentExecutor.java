@@ -0,0 +1,176 @@
+package com.restapi.demo.transaction.scheduling;
+
+import com.restapi.demo.transaction.cluster.ClusterClient;
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.ScheduledPayment;
+import com.restapi.demo.transaction.repository.ScheduledPaymentRepository;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Executes a single occurrence of a scheduled payment through {@link PaymentService#makePayment}.
+ * <p>
+ * The schedule row is locked and re-checked in the same transaction as the transfer, and the next execution time is
+ * advanced before that transaction commits. An occurrence is therefore executed at most once, even if the timing
+ * wheel fires twice or several instances have loaded the same schedule.
+ * <p>
+ * A recurring schedule that was missed, for example while the application was down, is executed once when it is
+ * recovered; further occurrences that fell entirely into the outage are skipped rather than replayed in a burst.
+ * <p>
+ * In a cluster, a due schedule whose sending account is owned by another node is handed to that node, which executes
+ * it and keeps it on its own timing wheel from then on, so scheduled transfers run on the owner of their sender like
+ * any other transfer. The schedule row is unlocked before the hand-over, and a hand-over that fails is retried by the
+ * scheduler like a failed execution.
+ */
+@Component
+public class ScheduledPaymentExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledPaymentExecutor.class);
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final PaymentService paymentService;
+    private final ClusterTopology clusterTopology;
+    private final ObjectProvider<ClusterClient> clusterClient;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Constructs a ScheduledPaymentExecutor.
+     *
+     * @param scheduledPaymentRepository The ScheduledPaymentRepository to use for locking and updating schedules.
+     * @param paymentService             The PaymentService to use for the transfers.
+     * @param clusterTopology            The ClusterTopology that decides which node owns a sending account.
+     * @param clusterClient              The ClusterClient used to hand schedules to other nodes, only available with
+     *                                   {@code cluster.enabled=true}.
+     * @param transactionManager         The transaction manager used for each execution.
+     */
+    @Autowired
+    public ScheduledPaymentExecutor(ScheduledPaymentRepository scheduledPaymentRepository,
+                                    PaymentService paymentService, ClusterTopology clusterTopology,
+                                    ObjectProvider<ClusterClient> clusterClient,
+                                    PlatformTransactionManager transactionManager) {
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.paymentService = paymentService;
+        this.clusterTopology = clusterTopology;
+        this.clusterClient = clusterClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Executes the schedule if it is active and due, or hands it to the owner of its sending account.
+     *
+     * @param scheduleId the ID of the schedule
+     * @return the next execution time if the schedule is still active on this node, or {@code null} if it is finished
+     * or has been handed to another node
+     */
+    public Instant execute(Long scheduleId) {
+        return execute(scheduleId, true);
+    }
+
+    /**
+     * Executes a schedule handed over by another node if it is active and due, even if this node does not consider
+     * itself the owner of the sending account, so that nodes briefly disagreeing about ownership cannot pass a
+     * schedule back and forth.
+     *
+     * @param scheduleId the ID of the schedule
+     * @return the next execution time if the schedule is still active, or {@code null} if it is finished
+     */
+    public Instant executeHandedOver(Long scheduleId) {
+        return execute(scheduleId, false);
+    }
+
+    private Instant execute(Long scheduleId, boolean mayHandOver) {
+        Instant now = Instant.now();
+        String[] owner = new String[1];
+        Instant next;
+        try {
+            next = transactionTemplate.execute(status -> {
+                ScheduledPayment schedule = scheduledPaymentRepository.findByIdForUpdate(scheduleId).orElse(null);
+                if (!isDue(schedule, now)) {
+                    return nextExecution(schedule);
+                }
+                if (mayHandOver && clusterTopology.isOwnedElsewhere(schedule.getFromAccount())) {
+                    owner[0] = clusterTopology.ownerOf(schedule.getFromAccount());
+                    return null;
+                }
+                paymentService.makePayment(schedule.getFromAccount(), schedule.getToAccount(), schedule.getAmount());
+                schedule.setLastError(null);
+                advance(schedule, now, ScheduledPayment.STATUS_COMPLETED);
+                return nextExecution(schedule);
+            });
+        } catch (AccountNotFoundException | InsufficientFundsException | InvalidAccountException e) {
+            log.warn("Scheduled payment {} failed: {}", scheduleId, e.getMessage());
+            return transactionTemplate.execute(status -> {
+                ScheduledPayment schedule = scheduledPaymentRepository.findByIdForUpdate(scheduleId).orElse(null);
+                if (!isDue(schedule, now)) {
+                    return nextExecution(schedule);
+                }
+                schedule.setLastError(e.getMessage());
+                advance(schedule, now, ScheduledPayment.STATUS_FAILED);
+                return nextExecution(schedule);
+            });
+        }
+        if (owner[0] != null) {
+            handOver(owner[0], scheduleId);
+        }
+        return next;
+    }
+
+    private void handOver(String nodeId, Long scheduleId) {
+        int status;
+        try {
+            status = clusterClient.getObject().requestScheduledPayment(nodeId, scheduleId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not hand scheduled payment " + scheduleId + " to node " + nodeId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing scheduled payment " + scheduleId + " over", e);
+        }
+        if (status != 200) {
+            throw new IllegalStateException("Node " + nodeId + " answered scheduled payment " + scheduleId
+                    + " with status " + status);
+        }
+    }
+
+    private static boolean isDue(ScheduledPayment schedule, Instant now) {
+        return schedule != null
+                && ScheduledPayment.STATUS_ACTIVE.equals(schedule.getStatus())
+                && !schedule.getNextExecutionAt().isAfter(now);
+    }
+
+    private static Instant nextExecution(ScheduledPayment schedule) {
+        if (schedule == null || !ScheduledPayment.STATUS_ACTIVE.equals(schedule.getStatus())) {
+            return null;
+        }
+        return schedule.getNextExecutionAt();
+    }
+
+    private static void advance(ScheduledPayment schedule, Instant now, String oneOffStatus) {
+        schedule.setLastExecutedAt(now);
+        if (schedule.getIntervalSeconds() == null) {
+            schedule.setStatus(oneOffStatus);
+            return;
+        }
+        Duration interval = Duration.ofSeconds(schedule.getIntervalSeconds());
+        Instant next = schedule.getNextExecutionAt().plus(interval);
+        if (!next.isAfter(now)) {
+            long missed = Duration.between(next, now).dividedBy(interval) + 1;
+            log.warn("Skipping {} missed occurrences of scheduled payment {}", missed, schedule.getId());
+            next = next.plus(interval.multipliedBy(missed));
+        }
+        schedule.setNextExecutionAt(next);
+    }
+}
@@ -0,0 +1,236 @@
+package com.restapi.demo.transaction.scheduling;
+
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.repository.ScheduledPaymentRepository;
+import com.restapi.demo.transaction.repository.ScheduledPaymentRepository.ScheduleSlot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives scheduled payments from a {@link HierarchicalTimingWheel}.
+ * <p>
+ * Only schedules due within the loading horizon are held in memory. On startup every active schedule due before the
+ * horizon is loaded, including those whose time passed while the application was down, and a periodic refill extends
+ * the window as time moves on. A single ticker thread advances the wheel and hands due schedules in batches to a
+ * bounded worker pool; when the pool's queue is full the ticker runs the batch itself, which slows the ticks down
+ * instead of dropping work.
+ * <p>
+ * In a cluster, each node loads only the schedules whose sending account it owns. A schedule created on another node
+ * is handed to its owner by the {@link ScheduledPaymentExecutor} when it falls due, and stays with the owner after.
+ */
+@Component
+public class ScheduledPaymentScheduler implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduledPaymentScheduler.class);
+
+    private static final int WHEEL_BITS = 9;
+    private static final int WHEEL_LEVELS = 3;
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final ScheduledPaymentExecutor executor;
+    private final ClusterTopology clusterTopology;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final int batchSize;
+    private final int loadChunkSize;
+    private final int workers;
+    private final int queueCapacity;
+
+    private final ConcurrentMap<Long, HierarchicalTimingWheel.Timeout<Long>> timeouts = new ConcurrentHashMap<>();
+    private final List<Long> pendingBatch = new ArrayList<>();
+    private HierarchicalTimingWheel<Long> wheel;
+    private ScheduledExecutorService ticker;
+    private ThreadPoolExecutor workerPool;
+    private volatile Instant loadedUntil = Instant.EPOCH;
+    private volatile boolean running;
+
+    /**
+     * Constructs a ScheduledPaymentScheduler.
+     *
+     * @param scheduledPaymentRepository The ScheduledPaymentRepository to load schedules from.
+     * @param executor                   The ScheduledPaymentExecutor that executes due schedules.
+     * @param clusterTopology            The ClusterTopology that decides which node owns a sending account.
+     * @param tickMillis                 The resolution of the timing wheel in milliseconds.
+     * @param horizonHours               How far ahead schedules are loaded into memory.
+     * @param batchSize                  The number of due schedules handed to a worker at once.
+     * @param loadChunkSize              The number of schedules loaded per query.
+     * @param workers                    The number of worker threads executing payments.
+     * @param queueCapacity              The number of batches that may wait for a worker.
+     */
+    @Autowired
+    public ScheduledPaymentScheduler(ScheduledPaymentRepository scheduledPaymentRepository,
+                                     ScheduledPaymentExecutor executor, ClusterTopology clusterTopology,
+                                     @Value("${scheduled-payments.tick-millis:100}") long tickMillis,
+                                     @Value("${scheduled-payments.horizon-hours:24}") long horizonHours,
+                                     @Value("${scheduled-payments.batch-size:100}") int batchSize,
+                                     @Value("${scheduled-payments.load-chunk-size:10000}") int loadChunkSize,
+                                     @Value("${scheduled-payments.workers:8}") int workers,
+                                     @Value("${scheduled-payments.queue-capacity:100}") int queueCapacity) {
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.executor = executor;
+        this.clusterTopology = clusterTopology;
+        this.tickMillis = tickMillis;
+        this.horizon = Duration.ofHours(horizonHours);
+        this.batchSize = batchSize;
+        this.loadChunkSize = loadChunkSize;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void start() {
+        wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis());
+        if (horizon.toMillis() >= wheel.getHorizonMillis()) {
+            throw new IllegalStateException("scheduled-payments.horizon-hours exceeds the timing wheel horizon");
+        }
+        workerPool = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        running = true;
+
+        int recovered = load(Instant.EPOCH, Instant.now().plus(horizon));
+        log.info("Loaded {} scheduled payments due within {}", recovered, horizon);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-payment-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdown();
+            try {
+                workerPool.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Extends the in-memory window so that it keeps covering the loading horizon.
+     */
+    @Scheduled(fixedDelayString = "${scheduled-payments.refill-interval-millis:600000}")
+    public void refill() {
+        if (running) {
+            load(loadedUntil, Instant.now().plus(horizon));
+        }
+    }
+
+    /**
+     * Puts a schedule on the timing wheel, replacing any earlier timeout for it. Schedules beyond the loading
+     * horizon are left to a later refill.
+     *
+     * @param scheduleId      the ID of the schedule
+     * @param nextExecutionAt the time of the next execution
+     */
+    public void schedule(Long scheduleId, Instant nextExecutionAt) {
+        if (!running || !nextExecutionAt.isBefore(loadedUntil)) {
+            return;
+        }
+        timeouts.compute(scheduleId, (id, previous) -> {
+            if (previous != null) {
+                previous.cancel();
+            }
+            return wheel.schedule(id, nextExecutionAt.toEpochMilli());
+        });
+    }
+
+    /**
+     * Removes a schedule from the timing wheel.
+     *
+     * @param scheduleId the ID of the schedule
+     */
+    public void cancel(Long scheduleId) {
+        HierarchicalTimingWheel.Timeout<Long> timeout = timeouts.remove(scheduleId);
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+    private int load(Instant from, Instant before) {
+        int loaded = 0;
+        long afterId = 0;
+        List<ScheduleSlot> chunk;
+        loadedUntil = before;
+        do {
+            chunk = scheduledPaymentRepository.findActiveDueBetween(from, before, afterId, PageRequest.of(0, loadChunkSize));
+            for (ScheduleSlot slot : chunk) {
+                if (!clusterTopology.isOwnedElsewhere(slot.getFromAccount())) {
+                    schedule(slot.getId(), slot.getNextExecutionAt());
+                    loaded++;
+                }
+                afterId = slot.getId();
+            }
+        } while (chunk.size() == loadChunkSize);
+        return loaded;
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), scheduleId -> {
+                timeouts.remove(scheduleId);
+                pendingBatch.add(scheduleId);
+                if (pendingBatch.size() >= batchSize) {
+                    flush();
+                }
+            });
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Scheduled payment tick failed", e);
+        }
+    }
+
+    private void flush() {
+        if (pendingBatch.isEmpty()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>(pendingBatch);
+        pendingBatch.clear();
+        workerPool.execute(() -> executeBatch(batch));
+    }
+
+    private void executeBatch(List<Long> batch) {
+        for (Long scheduleId : batch) {
+            try {
+                Instant next = executor.execute(scheduleId);
+                if (next != null) {
+                    schedule(scheduleId, next);
+                }
+            } catch (RuntimeException e) {
+                log.error("Scheduled payment {} could not be executed, retrying in one minute", scheduleId, e);
+                schedule(scheduleId, Instant.now().plusSeconds(60));
+            }
+        }
+    }
+}
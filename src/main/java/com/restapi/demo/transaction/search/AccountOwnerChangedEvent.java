@@ -0,0 +1,22 @@
+package com.restapi.demo.transaction.search;
+
+/**
+ * Published when an account is created, updated or deleted, so that the {@link AccountOwnerIndex} can follow once the
+ * change has committed. The event only names the account: events of concurrent changes may arrive in another order
+ * than their transactions committed, so the index reads the current owner itself.
+ */
+public class AccountOwnerChangedEvent {
+
+    private final String accountId;
+
+    /**
+     * @param accountId the ID of the account
+     */
+    public AccountOwnerChangedEvent(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+}
@@ -0,0 +1,285 @@
+package com.restapi.demo.transaction.search;
+
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import com.restapi.demo.transaction.repository.LedgerScanRepository.AccountOwner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Keeps an {@link OwnerTrigramIndex} of all account owners for {@code GET /v1/accounts/search}.
+ * <p>
+ * The index is built on a background thread once the application is ready, by reading the accounts table in chunks of
+ * {@code accounts.search.index.build-chunk-size}. Until the first build has finished, {@link #search} returns
+ * {@code null} and searches go to the database instead. Creating, updating and deleting an account publishes an
+ * {@link AccountOwnerChangedEvent} once the transaction has committed, and the index then reads the account's current
+ * owner. The row lock of an update is released at commit, before the event is handled, so events of concurrent
+ * updates may arrive in either order; reading the owner and applying it under one lock makes the change applied last
+ * the one read last. Accounts that change while a build is running are also recorded, and their owners are read again
+ * and applied to the new index before it replaces the old one, so nothing committed after the build started is lost,
+ * whether or not the build read it.
+ * <p>
+ * Once more than {@code accounts.search.index.compact-tombstone-ratio} of the entries are tombstones, the live
+ * entries are copied into a new index in the same way, a chunk at a time under the read lock, so searches continue on
+ * the old index meanwhile. The index is not used with {@code cluster.enabled=true}, because each node would only see
+ * the changes made through it.
+ */
+@Component
+public class AccountOwnerIndex implements DisposableBean {
+
+    /**
+     * The shortest text a substring search accepts.
+     */
+    public static final int MIN_SUBSTRING_LENGTH = OwnerTrigramIndex.MIN_SUBSTRING_LENGTH;
+
+    private static final Logger log = LoggerFactory.getLogger(AccountOwnerIndex.class);
+
+    // Below this many entries, rebuilding is not worth it whatever the share of tombstones
+    private static final int MIN_ENTRIES_TO_COMPACT = 10_000;
+
+    private final LedgerScanRepository scanRepository;
+    private final boolean enabled;
+    private final int buildChunkSize;
+    private final double compactTombstoneRatio;
+    private final ExecutorService builder;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Held while owners are read and applied; the index is only replaced while it is held, under the write lock
+    private final Object changeLock = new Object();
+    private OwnerTrigramIndex index;
+    private Set<String> changesDuringBuild;
+
+    /**
+     * Constructs an AccountOwnerIndex.
+     *
+     * @param scanRepository        The LedgerScanRepository to read the account owners with.
+     * @param enabled               Whether to keep the index at all, rather than searching the database.
+     * @param clusterEnabled        Whether this node is part of a cluster, which disables the index.
+     * @param buildChunkSize        The number of accounts read per query while building.
+     * @param compactTombstoneRatio The share of tombstoned entries at which the index is rebuilt.
+     */
+    @Autowired
+    public AccountOwnerIndex(LedgerScanRepository scanRepository,
+                             @Value("${accounts.search.index.enabled:true}") boolean enabled,
+                             @Value("${cluster.enabled:false}") boolean clusterEnabled,
+                             @Value("${accounts.search.index.build-chunk-size:10000}") int buildChunkSize,
+                             @Value("${accounts.search.index.compact-tombstone-ratio:0.25}")
+                             double compactTombstoneRatio) {
+        this.scanRepository = scanRepository;
+        this.enabled = enabled && !clusterEnabled;
+        this.buildChunkSize = buildChunkSize;
+        this.compactTombstoneRatio = compactTombstoneRatio;
+        this.builder = this.enabled
+                ? Executors.newSingleThreadExecutor(Thread.ofPlatform().name("owner-index-build").daemon().factory())
+                : null;
+    }
+
+    /**
+     * Starts building the index once the application is ready to serve requests.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            startBuild(this::loadFromDatabase);
+        }
+    }
+
+    /**
+     * Returns the IDs of the accounts whose owner starts with, or contains, the query, ignoring case.
+     *
+     * @param query  the text to look for
+     * @param prefix whether the owner has to start with the query rather than merely contain it
+     * @param limit  the maximum number of IDs to return
+     * @return the matching account IDs, or {@code null} if the index is disabled or not built yet
+     */
+    public List<String> search(String query, boolean prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            return index == null ? null : index.search(query, prefix, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the current owner of a changed account to the index, and starts compacting the index if it has
+     * collected too many tombstones.
+     *
+     * @param event the change
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOwnerChanged(AccountOwnerChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String accountId = event.getAccountId();
+        synchronized (changeLock) {
+            Map<String, String> owners;
+            try {
+                owners = index == null ? Map.of() : readOwners(List.of(accountId));
+            } catch (RuntimeException e) {
+                log.error("Could not read the owner of account {}; rebuilding the owner search index", accountId, e);
+                owners = null;
+            }
+            lock.writeLock().lock();
+            try {
+                if (owners == null) {
+                    // Unless a build is running already, which reads the account again when it finishes
+                    startBuild(this::loadFromDatabase);
+                } else if (index != null) {
+                    apply(index, accountId, owners);
+                }
+                if (changesDuringBuild != null) {
+                    changesDuringBuild.add(accountId);
+                } else if (index != null && index.ordinals() >= MIN_ENTRIES_TO_COMPACT
+                        && index.tombstoneRatio() > compactTombstoneRatio) {
+                    startBuild(this::copyLiveEntries);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (builder != null) {
+            builder.shutdownNow();
+        }
+    }
+
+    private void startBuild(Consumer<OwnerTrigramIndex> loader) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringBuild != null) {
+                return;
+            }
+            changesDuringBuild = new LinkedHashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        builder.execute(() -> build(loader));
+    }
+
+    private void build(Consumer<OwnerTrigramIndex> loader) {
+        long start = System.nanoTime();
+        OwnerTrigramIndex built = new OwnerTrigramIndex();
+        try {
+            loader.accept(built);
+        } catch (RuntimeException e) {
+            log.error("Could not build the owner search index; searches keep using {}",
+                    index == null ? "the database" : "the previous index", e);
+            lock.writeLock().lock();
+            try {
+                changesDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        built.trimToSize();
+        synchronized (changeLock) {
+            List<String> changed = new ArrayList<>(changesDuringBuild);
+            Map<String, String> owners;
+            try {
+                owners = readOwners(changed);
+            } catch (RuntimeException e) {
+                log.error("Could not read the accounts changed while the owner search index was built; searches "
+                        + "keep using {}", index == null ? "the database" : "the previous index", e);
+                lock.writeLock().lock();
+                try {
+                    changesDuringBuild = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                for (String accountId : changed) {
+                    apply(built, accountId, owners);
+                }
+                changesDuringBuild = null;
+                index = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed the owners of {} accounts ({} trigrams, about {} MB) in {} ms", built.size(),
+                built.trigrams(), built.estimatedBytes() >> 20,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private void loadFromDatabase(OwnerTrigramIndex target) {
+        String afterId = "";
+        List<AccountOwner> chunk;
+        do {
+            chunk = scanRepository.findAccountOwnersAfter(afterId, buildChunkSize);
+            for (AccountOwner account : chunk) {
+                target.put(account.getId(), account.getOwner());
+            }
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == buildChunkSize);
+    }
+
+    private void copyLiveEntries(OwnerTrigramIndex target) {
+        // Only the build thread replaces the index, so it stays the same while it is copied
+        OwnerTrigramIndex source;
+        lock.readLock().lock();
+        try {
+            source = index;
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int from = 0; ; from += buildChunkSize) {
+            lock.readLock().lock();
+            try {
+                if (from >= source.ordinals()) {
+                    return;
+                }
+                source.copyTo(target, from, from + buildChunkSize);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private Map<String, String> readOwners(List<String> accountIds) {
+        Map<String, String> owners = new HashMap<>();
+        for (int from = 0; from < accountIds.size(); from += buildChunkSize) {
+            owners.putAll(scanRepository.findAccountOwners(
+                    accountIds.subList(from, Math.min(from + buildChunkSize, accountIds.size()))));
+        }
+        return owners;
+    }
+
+    private static void apply(OwnerTrigramIndex target, String accountId, Map<String, String> owners) {
+        String owner = owners.get(accountId);
+        if (owner == null) {
+            target.remove(accountId);
+        } else {
+            target.put(accountId, owner);
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.restapi.demo.transaction.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * An append-only index from lower-cased account owners to account IDs, answering prefix and substring queries through
+ * the trigrams of the owner.
+ * <p>
+ * Every indexed account gets the next ordinal. Its ID and owner are appended as UTF-8 to two byte arenas, and the
+ * ordinal is appended to the posting list of each trigram of the owner. Owners are padded with two start markers
+ * first, so that prefixes of one and two characters have a trigram of their own. Because ordinals only grow, posting
+ * lists stay sorted and are stored as variable-length deltas, mostly one byte per entry. IDs are found again through
+ * an open-addressing table of ordinals hashed by ID, not through a map of strings. Changing an owner tombstones the
+ * old ordinal and appends a new one, and deleting an account only tombstones it; the space is reclaimed by copying
+ * the live accounts into a new index (see {@link #copyTo}).
+ * <p>
+ * A query walks the shortest posting list of its trigrams and skips ahead in the others to find the ordinals they all
+ * share. Each of those is checked against the stored owner, since sharing all trigrams does not make a match, and the
+ * walk stops once enough matches have been found.
+ * <p>
+ * Not thread-safe: {@link AccountOwnerIndex} guards it with a read-write lock.
+ */
+final class OwnerTrigramIndex {
+
+    /**
+     * The shortest substring that can be looked up; shorter queries have no trigram.
+     */
+    static final int MIN_SUBSTRING_LENGTH = 3;
+
+    private static final char START = '\u0002';
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] ids = new byte[INITIAL_CAPACITY];
+    private int idsLength;
+    private byte[] owners = new byte[INITIAL_CAPACITY];
+    private int ownersLength;
+    // The ID and owner of ordinal o are the bytes from offsets[o] up to offsets[o + 1]
+    private int[] idOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] ownerOffsets = new int[INITIAL_CAPACITY + 1];
+    private int ordinals;
+
+    private long[] deleted = new long[INITIAL_CAPACITY / 64];
+    private int deletedCount;
+
+    // Ordinal + 1 of the latest entry of each ID ever indexed, 0 for a free slot
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int usedSlots;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Indexes the account with the given owner, replacing any owner indexed for it before.
+     *
+     * @param id    the account ID
+     * @param owner the owner of the account
+     */
+    void put(String id, String owner) {
+        byte[] id8 = id.getBytes(StandardCharsets.UTF_8);
+        String normalized = normalize(owner);
+        byte[] owner8 = normalized.getBytes(StandardCharsets.UTF_8);
+        int slot = findSlot(id8);
+        int existing = slots[slot] - 1;
+        if (existing >= 0 && !isDeleted(existing)) {
+            if (Arrays.equals(owners, ownerOffsets[existing], ownerOffsets[existing + 1], owner8, 0, owner8.length)) {
+                return;
+            }
+            markDeleted(existing);
+        }
+        int ordinal = append(id8, owner8);
+        forEachTrigram(START + (START + normalized), trigram -> postings.computeIfAbsent(trigram,
+                key -> new PostingList()).add(ordinal));
+        if (slots[slot] == 0) {
+            usedSlots++;
+        }
+        slots[slot] = ordinal + 1;
+        if (usedSlots * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+    }
+
+    /**
+     * Removes the account from the index. Does nothing if it is not indexed.
+     *
+     * @param id the account ID
+     */
+    void remove(String id) {
+        int ordinal = slots[findSlot(id.getBytes(StandardCharsets.UTF_8))] - 1;
+        if (ordinal >= 0 && !isDeleted(ordinal)) {
+            markDeleted(ordinal);
+        }
+    }
+
+    /**
+     * Returns the IDs of accounts whose lower-cased owner starts with, or contains, the lower-cased query, in the
+     * order they were indexed.
+     *
+     * @param query  the text to look for, at least {@link #MIN_SUBSTRING_LENGTH} characters for a substring query
+     * @param prefix whether the owner has to start with the query rather than merely contain it
+     * @param limit  the maximum number of IDs to return
+     * @return the matching account IDs
+     */
+    List<String> search(String query, boolean prefix, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || (!prefix && normalized.length() < MIN_SUBSTRING_LENGTH)) {
+            throw new IllegalArgumentException("Query too short: " + query);
+        }
+        List<PostingList> lists = new ArrayList<>();
+        boolean[] missing = new boolean[1];
+        forEachTrigram(prefix ? START + (START + normalized) : normalized, trigram -> {
+            PostingList list = postings.get(trigram);
+            if (list == null) {
+                missing[0] = true;
+            } else {
+                lists.add(list);
+            }
+        });
+        List<String> result = new ArrayList<>();
+        if (missing[0]) {
+            return result;
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        PostingList.Cursor[] cursors = new PostingList.Cursor[lists.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            cursors[i] = lists.get(i).cursor();
+        }
+        byte[] query8 = normalized.getBytes(StandardCharsets.UTF_8);
+        // Walk the shortest list and skip ahead in the others, stopping as soon as enough matches have been found
+        int candidate = 0;
+        while (result.size() < limit && cursors[0].advanceTo(candidate)) {
+            candidate = cursors[0].value;
+            boolean inAll = true;
+            for (int i = 1; i < cursors.length && inAll; i++) {
+                if (!cursors[i].advanceTo(candidate)) {
+                    return result;
+                }
+                if (cursors[i].value > candidate) {
+                    candidate = cursors[i].value;
+                    inAll = false;
+                }
+            }
+            if (inAll) {
+                if (!isDeleted(candidate) && ownerMatches(candidate, query8, prefix)) {
+                    result.add(new String(ids, idOffsets[candidate], idOffsets[candidate + 1] - idOffsets[candidate],
+                            StandardCharsets.UTF_8));
+                }
+                candidate++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the live accounts among the given ordinals in another index, with their owners as stored here.
+     *
+     * @param target the index to copy to
+     * @param from   the first ordinal to copy
+     * @param to     the ordinal to stop before
+     */
+    void copyTo(OwnerTrigramIndex target, int from, int to) {
+        for (int ordinal = from; ordinal < Math.min(to, ordinals); ordinal++) {
+            if (!isDeleted(ordinal)) {
+                target.put(new String(ids, idOffsets[ordinal], idOffsets[ordinal + 1] - idOffsets[ordinal],
+                                StandardCharsets.UTF_8),
+                        new String(owners, ownerOffsets[ordinal], ownerOffsets[ordinal + 1] - ownerOffsets[ordinal],
+                                StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Returns the number of ordinals handed out, including tombstoned ones.
+     */
+    int ordinals() {
+        return ordinals;
+    }
+
+    /**
+     * Returns the number of indexed accounts.
+     */
+    int size() {
+        return ordinals - deletedCount;
+    }
+
+    /**
+     * Returns the share of ordinals that are tombstoned.
+     */
+    double tombstoneRatio() {
+        return ordinals == 0 ? 0 : (double) deletedCount / ordinals;
+    }
+
+    int trigrams() {
+        return postings.size();
+    }
+
+    /**
+     * Shrinks the arrays to what is in use, after a build has appended everything it had to.
+     */
+    void trimToSize() {
+        ids = Arrays.copyOf(ids, idsLength);
+        owners = Arrays.copyOf(owners, ownersLength);
+        idOffsets = Arrays.copyOf(idOffsets, ordinals + 1);
+        ownerOffsets = Arrays.copyOf(ownerOffsets, ordinals + 1);
+        deleted = Arrays.copyOf(deleted, (ordinals + 63) / 64);
+        postings.values().forEach(PostingList::trimToSize);
+    }
+
+    /**
+     * Returns an estimate of the heap used by the index: its arrays, the posting lists and the map holding them.
+     */
+    long estimatedBytes() {
+        long bytes = ids.length + owners.length + 4L * (idOffsets.length + ownerOffsets.length + slots.length)
+                + 8L * deleted.length;
+        for (PostingList list : postings.values()) {
+            // The list and its array, and the map entry with its boxed key
+            bytes += 32 + 16 + list.capacity() + 32 + 16;
+        }
+        return bytes + 4L * postings.size() * 2;
+    }
+
+    static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT).replace(START, ' ');
+    }
+
+    private static void forEachTrigram(String text, TrigramConsumer consumer) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            consumer.accept(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+    }
+
+    private boolean ownerMatches(int ordinal, byte[] query, boolean prefix) {
+        int start = ownerOffsets[ordinal];
+        int end = ownerOffsets[ordinal + 1];
+        if (end - start < query.length) {
+            return false;
+        }
+        int last = prefix ? start : end - query.length;
+        for (int from = start; from <= last; from++) {
+            if (Arrays.equals(owners, from, from + query.length, query, 0, query.length)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int append(byte[] id8, byte[] owner8) {
+        if (ordinals + 1 == idOffsets.length) {
+            idOffsets = Arrays.copyOf(idOffsets, idOffsets.length * 2);
+            ownerOffsets = Arrays.copyOf(ownerOffsets, ownerOffsets.length * 2);
+        }
+        ids = ensureCapacity(ids, idsLength + id8.length);
+        System.arraycopy(id8, 0, ids, idsLength, id8.length);
+        idsLength += id8.length;
+        owners = ensureCapacity(owners, ownersLength + owner8.length);
+        System.arraycopy(owner8, 0, owners, ownersLength, owner8.length);
+        ownersLength += owner8.length;
+        int ordinal = ordinals++;
+        idOffsets[ordinals] = idsLength;
+        ownerOffsets[ordinals] = ownersLength;
+        return ordinal;
+    }
+
+    private static byte[] ensureCapacity(byte[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    private boolean isDeleted(int ordinal) {
+        int word = ordinal >>> 6;
+        return word < deleted.length && (deleted[word] & (1L << ordinal)) != 0;
+    }
+
+    private void markDeleted(int ordinal) {
+        int word = ordinal >>> 6;
+        if (word >= deleted.length) {
+            deleted = Arrays.copyOf(deleted, Math.max(word + 1, deleted.length * 2));
+        }
+        deleted[word] |= 1L << ordinal;
+        deletedCount++;
+    }
+
+    private int findSlot(byte[] id8) {
+        int mask = slots.length - 1;
+        int slot = hash(id8, 0, id8.length) & mask;
+        while (slots[slot] != 0) {
+            int ordinal = slots[slot] - 1;
+            if (Arrays.equals(ids, idOffsets[ordinal], idOffsets[ordinal + 1], id8, 0, id8.length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] previous = slots;
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int entry : previous) {
+            if (entry != 0) {
+                int ordinal = entry - 1;
+                int slot = hash(ids, idOffsets[ordinal], idOffsets[ordinal + 1]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry;
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 1;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        // Spread the bits, as consecutive IDs differ only in their last characters
+        return hash ^ (hash >>> 16) * 0x45d9f3b;
+    }
+
+    @FunctionalInterface
+    private interface TrigramConsumer {
+        void accept(long trigram);
+    }
+
+    /**
+     * The ordinals of the accounts sharing a trigram, in increasing order, stored as variable-length deltas.
+     */
+    private static final class PostingList {
+
+        private byte[] data = new byte[4];
+        private int length;
+        private int size;
+        private int last = -1;
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return data.length;
+        }
+
+        void add(int ordinal) {
+            if (ordinal == last) {
+                // The trigram occurs more than once in the owner
+                return;
+            }
+            data = ensureCapacity(data, length + 5);
+            int delta = ordinal - last;
+            while ((delta & ~0x7F) != 0) {
+                data[length++] = (byte) ((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            data[length++] = (byte) delta;
+            last = ordinal;
+            size++;
+        }
+
+        Cursor cursor() {
+            return new Cursor();
+        }
+
+        void trimToSize() {
+            data = Arrays.copyOf(data, length);
+        }
+
+        /**
+         * Reads the list forwards, one ordinal at a time.
+         */
+        final class Cursor {
+
+            private int position;
+            int value = -1;
+
+            /**
+             * Moves to the first ordinal at or after the target, unless already there.
+             *
+             * @return whether there is such an ordinal
+             */
+            boolean advanceTo(int target) {
+                while (value < target) {
+                    if (position >= length) {
+                        return false;
+                    }
+                    int delta = 0;
+                    int shift = 0;
+                    byte b;
+                    do {
+                        b = data[position++];
+                        delta |= (b & 0x7F) << shift;
+                        shift += 7;
+                    } while (b < 0);
+                    value += delta;
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.restapi.demo.transaction.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes balance updates per account within this process.
+ * <p>
+ * Accounts are hashed onto a fixed number of {@link ReentrantLock} stripes, so unrelated accounts rarely wait for
+ * each other and no per-account state has to be created or cleaned up. Unlike {@code synchronized}, a virtual thread
+ * waiting for or holding one of these locks while it blocks on JDBC releases its carrier thread.
+ */
+@Component
+public class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Constructs AccountLocks.
+     *
+     * @param stripes The number of lock stripes, rounded up to a power of two.
+     */
+    @Autowired
+    public AccountLocks(@Value("${accounts.lock-stripes:1024}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the given action while holding the lock of the given account.
+     *
+     * @param accountId the account ID
+     * @param action    the action to run
+     */
+    public void run(String accountId, Runnable action) {
+        ReentrantLock lock = stripes[stripe(accountId)];
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given action while holding the locks of both accounts. Locks are always taken in stripe order, so two
+     * transfers between the same accounts in opposite directions cannot deadlock.
+     *
+     * @param accountId      the first account ID
+     * @param otherAccountId the second account ID
+     * @param action         the action to run
+     */
+    public void run(String accountId, String otherAccountId, Runnable action) {
+        int first = stripe(accountId);
+        int second = stripe(otherAccountId);
+        if (first == second) {
+            run(accountId, action);
+            return;
+        }
+        ReentrantLock lower = stripes[Math.min(first, second)];
+        ReentrantLock upper = stripes[Math.max(first, second)];
+        lower.lock();
+        try {
+            upper.lock();
+            try {
+                action.run();
+            } finally {
+                upper.unlock();
+            }
+        } finally {
+            lower.unlock();
+        }
+    }
+
+    private int stripe(String accountId) {
+        int h = accountId.hashCode();
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
@@ -0,0 +1,485 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.AccountRepository;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Serializes balance updates per account by queueing them in a mailbox owned by the account, as an alternative to
+ * {@link AccountLocks}. Enabled with {@code accounts.mailboxes.enabled=true}.
+ * <p>
+ * At most one worker drains a mailbox at a time. It takes what is queued, up to
+ * {@code accounts.mailboxes.max-batch-size} operations, and applies it in one transaction: the account row is read
+ * once with a write lock, each operation is checked against the running balance and accepted or rejected on its own,
+ * and the new balance is written with a single update. Callers updating a hot account therefore share one row lock
+ * and one update rather than queueing for the lock one by one. Callers still wait until their operation has
+ * committed, so the methods below behave like their locking counterparts.
+ * <p>
+ * A transfer touches two mailboxes and commits in two steps. The sender is debited and the payment recorded as
+ * {@link Payment#STATUS_PENDING_CREDIT}, as for a transfer to an account on another node, then the receiver is
+ * credited and the payment completed. If the credit fails, the sender is refunded and the payment reversed. A
+ * payment left pending in between, by a crash or a failed refund, is settled later by {@link PendingCreditSweep}, or
+ * by the cluster's pending credit relay.
+ * <p>
+ * Workers need database connections of their own, so callers must not hold one while they wait, as a request thread
+ * would after a query under open-in-view. Every lookup an operation needs, such as checking that the receiving
+ * account of a transfer exists, is therefore made by the worker in the batch transaction.
+ * <p>
+ * Mailboxes only exist while they are used. A mailbox that has been empty for {@code accounts.mailboxes.idle-millis}
+ * is closed and dropped, so memory grows with the number of recently active accounts, not with all accounts.
+ */
+@Component
+public class AccountMailboxes implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountMailboxes.class);
+
+    /** Value of {@link Mailbox#pending} for a closed mailbox. Incrementing it keeps it negative. */
+    private static final int CLOSED = Integer.MIN_VALUE;
+
+    private final AccountRepository accountRepository;
+    private final PaymentRepository paymentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor workers;
+    private final int maxBatchSize;
+    private final long idleNanos;
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs AccountMailboxes.
+     *
+     * @param accountRepository  The AccountRepository to read and update balances with.
+     * @param paymentRepository  The PaymentRepository to record payments with.
+     * @param transactionManager The PlatformTransactionManager to apply each batch of operations in.
+     * @param enabled            Whether balance updates go through mailboxes. If not, no worker is started.
+     * @param workers            The number of threads draining mailboxes, each holding a database connection while
+     *                           it applies a batch.
+     * @param maxBatchSize       The maximum number of operations applied to an account in one transaction.
+     * @param idleMillis         How long a mailbox stays empty before it is dropped.
+     */
+    @Autowired
+    public AccountMailboxes(AccountRepository accountRepository, PaymentRepository paymentRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${accounts.mailboxes.enabled:false}") boolean enabled,
+                            @Value("${accounts.mailboxes.workers:8}") int workers,
+                            @Value("${accounts.mailboxes.max-batch-size:64}") int maxBatchSize,
+                            @Value("${accounts.mailboxes.idle-millis:60000}") long idleMillis) {
+        this(accountRepository, paymentRepository, transactionManager,
+                enabled ? Executors.newFixedThreadPool(workers, Thread.ofPlatform().name("account-mailbox-", 1)
+                        .factory()) : null,
+                maxBatchSize, idleMillis);
+    }
+
+    AccountMailboxes(AccountRepository accountRepository, PaymentRepository paymentRepository,
+                     PlatformTransactionManager transactionManager, Executor workers, int maxBatchSize,
+                     long idleMillis) {
+        this.accountRepository = accountRepository;
+        this.paymentRepository = paymentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.maxBatchSize = maxBatchSize;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    /**
+     * Returns whether balance updates made by the current thread should go through mailboxes. They should not if
+     * mailboxes are disabled, nor if the thread is inside a transaction: a mailbox commits on its own, so the update
+     * could not be part of that transaction.
+     *
+     * @return {@code true} if the current thread should use the mailboxes
+     */
+    public boolean appliesToCurrentThread() {
+        return workers != null && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    /**
+     * Withdraws the specified amount from an account and records the withdrawal.
+     *
+     * @param accountId The ID of the account to withdraw from.
+     * @param amount    The amount to withdraw.
+     * @return The recorded payment.
+     * @throws AccountNotFoundException   If no account exists with the specified ID.
+     * @throws InsufficientFundsException If the account balance is less than the specified amount.
+     */
+    public Payment withdraw(String accountId, BigDecimal amount) {
+        Payment payment = new Payment();
+        payment.setAmount(amount);
+        payment.setFromAccount(accountId);
+        payment.setDirection("outgoing");
+        return await(accountId, Operation.insert(amount.negate(), payment,
+                () -> new AccountNotFoundException("Account not found"), "Insufficient funds in account"));
+    }
+
+    /**
+     * Deposits the specified amount into an account and records the deposit.
+     *
+     * @param accountId The ID of the account to deposit into.
+     * @param amount    The amount to deposit.
+     * @return The recorded payment.
+     * @throws AccountNotFoundException   If no account exists with the specified ID.
+     * @throws InsufficientFundsException If the amount is negative and larger than the balance.
+     */
+    public Payment deposit(String accountId, BigDecimal amount) {
+        Payment payment = new Payment();
+        payment.setAmount(amount);
+        payment.setToAccount(accountId);
+        payment.setDirection("incoming");
+        return await(accountId, Operation.insert(amount, payment,
+                () -> new AccountNotFoundException("Account not found"), "Insufficient funds"));
+    }
+
+    /**
+     * Moves the specified amount from one account to another like {@link #transfer}, with the payment recorded as
+     * outgoing. If the sending account does not exist, the amount is deposited instead, as
+     * {@link AccountService#deposit} has always done.
+     *
+     * @param fromAccountId The ID of the account to transfer funds from.
+     * @param toAccountId   The ID of the account to transfer funds to.
+     * @param amount        The amount to transfer.
+     * @return The completed payment, or the recorded deposit.
+     * @throws AccountNotFoundException   If the receiving account is not found.
+     * @throws InsufficientFundsException If the sending account has insufficient funds.
+     */
+    public Payment depositFrom(String fromAccountId, String toAccountId, BigDecimal amount) {
+        Operation debit = debitOperation(fromAccountId, toAccountId, amount, "outgoing");
+        debit.skipIfAccountMissing = true;
+        Payment payment = await(fromAccountId, debit);
+        return payment == null ? deposit(toAccountId, amount) : completeTransfer(payment);
+    }
+
+    /**
+     * Moves the specified amount from one account to another: {@link #debit} followed by {@link #completeTransfer}.
+     *
+     * @param fromAccountId The ID of the account to transfer funds from.
+     * @param toAccountId   The ID of the account to transfer funds to.
+     * @param amount        The amount to transfer.
+     * @param direction     The direction recorded on the payment.
+     * @return The completed payment.
+     * @throws AccountNotFoundException   If either account is not found.
+     * @throws InsufficientFundsException If the sending account has insufficient funds.
+     */
+    public Payment transfer(String fromAccountId, String toAccountId, BigDecimal amount, String direction) {
+        return completeTransfer(debit(fromAccountId, toAccountId, amount, direction));
+    }
+
+    /**
+     * Debits the sender of a transfer and records the payment as {@link Payment#STATUS_PENDING_CREDIT}. The receiving
+     * account is checked to exist in the same transaction, so that most transfers to unknown accounts fail before
+     * anything is written.
+     *
+     * @param fromAccountId The ID of the account to transfer funds from.
+     * @param toAccountId   The ID of the account to transfer funds to.
+     * @param amount        The amount to transfer.
+     * @param direction     The direction recorded on the payment.
+     * @return The pending payment.
+     * @throws AccountNotFoundException   If either account is not found.
+     * @throws InsufficientFundsException If the sending account has insufficient funds.
+     */
+    public Payment debit(String fromAccountId, String toAccountId, BigDecimal amount, String direction) {
+        return await(fromAccountId, debitOperation(fromAccountId, toAccountId, amount, direction));
+    }
+
+    private static Operation debitOperation(String fromAccountId, String toAccountId, BigDecimal amount,
+                                            String direction) {
+        Payment payment = new Payment();
+        payment.setFromAccount(fromAccountId);
+        payment.setToAccount(toAccountId);
+        payment.setAmount(amount);
+        payment.setDirection(direction);
+        payment.setStatus(Payment.STATUS_PENDING_CREDIT);
+        Operation operation = Operation.insert(amount.negate(), payment,
+                () -> new AccountNotFoundException("Account not found with id: " + fromAccountId),
+                "Insufficient balance in account with id: " + fromAccountId);
+        operation.counterpartyAccountId = toAccountId;
+        return operation;
+    }
+
+    /**
+     * Credits the receiver of a pending transfer. If that fails, the sender is refunded before the exception is
+     * rethrown.
+     *
+     * @param payment The pending payment returned by {@link #debit}.
+     * @return The completed payment.
+     * @throws AccountNotFoundException If the receiving account no longer exists.
+     */
+    public Payment completeTransfer(Payment payment) {
+        try {
+            return credit(payment);
+        } catch (RuntimeException e) {
+            try {
+                refund(payment);
+            } catch (RuntimeException refundFailure) {
+                // The payment stays pending until a sweep settles it
+                log.error("Could not refund payment {} after its credit failed", payment.getId(), refundFailure);
+                e.addSuppressed(refundFailure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Credits the receiver of a pending payment and completes the payment. A payment that is no longer pending is
+     * returned as it is, so calling this again has no further effect.
+     *
+     * @param payment The pending payment.
+     * @return The payment, completed unless it had been settled before.
+     * @throws AccountNotFoundException If the receiving account no longer exists.
+     */
+    public Payment credit(Payment payment) {
+        String toAccountId = payment.getToAccount();
+        return await(toAccountId, Operation.settle(payment.getAmount(), payment, Payment.STATUS_COMPLETED,
+                () -> new AccountNotFoundException("Account not found with id: " + toAccountId)));
+    }
+
+    /**
+     * Refunds the sender of a pending payment and reverses the payment. A payment that is no longer pending is
+     * returned as it is.
+     *
+     * @param payment The pending payment.
+     * @return The payment, reversed unless it had been settled before.
+     * @throws AccountNotFoundException If the sending account no longer exists.
+     */
+    public Payment refund(Payment payment) {
+        String fromAccountId = payment.getFromAccount();
+        return await(fromAccountId, Operation.settle(payment.getAmount(), payment, Payment.STATUS_REVERSED,
+                () -> new AccountNotFoundException("Account not found with id: " + fromAccountId)));
+    }
+
+    /**
+     * Returns the number of mailboxes currently held.
+     *
+     * @return the number of mailboxes
+     */
+    public int size() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Drops the mailboxes that have been empty for longer than the idle time.
+     */
+    @Scheduled(fixedDelayString = "${accounts.mailboxes.reclaim-interval-millis:30000}")
+    public void reclaimIdleMailboxes() {
+        long now = System.nanoTime();
+        // A mailbox can only be closed while nothing is pending and no worker holds it. Callers finding it closed
+        // create a new one.
+        mailboxes.values().removeIf(mailbox -> now - mailbox.lastUsedNanos > idleNanos
+                && mailbox.pending.compareAndSet(0, CLOSED));
+    }
+
+    private Payment await(String accountId, Operation operation) {
+        if (workers == null) {
+            throw new IllegalStateException("Account mailboxes are not enabled");
+        }
+        try {
+            return submit(accountId, operation).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    CompletableFuture<Payment> submit(String accountId, Operation operation) {
+        while (true) {
+            Mailbox mailbox = mailboxes.computeIfAbsent(accountId, Mailbox::new);
+            int pending = mailbox.pending.getAndIncrement();
+            if (pending < 0) {
+                mailboxes.remove(accountId, mailbox);
+                continue;
+            }
+            mailbox.queue.add(operation);
+            if (pending == 0) {
+                workers.execute(() -> drain(mailbox));
+            }
+            return operation.result;
+        }
+    }
+
+    /**
+     * Applies the next batch of a mailbox. Only one drain of a mailbox is scheduled at a time: the caller raising the
+     * pending count from zero schedules it, and it schedules itself again as long as operations remain, after other
+     * mailboxes waiting for a worker had their turn.
+     */
+    private void drain(Mailbox mailbox) {
+        List<Operation> batch = new ArrayList<>();
+        Operation operation;
+        while (batch.size() < maxBatchSize && (operation = mailbox.queue.poll()) != null) {
+            batch.add(operation);
+        }
+        try {
+            if (!batch.isEmpty()) {
+                apply(mailbox.accountId, batch);
+            }
+        } finally {
+            mailbox.lastUsedNanos = System.nanoTime();
+            // An operation counted but not queued yet is picked up by the next drain
+            if (mailbox.pending.addAndGet(-batch.size()) > 0) {
+                workers.execute(() -> drain(mailbox));
+            }
+        }
+    }
+
+    private void apply(String accountId, List<Operation> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> applyInTransaction(accountId, batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            // Retry one by one, so that an operation the database refuses only fails its own caller
+            log.debug("Batch of {} operations on account {} failed, applying them one by one", batch.size(),
+                    accountId, e);
+            for (Operation operation : batch) {
+                operation.reset();
+                apply(accountId, List.of(operation));
+            }
+            return;
+        }
+        for (Operation operation : batch) {
+            if (operation.failure != null) {
+                operation.result.completeExceptionally(operation.failure);
+            } else {
+                operation.result.complete(operation.outcome);
+            }
+        }
+    }
+
+    private void applyInTransaction(String accountId, List<Operation> batch) {
+        Optional<Account> optionalAccount = accountRepository.findByIdForUpdate(accountId);
+        if (optionalAccount.isEmpty()) {
+            for (Operation operation : batch) {
+                operation.failure = operation.skipIfAccountMissing ? null : operation.notFound.get();
+            }
+            return;
+        }
+        Account account = optionalAccount.get();
+        BigDecimal balance = account.getBalance();
+        for (Operation operation : batch) {
+            if (operation.counterpartyAccountId != null
+                    && !accountRepository.existsById(operation.counterpartyAccountId)) {
+                operation.failure = new AccountNotFoundException(
+                        "Account not found with id: " + operation.counterpartyAccountId);
+                continue;
+            }
+            BigDecimal newBalance = balance.add(operation.delta);
+            if (newBalance.signum() < 0) {
+                operation.failure = new InsufficientFundsException(operation.insufficientFundsMessage);
+                continue;
+            }
+            if (operation.settledStatus == null) {
+                operation.outcome = paymentRepository.save(operation.payment);
+            } else if (paymentRepository.settlePendingPayment(operation.payment.getId(), operation.settledStatus) > 0) {
+                operation.payment.setStatus(operation.settledStatus);
+                operation.outcome = operation.payment;
+            } else {
+                operation.outcome = paymentRepository.findById(operation.payment.getId()).orElse(operation.payment);
+                continue;
+            }
+            balance = newBalance;
+        }
+        if (balance.compareTo(account.getBalance()) != 0) {
+            account.setBalance(balance);
+            accountRepository.save(account);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (workers instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    private static final class Mailbox {
+
+        final String accountId;
+        final ConcurrentLinkedQueue<Operation> queue = new ConcurrentLinkedQueue<>();
+        /** Operations submitted and not yet applied, or {@link #CLOSED}. */
+        final AtomicInteger pending = new AtomicInteger();
+        volatile long lastUsedNanos = System.nanoTime();
+
+        Mailbox(String accountId) {
+            this.accountId = accountId;
+        }
+    }
+
+    /**
+     * A change of one account's balance, together with the payment that records it: either a new payment to insert
+     * or a pending payment to settle. An operation can require another account to exist, and can complete without a
+     * result rather than fail if its own account does not exist.
+     */
+    static final class Operation {
+
+        final BigDecimal delta;
+        final Payment payment;
+        final String settledStatus;
+        final Supplier<RuntimeException> notFound;
+        final String insufficientFundsMessage;
+        final CompletableFuture<Payment> result = new CompletableFuture<>();
+        String counterpartyAccountId;
+        boolean skipIfAccountMissing;
+        Payment outcome;
+        RuntimeException failure;
+
+        private Operation(BigDecimal delta, Payment payment, String settledStatus, Supplier<RuntimeException> notFound,
+                          String insufficientFundsMessage) {
+            this.delta = delta;
+            this.payment = payment;
+            this.settledStatus = settledStatus;
+            this.notFound = notFound;
+            this.insufficientFundsMessage = insufficientFundsMessage;
+        }
+
+        /**
+         * Undoes what a rolled back transaction left on the operation and its payment.
+         */
+        void reset() {
+            outcome = null;
+            failure = null;
+            if (settledStatus == null) {
+                payment.setId(null);
+            } else {
+                payment.setStatus(Payment.STATUS_PENDING_CREDIT);
+            }
+        }
+
+        static Operation insert(BigDecimal delta, Payment payment, Supplier<RuntimeException> notFound,
+                                String insufficientFundsMessage) {
+            return new Operation(delta, payment, null, notFound, insufficientFundsMessage);
+        }
+
+        static Operation settle(BigDecimal delta, Payment payment, String status,
+                                Supplier<RuntimeException> notFound) {
+            return new Operation(delta, payment, status, notFound, "Insufficient funds");
+        }
+    }
+}
@@ -1,19 +1,36 @@
 package com.restapi.demo.transaction.service;
 
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.exception.AccountAlreadyExistsException;
 import com.restapi.demo.transaction.exception.AccountNotFoundException;
 import com.restapi.demo.transaction.exception.InsufficientFundsException;
 import com.restapi.demo.transaction.exception.InvalidAccountException;
 import com.restapi.demo.transaction.model.Account;
 import com.restapi.demo.transaction.model.Payment;
 import com.restapi.demo.transaction.repository.AccountRepository;
+import com.restapi.demo.transaction.repository.AccountRepository.AccountVersion;
 import com.restapi.demo.transaction.repository.PaymentRepository;
+import com.restapi.demo.transaction.search.AccountOwnerChangedEvent;
+import com.restapi.demo.transaction.search.AccountOwnerIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for handling account-related transactions.
@@ -26,16 +43,48 @@ public class AccountService {
 
     private final PaymentRepository paymentRepository;
 
+    private final AccountLocks accountLocks;
+
+    private final AccountMailboxes accountMailboxes;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AccountOwnerIndex ownerIndex;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ClusterTopology clusterTopology;
+
+    private final PaymentService paymentService;
+
     /**
      * Constructs a new instance of the AccountService class with the specified AccountRepository and PaymentRepository.
      *
-     * @param accountRepository The AccountRepository to use for accessing account data.
-     * @param paymentRepository The PaymentRepository to use for accessing payment data.
+     * @param accountRepository  The AccountRepository to use for accessing account data.
+     * @param paymentRepository  The PaymentRepository to use for accessing payment data.
+     * @param accountLocks       The AccountLocks to serialize balance updates of an account with.
+     * @param accountMailboxes   The AccountMailboxes to queue balance updates in instead, when they are enabled.
+     * @param transactionManager The PlatformTransactionManager to run balance updates in, inside the account lock.
+     * @param ownerIndex         The AccountOwnerIndex to search owners in.
+     * @param eventPublisher     The ApplicationEventPublisher to announce changed owners to the index.
+     * @param clusterTopology    The ClusterTopology to decide which node credits the receiving account of a deposit.
+     * @param paymentService     The PaymentService to run deposits to an account owned by another node as transfers.
      */
     @Autowired
-    public AccountService(AccountRepository accountRepository, PaymentRepository paymentRepository) {
+    public AccountService(AccountRepository accountRepository, PaymentRepository paymentRepository,
+                          AccountLocks accountLocks, AccountMailboxes accountMailboxes,
+                          PlatformTransactionManager transactionManager, AccountOwnerIndex ownerIndex,
+                          ApplicationEventPublisher eventPublisher, ClusterTopology clusterTopology,
+                          PaymentService paymentService) {
         this.accountRepository = accountRepository;
         this.paymentRepository = paymentRepository;
+        this.accountLocks = accountLocks;
+        this.accountMailboxes = accountMailboxes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ownerIndex = ownerIndex;
+        this.eventPublisher = eventPublisher;
+        this.clusterTopology = clusterTopology;
+        this.paymentService = paymentService;
     }
 
     /**
@@ -57,6 +106,39 @@ public class AccountService {
         throw new AccountNotFoundException("Account not found");
     }
 
+    /**
+     * Retrieves a value that changes with every update of the account with the specified ID, without loading the
+     * account. It combines the account's version with its creation time, because the version of an account that is
+     * deleted and created again under the same ID starts over.
+     *
+     * @param accountId The ID of the account.
+     * @return The version and creation time of the account.
+     * @throws AccountNotFoundException If no account exists with the specified ID.
+     * @throws InvalidAccountException  If the specified account ID is null or empty.
+     */
+    public String getAccountVersion(String accountId) throws AccountNotFoundException, InvalidAccountException {
+        if (accountId == null || accountId.isEmpty()) {
+            throw new InvalidAccountException("Account id cannot be null or empty");
+        }
+        AccountVersion version = accountRepository.findVersionById(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found"));
+        Instant createdAt = version.getCreatedAt();
+        if (createdAt == null) {
+            return Long.toString(version.getVersion());
+        }
+        return version.getVersion() + "-" + Long.toString(ChronoUnit.MICROS.between(Instant.EPOCH, createdAt), 36);
+    }
+
+    /**
+     * Retrieves a value that changes whenever any account is created, updated or deleted, without loading the
+     * accounts.
+     *
+     * @return The version of the list of all accounts.
+     */
+    public String getAllAccountsVersion() {
+        return accountRepository.findTableVersion();
+    }
+
     /**
      * Retrieves a list of all accounts.
      *
@@ -67,13 +149,64 @@ public class AccountService {
     }
 
     /**
-     * Creates a new account.
+     * Retrieves the accounts whose owner starts with, or contains, the specified text, ignoring case. The owner index
+     * is used once it has been built, and the database until then.
+     *
+     * @param owner  The text to look for.
+     * @param prefix Whether the owner has to start with the text rather than merely contain it.
+     * @param limit  The maximum number of accounts to return.
+     * @return The matching accounts.
+     * @throws InvalidAccountException If the text is empty, or shorter than three characters for a substring search.
+     */
+    public List<Account> searchAccountsByOwner(String owner, boolean prefix, int limit) throws InvalidAccountException {
+        if (owner == null || owner.isEmpty()) {
+            throw new InvalidAccountException("Owner cannot be null or empty");
+        }
+        if (!prefix && owner.length() < AccountOwnerIndex.MIN_SUBSTRING_LENGTH) {
+            throw new InvalidAccountException("Owner must have at least " + AccountOwnerIndex.MIN_SUBSTRING_LENGTH
+                    + " characters to search for a substring");
+        }
+        List<String> ids = ownerIndex.search(owner, prefix, limit);
+        if (ids == null) {
+            PageRequest page = PageRequest.of(0, limit);
+            return prefix
+                    ? accountRepository.findByOwnerStartingWith(owner, page)
+                    : accountRepository.findByOwnerContaining(owner, page);
+        }
+        // Keep the order of the index; accounts deleted since it answered are left out
+        Map<String, Account> accounts = accountRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        List<Account> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Account account = accounts.get(id);
+            if (account != null) {
+                result.add(account);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new account. Account IDs are assigned by clients, and an existing account is never overwritten.
      *
      * @param account The account to create.
      * @return The newly created account.
+     * @throws AccountAlreadyExistsException If an account already exists with the ID of the specified account.
      */
-    public Account createAccount(Account account) {
-        return accountRepository.save(account);
+    public Account createAccount(Account account) throws AccountAlreadyExistsException {
+        if (account.getId() != null && accountRepository.existsById(account.getId())) {
+            throw new AccountAlreadyExistsException("Account already exists");
+        }
+        Account createdAccount;
+        try {
+            createdAccount = accountRepository.saveAndFlush(account);
+        } catch (DataIntegrityViolationException e) {
+            // Another request created the account between the check and the insert.
+            throw new AccountAlreadyExistsException("Account already exists");
+        }
+        recordBalanceChange(createdAccount.getId(), BigDecimal.ZERO, createdAccount.getBalance());
+        eventPublisher.publishEvent(new AccountOwnerChangedEvent(createdAccount.getId()));
+        return createdAccount;
     }
 
     /**
@@ -89,18 +222,22 @@ public class AccountService {
         if (accountId == null || accountId.isEmpty()) {
             throw new InvalidAccountException("Account id cannot be null or empty");
         }
-        Optional<Account> optionalAccount = accountRepository.findById(accountId);
+        Optional<Account> optionalAccount = accountRepository.findByIdForUpdate(accountId);
         if (optionalAccount.isPresent()) {
             Account account = optionalAccount.get();
+            BigDecimal previousBalance = account.getBalance();
             account.setOwner(updatedAccount.getOwner());
             account.setBalance(updatedAccount.getBalance());
-            return accountRepository.save(account);
+            Account savedAccount = accountRepository.save(account);
+            recordBalanceChange(accountId, previousBalance, updatedAccount.getBalance());
+            eventPublisher.publishEvent(new AccountOwnerChangedEvent(accountId));
+            return savedAccount;
         }
         throw new AccountNotFoundException("Account not found");
     }
 
     /**
-     * Deletes the account with the specified ID.
+     * Deletes the account with the specified ID and records its remaining balance as paid out.
      *
      * @param accountId The ID of the account to delete.
      * @throws AccountNotFoundException If no account exists with the specified ID.
@@ -110,10 +247,13 @@ public class AccountService {
         if (accountId == null || accountId.isEmpty()) {
             throw new InvalidAccountException("Account id cannot be null or empty");
         }
-        Optional<Account> optionalAccount = accountRepository.findById(accountId);
+        Optional<Account> optionalAccount = accountRepository.findByIdForUpdate(accountId);
         if (optionalAccount.isPresent()) {
             Account account = optionalAccount.get();
+            // Paid out so that the ledger still sums to zero for the account once it is gone
+            recordBalanceChange(accountId, account.getBalance(), BigDecimal.ZERO);
             accountRepository.delete(account);
+            eventPublisher.publishEvent(new AccountOwnerChangedEvent(accountId));
         } else {
             throw new AccountNotFoundException("Account not found");
         }
@@ -128,16 +268,34 @@ public class AccountService {
      * @throws InvalidAccountException    If the specified account ID is null or empty.
      * @throws InsufficientFundsException If the account balance is less than the specified amount.
      */
-    public synchronized void withdraw(String accountId, BigDecimal amount) throws AccountNotFoundException, InvalidAccountException, InsufficientFundsException {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void withdraw(String accountId, BigDecimal amount) throws AccountNotFoundException, InvalidAccountException, InsufficientFundsException {
         if (accountId == null || accountId.isEmpty()) {
             throw new InvalidAccountException("Account id cannot be null or empty");
         }
-        Optional<Account> optionalAccount = accountRepository.findById(accountId);
+        if (accountMailboxes.appliesToCurrentThread()) {
+            accountMailboxes.withdraw(accountId, amount);
+            return;
+        }
+        // The lock is taken outside the transaction and released after the commit, so the next update of the account
+        // reads the committed balance.
+        accountLocks.run(accountId,
+                () -> transactionTemplate.executeWithoutResult(status -> applyWithdrawal(accountId, amount)));
+    }
+
+    private void applyWithdrawal(String accountId, BigDecimal amount) {
+        Optional<Account> optionalAccount = accountRepository.findByIdForUpdate(accountId);
         if (optionalAccount.isPresent()) {
             Account account = optionalAccount.get();
             if (account.getBalance().compareTo(amount) >= 0) {
                 account.setBalance(account.getBalance().subtract(amount));
                 accountRepository.save(account);
+
+                Payment payment = new Payment();
+                payment.setAmount(amount);
+                payment.setFromAccount(accountId);
+                payment.setDirection("outgoing");
+                paymentRepository.save(payment);
             } else {
                 throw new InsufficientFundsException("Insufficient funds in account");
             }
@@ -148,6 +306,10 @@ public class AccountService {
 
     /**
      * Deposits the specified amount into the account with the specified ID.
+     * <p>
+     * A deposit from another account runs on the node owning that account. If the receiving account is owned by
+     * another node, the deposit is made as a transfer with {@link PaymentService#makePayment}, which leaves the credit
+     * to the receiver's owner.
      *
      * @param accountId The ID of the account to deposit into.
      * @param amount    The amount to deposit.
@@ -155,11 +317,39 @@ public class AccountService {
      * @throws AccountNotFoundException If no account exists with the specified ID.
      * @throws InvalidAccountException  If the specified account ID is null or empty.
      */
-    public synchronized void deposit(String accountId, BigDecimal amount, String fromAccountId) throws AccountNotFoundException, InvalidAccountException, InsufficientFundsException {
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void deposit(String accountId, BigDecimal amount, String fromAccountId) throws AccountNotFoundException, InvalidAccountException, InsufficientFundsException {
         if (accountId == null || accountId.isEmpty()) {
             throw new InvalidAccountException("Account id cannot be null or empty");
         }
-        Optional<Account> optionalAccount = accountRepository.findById(accountId);
+        if (fromAccountId != null && !fromAccountId.isEmpty() && clusterTopology.isOwnedElsewhere(accountId)) {
+            paymentService.makePayment(fromAccountId, accountId, amount);
+            return;
+        }
+        if (accountMailboxes.appliesToCurrentThread()) {
+            if (fromAccountId != null && !fromAccountId.isEmpty()) {
+                accountMailboxes.depositFrom(fromAccountId, accountId, amount);
+            } else {
+                accountMailboxes.deposit(accountId, amount);
+            }
+            return;
+        }
+        Runnable update = () -> transactionTemplate.executeWithoutResult(
+                status -> applyDeposit(accountId, amount, fromAccountId));
+        if (fromAccountId != null && !fromAccountId.isEmpty()) {
+            accountLocks.run(accountId, fromAccountId, update);
+        } else {
+            accountLocks.run(accountId, update);
+        }
+    }
+
+    private void applyDeposit(String accountId, BigDecimal amount, String fromAccountId) {
+        boolean withSource = fromAccountId != null && !fromAccountId.isEmpty();
+        // Rows are locked in ID order so that opposite deposits between the same accounts cannot deadlock
+        if (withSource && fromAccountId.compareTo(accountId) < 0) {
+            accountRepository.findByIdForUpdate(fromAccountId);
+        }
+        Optional<Account> optionalAccount = accountRepository.findByIdForUpdate(accountId);
         if (optionalAccount.isPresent()) {
             Account account = optionalAccount.get();
             BigDecimal newBalance = account.getBalance().add(amount);
@@ -176,8 +366,8 @@ public class AccountService {
             payment.setDirection("incoming");
 
             // Check if there is a from account specified
-            if (fromAccountId != null && !fromAccountId.isEmpty()) {
-                Optional<Account> optionalFromAccount = accountRepository.findById(fromAccountId);
+            if (withSource) {
+                Optional<Account> optionalFromAccount = accountRepository.findByIdForUpdate(fromAccountId);
                 if (optionalFromAccount.isPresent()) {
                     Account fromAccount = optionalFromAccount.get();
                     BigDecimal newFromAccountBalance = fromAccount.getBalance().subtract(amount);
@@ -197,5 +387,31 @@ public class AccountService {
         }
     }
 
-
+    /**
+     * Records a balance set directly on an account, rather than moved by a transfer, as a payment to or from no
+     * account, so that every balance can be reconciled against the payments table.
+     *
+     * @param accountId       The ID of the account whose balance changed.
+     * @param previousBalance The balance before the change.
+     * @param newBalance      The balance after the change.
+     */
+    private void recordBalanceChange(String accountId, BigDecimal previousBalance, BigDecimal newBalance) {
+        if (newBalance == null) {
+            return;
+        }
+        BigDecimal difference = newBalance.subtract(previousBalance == null ? BigDecimal.ZERO : previousBalance);
+        if (difference.signum() == 0) {
+            return;
+        }
+        Payment payment = new Payment();
+        payment.setAmount(difference.abs());
+        if (difference.signum() > 0) {
+            payment.setToAccount(accountId);
+            payment.setDirection("incoming");
+        } else {
+            payment.setFromAccount(accountId);
+            payment.setDirection("outgoing");
+        }
+        paymentRepository.save(payment);
+    }
 }
\ No newline at end of file
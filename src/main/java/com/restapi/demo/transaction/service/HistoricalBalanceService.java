@@ -0,0 +1,177 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.archive.PaymentArchiveReader;
+import com.restapi.demo.transaction.archive.PaymentArchiveStore;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository;
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository.BalanceCheckpoint;
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Service class for computing the balance an account had at a given time.
+ * <p>
+ * The balance is derived from whichever known balance is closest in time: the latest checkpoint taken at or before
+ * the requested time, to which the payments created since are added; the earliest checkpoint taken after it, from
+ * which the payments created in between are subtracted; or the current balance, from which all payments created
+ * after the requested time are subtracted. Only the payments between the two points are read, so the cost of a query
+ * depends on the checkpoint interval rather than on the length of the history. Payments count the same way as for
+ * the balance itself, by their current status, and archived payments are included.
+ */
+@Service
+@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+public class HistoricalBalanceService {
+
+    private final LedgerScanRepository scanRepository;
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final PaymentArchiveStore archiveStore;
+
+    /**
+     * Constructs a HistoricalBalanceService.
+     *
+     * @param scanRepository       The LedgerScanRepository to use for reading balances and payments.
+     * @param checkpointRepository The BalanceCheckpointRepository to use for finding the nearest checkpoints.
+     * @param archiveStore         The PaymentArchiveStore holding archived payments.
+     */
+    @Autowired
+    public HistoricalBalanceService(LedgerScanRepository scanRepository,
+                                    BalanceCheckpointRepository checkpointRepository,
+                                    PaymentArchiveStore archiveStore) {
+        this.scanRepository = scanRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.archiveStore = archiveStore;
+    }
+
+    /**
+     * Returns the balance of the given account as of the given time, including every payment created up to and
+     * including that time.
+     *
+     * @param accountId The ID of the account.
+     * @param at        The time, not in the future.
+     * @return The balance at that time.
+     * @throws InvalidAccountException  If the time is in the future.
+     * @throws AccountNotFoundException If the account neither exists nor has any checkpoints.
+     */
+    public HistoricalBalance getBalanceAt(String accountId, Instant at)
+            throws InvalidAccountException, AccountNotFoundException {
+        Instant now = Instant.now();
+        if (at.isAfter(now)) {
+            throw new InvalidAccountException("The balance can only be looked up for times in the past");
+        }
+        // Payment timestamps have microsecond precision
+        at = at.truncatedTo(ChronoUnit.MICROS);
+        BalanceCheckpoint before = checkpointRepository.findLatestAtOrBefore(accountId, at);
+        BalanceCheckpoint after = checkpointRepository.findEarliestAfter(accountId, at);
+        BigDecimal current = scanRepository.findBalance(accountId);
+        if (current == null && before == null && after == null) {
+            throw new AccountNotFoundException("Account with ID " + accountId + " not found");
+        }
+
+        Duration sinceBefore = before == null ? null : Duration.between(before.getTakenAt(), at);
+        Duration untilAfter = after == null ? null : Duration.between(at, after.getTakenAt());
+        Duration untilNow = current == null ? null : Duration.between(at, now);
+        if (before != null && isShortest(sinceBefore, untilAfter, untilNow)) {
+            BigDecimal balance = before.getBalance()
+                    .add(scanRepository.sumNetFlowBetween(accountId, before.getTakenAt(), at))
+                    .add(sumArchivedFlow(accountId, before.getTakenAt(), at));
+            return new HistoricalBalance(accountId, at, balance, before.getTakenAt());
+        }
+        if (after != null && isShortest(untilAfter, sinceBefore, untilNow)) {
+            BigDecimal balance = after.getBalance()
+                    .subtract(scanRepository.sumNetFlowBetween(accountId, at, after.getTakenAt()))
+                    .subtract(sumArchivedFlow(accountId, at, after.getTakenAt()));
+            return new HistoricalBalance(accountId, at, balance, after.getTakenAt());
+        }
+        // Read in the same snapshot as the balance, so payments committed meanwhile are either in both or in neither
+        BigDecimal since = scanRepository.sumNetFlowsAfter(List.of(accountId), at)
+                .getOrDefault(accountId, BigDecimal.ZERO);
+        BigDecimal balance = current.subtract(since).subtract(sumArchivedFlow(accountId, at, null));
+        return new HistoricalBalance(accountId, at, balance, null);
+    }
+
+    private static boolean isShortest(Duration candidate, Duration other, Duration another) {
+        return (other == null || candidate.compareTo(other) <= 0)
+                && (another == null || candidate.compareTo(another) <= 0);
+    }
+
+    /**
+     * Returns the net amount the account received through archived payments created after {@code after} and up to and
+     * including {@code upTo}, or without an end if {@code upTo} is {@code null}. Only archive files whose time range
+     * overlaps the period are scanned.
+     */
+    private BigDecimal sumArchivedFlow(String accountId, Instant after, Instant upTo) {
+        long afterMicros = toMicros(after);
+        long upToMicros = upTo == null ? Long.MAX_VALUE : toMicros(upTo);
+        BigDecimal[] flow = {BigDecimal.ZERO};
+        for (PaymentArchiveReader reader : archiveStore.readersNewestFirst()) {
+            if (!reader.getMaxCreatedAt().isAfter(after) || (upTo != null && reader.getMinCreatedAt().isAfter(upTo))) {
+                continue;
+            }
+            reader.scan(accountId, (id, createdAt, from, to, direction, status, unscaledAmount, scale) -> {
+                if (createdAt <= afterMicros || createdAt > upToMicros) {
+                    return;
+                }
+                BigDecimal amount = BigDecimal.valueOf(unscaledAmount, scale);
+                if (accountId.equals(to) && Payment.isCredited(status)) {
+                    flow[0] = flow[0].add(amount);
+                } else if (accountId.equals(from) && Payment.isDebited(status)) {
+                    flow[0] = flow[0].subtract(amount);
+                }
+            });
+        }
+        return flow[0];
+    }
+
+    private static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    /**
+     * The balance of an account at a point in time, and the checkpoint it was derived from.
+     */
+    public static class HistoricalBalance {
+        private final String accountId;
+        private final Instant at;
+        private final BigDecimal balance;
+        private final Instant checkpointTakenAt;
+
+        public HistoricalBalance(String accountId, Instant at, BigDecimal balance, Instant checkpointTakenAt) {
+            this.accountId = accountId;
+            this.at = at;
+            this.balance = balance;
+            this.checkpointTakenAt = checkpointTakenAt;
+        }
+
+        public String getAccountId() {
+            return accountId;
+        }
+
+        public Instant getAt() {
+            return at;
+        }
+
+        public BigDecimal getBalance() {
+            return balance;
+        }
+
+        /**
+         * Returns the time of the checkpoint the balance was derived from.
+         *
+         * @return the checkpoint time, or {@code null} if the balance was derived from the current balance
+         */
+        public Instant getCheckpointTakenAt() {
+            return checkpointTakenAt;
+        }
+    }
+}
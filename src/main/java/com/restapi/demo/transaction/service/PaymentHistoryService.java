@@ -0,0 +1,142 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.archive.PaymentArchiveReader;
+import com.restapi.demo.transaction.archive.PaymentArchiveStore;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service class for reading the payment history of an account across the payments table and the archive files.
+ * <p>
+ * Archived partitions are always older than the partitions still in the table, so the newest payments come from the
+ * table and older pages are completed from the archive files, newest file first.
+ */
+@Service
+@Transactional(readOnly = true)
+public class PaymentHistoryService {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    // Every page up to the requested one is read, so deep pages are refused rather than loading the whole history
+    static final int MAX_HISTORY_DEPTH = 100_000;
+
+    private static final Comparator<Payment> NEWEST_FIRST =
+            Comparator.comparing(Payment::getCreatedAt).thenComparing(Payment::getId).reversed();
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentArchiveStore archiveStore;
+
+    /**
+     * Constructs a PaymentHistoryService with the given PaymentRepository and PaymentArchiveStore.
+     *
+     * @param paymentRepository The PaymentRepository to use for reading payments still in the table.
+     * @param archiveStore      The PaymentArchiveStore to use for reading archived payments.
+     */
+    @Autowired
+    public PaymentHistoryService(PaymentRepository paymentRepository, PaymentArchiveStore archiveStore) {
+        this.paymentRepository = paymentRepository;
+        this.archiveStore = archiveStore;
+    }
+
+    /**
+     * Returns one page of the payments sent from or received by the given account, newest first.
+     *
+     * @param accountId The ID of the account.
+     * @param page      The zero-based page number.
+     * @param size      The page size, at most {@value #MAX_PAGE_SIZE}.
+     * @return The payments on the requested page.
+     * @throws InvalidAccountException If the account ID is null or empty, or the page parameters are out of range.
+     */
+    public List<Payment> getPaymentHistory(String accountId, int page, int size) throws InvalidAccountException {
+        checkPage(accountId, page, size);
+        List<Payment> payments = paymentRepository.findHistory(accountId, PageRequest.of(0, (page + 1) * size));
+        return completeFromArchive(accountId, payments, page, size);
+    }
+
+    /**
+     * Returns a value that changes whenever the payment history of the given account changes, without reading the
+     * payments: a fingerprint of the account's payments in the table combined with the number of archive files.
+     * Archiving a partition removes payments from the table and adds a file, so the history version changes even
+     * though the merged history does not.
+     *
+     * @param accountId The ID of the account.
+     * @param page      The zero-based page number.
+     * @param size      The page size, at most {@value #MAX_PAGE_SIZE}.
+     * @return The version of the account's payment history.
+     * @throws InvalidAccountException If the account ID is null or empty, or the page parameters are out of range.
+     */
+    public String getHistoryVersion(String accountId, int page, int size) throws InvalidAccountException {
+        checkPage(accountId, page, size);
+        return paymentRepository.findHistoryVersion(accountId) + "-" + archiveStore.size();
+    }
+
+    /**
+     * Validates the parameters of a history request.
+     *
+     * @param accountId The ID of the account.
+     * @param page      The zero-based page number.
+     * @param size      The page size, at most {@value #MAX_PAGE_SIZE}.
+     * @throws InvalidAccountException If the account ID is null or empty, or the page parameters are out of range,
+     *                                 including pages that end beyond the newest {@value #MAX_HISTORY_DEPTH} payments.
+     */
+    public static void checkPage(String accountId, int page, int size) throws InvalidAccountException {
+        if (accountId == null || accountId.isEmpty()) {
+            throw new InvalidAccountException("Account id cannot be null or empty");
+        }
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            throw new InvalidAccountException("Page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((page + 1L) * size > MAX_HISTORY_DEPTH) {
+            throw new InvalidAccountException("Only the newest " + MAX_HISTORY_DEPTH + " payments can be paged through");
+        }
+    }
+
+    /**
+     * Completes the newest payments of an account, as read from the payments table, with archived payments and
+     * returns the requested page. Only the archive files are read, so no transaction is needed.
+     *
+     * @param accountId     The ID of the account.
+     * @param tablePayments The account's newest {@code (page + 1) * size} payments from the table, newest first.
+     * @param page          The zero-based page number.
+     * @param size          The page size.
+     * @return The payments on the requested page.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Payment> completeFromArchive(String accountId, List<Payment> tablePayments, int page, int size) {
+        int needed = (page + 1) * size;
+        List<Payment> payments = new ArrayList<>(tablePayments);
+        for (PaymentArchiveReader reader : archiveStore.readersNewestFirst()) {
+            if (payments.size() >= needed) {
+                break;
+            }
+            List<Payment> archived = new ArrayList<>();
+            reader.scan(accountId, (id, createdAtMicros, from, to, direction, status, unscaledAmount, scale) -> {
+                Payment payment = new Payment();
+                payment.setId(id);
+                payment.setCreatedAt(PaymentArchiveReader.toInstant(createdAtMicros));
+                payment.setFromAccount(from);
+                payment.setToAccount(to);
+                payment.setDirection(direction);
+                payment.setStatus(status);
+                payment.setAmount(BigDecimal.valueOf(unscaledAmount, scale));
+                archived.add(payment);
+            });
+            archived.sort(NEWEST_FIRST);
+            payments.addAll(archived);
+        }
+
+        int fromIndex = Math.min(page * size, payments.size());
+        return new ArrayList<>(payments.subList(fromIndex, Math.min(needed, payments.size())));
+    }
+}
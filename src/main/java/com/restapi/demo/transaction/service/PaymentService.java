@@ -1,5 +1,7 @@
 package com.restapi.demo.transaction.service;
 
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.cluster.PendingCreditEvent;
 import com.restapi.demo.transaction.exception.AccountNotFoundException;
 import com.restapi.demo.transaction.exception.InsufficientFundsException;
 import com.restapi.demo.transaction.exception.InvalidAccountException;
@@ -8,13 +10,28 @@ import com.restapi.demo.transaction.model.Payment;
 import com.restapi.demo.transaction.repository.AccountRepository;
 import com.restapi.demo.transaction.repository.PaymentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 
 /**
  * Service class for handling payments between accounts.
+ * <p>
+ * When accounts are partitioned across a cluster, a transfer runs on the node owning the sending account. If the
+ * receiving account is owned by another node, the transfer is split in two: the sender is debited and the payment
+ * recorded as {@link Payment#STATUS_PENDING_CREDIT}, then the receiver's owner applies the credit with
+ * {@link #completeCredit(Long)}. Should the receiving account have disappeared in between, the debit is undone with
+ * {@link #reverseDebit(Long)}.
+ * <p>
+ * With {@link AccountMailboxes} enabled, {@link #makePayment} splits every transfer this way, also between accounts
+ * of the same node: the debit is queued in the sender's mailbox and the credit in the receiver's. Calls made inside a
+ * transaction, such as scheduled payments, still run inside it. Credits and reversals requested by other nodes keep
+ * their own transaction and are serialized with the mailboxes by the account's row lock and version.
  */
 @Service
 @Transactional
@@ -22,21 +39,41 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final AccountRepository accountRepository;
+    private final ClusterTopology clusterTopology;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountLocks accountLocks;
+    private final AccountMailboxes accountMailboxes;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Constructs a PaymentService instance with the given PaymentRepository and AccountRepository.
      *
-     * @param paymentRepository The PaymentRepository to use for persisting payments.
-     * @param accountRepository The AccountRepository to use for retrieving and updating accounts.
+     * @param paymentRepository  The PaymentRepository to use for persisting payments.
+     * @param accountRepository  The AccountRepository to use for retrieving and updating accounts.
+     * @param clusterTopology    The ClusterTopology to decide which node credits the receiving account.
+     * @param eventPublisher     The ApplicationEventPublisher to announce credits owed by other nodes.
+     * @param accountLocks       The AccountLocks to serialize transfers with deposits and withdrawals of the same
+     *                           accounts, when mailboxes are not used.
+     * @param accountMailboxes   The AccountMailboxes to queue both legs of a transfer in, when they are enabled.
+     * @param transactionManager The PlatformTransactionManager to run transfers in when they do not use mailboxes.
      */
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, AccountRepository accountRepository) {
+    public PaymentService(PaymentRepository paymentRepository, AccountRepository accountRepository,
+                          ClusterTopology clusterTopology, ApplicationEventPublisher eventPublisher,
+                          AccountLocks accountLocks, AccountMailboxes accountMailboxes,
+                          PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
         this.accountRepository = accountRepository;
+        this.clusterTopology = clusterTopology;
+        this.eventPublisher = eventPublisher;
+        this.accountLocks = accountLocks;
+        this.accountMailboxes = accountMailboxes;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
-     * Makes a payment from one account to another.
+     * Makes a payment from one account to another. If the receiving account is owned by another node, only the
+     * sender is debited here and the returned payment is {@link Payment#STATUS_PENDING_CREDIT}.
      *
      * @param fromAccountId The ID of the account to transfer funds from.
      * @param toAccountId The ID of the account to transfer funds to.
@@ -46,6 +83,7 @@ public class PaymentService {
      * @throws InsufficientFundsException If the fromAccountId has insufficient funds to complete the transfer.
      * @throws InvalidAccountException If the fromAccountId and the toAccountId are the same.
      */
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Payment makePayment(String fromAccountId, String toAccountId, BigDecimal amount)
             throws AccountNotFoundException, InsufficientFundsException, InvalidAccountException {
 
@@ -53,10 +91,39 @@ public class PaymentService {
             throw new InvalidAccountException("From account and to account cannot be the same.");
         }
 
-        Account fromAccount = accountRepository.findById(fromAccountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + fromAccountId));
-        Account toAccount = accountRepository.findById(toAccountId)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + toAccountId));
+        if (accountMailboxes.appliesToCurrentThread()) {
+            Payment payment = accountMailboxes.debit(fromAccountId, toAccountId, amount, "OUTGOING");
+            if (clusterTopology.isOwnedElsewhere(toAccountId)) {
+                // Published after the debit has committed, outside any transaction
+                eventPublisher.publishEvent(new PendingCreditEvent(payment.getId(), toAccountId));
+                return payment;
+            }
+            return accountMailboxes.completeTransfer(payment);
+        }
+        // Same locks as deposits and withdrawals, taken outside the transaction and released after the commit
+        Payment[] payment = new Payment[1];
+        accountLocks.run(fromAccountId, toAccountId, () -> payment[0] = transactionTemplate.execute(
+                status -> transfer(fromAccountId, toAccountId, amount)));
+        return payment[0];
+    }
+
+    private Payment transfer(String fromAccountId, String toAccountId, BigDecimal amount) {
+        // Both rows are locked, in ID order so that opposite transfers cannot deadlock, because the receiving account
+        // may be owned by another node sharing the database. A receiver credited by its own node is only read.
+        boolean remoteCredit = clusterTopology.isOwnedElsewhere(toAccountId);
+        Account fromAccount;
+        Account toAccount;
+        if (remoteCredit) {
+            fromAccount = lockAccount(fromAccountId);
+            toAccount = accountRepository.findById(toAccountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + toAccountId));
+        } else if (fromAccountId.compareTo(toAccountId) < 0) {
+            fromAccount = lockAccount(fromAccountId);
+            toAccount = lockAccount(toAccountId);
+        } else {
+            toAccount = lockAccount(toAccountId);
+            fromAccount = lockAccount(fromAccountId);
+        }
 
         BigDecimal fromAccountBalance = fromAccount.getBalance();
         if (fromAccountBalance.compareTo(amount) < 0) {
@@ -64,18 +131,82 @@ public class PaymentService {
         }
 
         fromAccount.setBalance(fromAccountBalance.subtract(amount));
-        toAccount.setBalance(toAccount.getBalance().add(amount));
+        if (!remoteCredit) {
+            toAccount.setBalance(toAccount.getBalance().add(amount));
+        }
 
         Payment payment = new Payment();
         payment.setFromAccount(fromAccountId);
         payment.setToAccount(toAccountId);
         payment.setAmount(amount);
         payment.setDirection("OUTGOING");
+        payment.setStatus(remoteCredit ? Payment.STATUS_PENDING_CREDIT : Payment.STATUS_COMPLETED);
 
         paymentRepository.save(payment);
         accountRepository.save(fromAccount);
+        if (remoteCredit) {
+            eventPublisher.publishEvent(new PendingCreditEvent(payment.getId(), toAccountId));
+        } else {
+            accountRepository.save(toAccount);
+        }
+
+        return payment;
+    }
+
+    /**
+     * Applies the credit of a transfer whose sender has already been debited. Calling it again for the same payment
+     * has no further effect, so the sending node may retry until it sees a success.
+     *
+     * @param paymentId The ID of the pending payment.
+     * @return The Payment object, completed unless it had been reversed before.
+     * @throws AccountNotFoundException If the receiving account no longer exists.
+     * @throws InvalidAccountException If there is no payment with the given ID.
+     */
+    public Payment completeCredit(Long paymentId) throws AccountNotFoundException, InvalidAccountException {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new InvalidAccountException("Payment not found with id: " + paymentId));
+        if (!Payment.STATUS_PENDING_CREDIT.equals(payment.getStatus())) {
+            return payment;
+        }
+        String toAccountId = payment.getToAccount();
+        Account toAccount = lockAccount(toAccountId);
+        toAccount.setBalance(toAccount.getBalance().add(payment.getAmount()));
+        payment.setStatus(Payment.STATUS_COMPLETED);
         accountRepository.save(toAccount);
+        paymentRepository.save(payment);
+        return payment;
+    }
 
+    /**
+     * Refunds the sender of a transfer whose credit could not be applied. Payments that are no longer pending are
+     * left untouched.
+     *
+     * @param paymentId The ID of the pending payment.
+     * @return The Payment object, reversed unless it had been completed before.
+     * @throws AccountNotFoundException If the sending account no longer exists.
+     * @throws InvalidAccountException If there is no payment with the given ID.
+     */
+    public Payment reverseDebit(Long paymentId) throws AccountNotFoundException, InvalidAccountException {
+        Payment payment = paymentRepository.findByIdForUpdate(paymentId)
+                .orElseThrow(() -> new InvalidAccountException("Payment not found with id: " + paymentId));
+        if (!Payment.STATUS_PENDING_CREDIT.equals(payment.getStatus())) {
+            return payment;
+        }
+        String fromAccountId = payment.getFromAccount();
+        Account fromAccount = lockAccount(fromAccountId);
+        fromAccount.setBalance(fromAccount.getBalance().add(payment.getAmount()));
+        payment.setStatus(Payment.STATUS_REVERSED);
+        accountRepository.save(fromAccount);
+        paymentRepository.save(payment);
         return payment;
     }
+
+    /**
+     * Loads an account and locks its row until the surrounding transaction ends, so that writes from other nodes
+     * sharing the database wait for this one instead of overwriting it.
+     */
+    private Account lockAccount(String accountId) {
+        return accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with id: " + accountId));
+    }
 }
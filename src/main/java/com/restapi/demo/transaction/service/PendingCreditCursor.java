@@ -0,0 +1,70 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Pages through the payments waiting for their credit on behalf of a periodic sweep. Each sweep reads them in ID order
+ * and continues after the last payment the previous sweep looked at, wrapping around at the end, so every pending
+ * payment gets its turn however many are ahead of it.
+ * <p>
+ * A cursor keeps its position between sweeps and is not thread-safe; it is meant for a sweep that never overlaps
+ * itself.
+ */
+public class PendingCreditCursor {
+
+    private final PaymentRepository paymentRepository;
+
+    // The ID of the last payment the previous sweep looked at
+    private long lastId;
+
+    /**
+     * Constructs a PendingCreditCursor starting at the oldest pending payment.
+     *
+     * @param paymentRepository The PaymentRepository to read the pending payments from.
+     */
+    public PendingCreditCursor(PaymentRepository paymentRepository) {
+        this.paymentRepository = paymentRepository;
+    }
+
+    /**
+     * Offers the payments pending since before the given time to the handler, in ID order from where the previous
+     * sweep stopped, until the handler has taken {@code limit} of them or every pending payment has been offered once.
+     *
+     * @param createdBefore only payments created before this instant are offered
+     * @param limit         the number of payments the handler may take, also the number read per query
+     * @param handler       handles a payment and returns whether it counts towards the limit, {@code false} for a
+     *                      payment it skipped
+     */
+    public void sweep(Instant createdBefore, int limit, Predicate<Payment> handler) {
+        int taken = 0;
+        long startedAfter = lastId;
+        long afterId = startedAfter;
+        long upToId = Long.MAX_VALUE;
+        while (taken < limit) {
+            List<Payment> page = paymentRepository.findPendingCredits(afterId, upToId, createdBefore,
+                    PageRequest.of(0, limit));
+            if (page.isEmpty()) {
+                if (upToId != Long.MAX_VALUE || startedAfter == 0) {
+                    break;
+                }
+                // Wrap around to the payments before where this sweep started
+                afterId = 0;
+                upToId = startedAfter;
+                continue;
+            }
+            for (Payment payment : page) {
+                afterId = payment.getId();
+                if (handler.test(payment) && ++taken == limit) {
+                    break;
+                }
+            }
+        }
+        lastId = afterId;
+    }
+}
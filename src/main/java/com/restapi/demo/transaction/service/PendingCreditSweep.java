@@ -0,0 +1,84 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.cluster.PendingCreditRelay;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Settles transfers made through {@link AccountMailboxes} whose second step never happened, because the process
+ * stopped between the debit and the credit or the refund of a failed credit failed as well. Such payments stay
+ * {@link Payment#STATUS_PENDING_CREDIT} with the sender debited and the receiver not credited.
+ * <p>
+ * A periodic sweep credits the receiver of every payment that has been pending for
+ * {@code accounts.mailboxes.pending-credit-after-millis}, or refunds the sender if the receiving account no longer
+ * exists. Both go through the mailboxes and only apply to payments that are still pending, so a transfer finishing
+ * at the same time is settled once. Like {@link PendingCreditRelay}, the sweep pages through the pending payments
+ * with a {@link PendingCreditCursor}. In a cluster the relay settles these payments instead, so the sweep only runs
+ * with {@code cluster.enabled=false}.
+ */
+@Component
+@ConditionalOnExpression("${accounts.mailboxes.enabled:false} and !${cluster.enabled:false}")
+public class PendingCreditSweep {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingCreditSweep.class);
+
+    private final AccountMailboxes accountMailboxes;
+    private final PendingCreditCursor cursor;
+    private final Duration settleAfter;
+    private final int batchSize;
+
+    /**
+     * Constructs a PendingCreditSweep.
+     *
+     * @param accountMailboxes  The AccountMailboxes to credit receivers and refund senders with.
+     * @param paymentRepository The PaymentRepository to find pending payments in.
+     * @param settleAfterMillis How long a payment may stay pending before the sweep settles it.
+     * @param batchSize         The maximum number of payments settled per sweep.
+     */
+    @Autowired
+    public PendingCreditSweep(AccountMailboxes accountMailboxes, PaymentRepository paymentRepository,
+                              @Value("${accounts.mailboxes.pending-credit-after-millis:60000}") long settleAfterMillis,
+                              @Value("${accounts.mailboxes.pending-credit-batch-size:500}") int batchSize) {
+        this.accountMailboxes = accountMailboxes;
+        this.cursor = new PendingCreditCursor(paymentRepository);
+        this.settleAfter = Duration.ofMillis(settleAfterMillis);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Credits or refunds the payments that have been pending for too long.
+     */
+    @Scheduled(fixedDelayString = "${accounts.mailboxes.pending-credit-interval-millis:30000}")
+    public void settleStalePendingCredits() {
+        cursor.sweep(Instant.now().minus(settleAfter), batchSize, payment -> {
+            settle(payment);
+            return true;
+        });
+    }
+
+    private void settle(Payment payment) {
+        try {
+            accountMailboxes.credit(payment);
+        } catch (AccountNotFoundException e) {
+            log.info("Account {} no longer exists, reversing payment {}", payment.getToAccount(), payment.getId());
+            try {
+                accountMailboxes.refund(payment);
+            } catch (RuntimeException refundFailure) {
+                log.error("Could not refund payment {}, will retry", payment.getId(), refundFailure);
+            }
+        } catch (RuntimeException e) {
+            log.error("Settling payment {} failed, will retry", payment.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.exception.ScheduledPaymentNotFoundException;
+import com.restapi.demo.transaction.model.ScheduledPayment;
+import com.restapi.demo.transaction.repository.AccountRepository;
+import com.restapi.demo.transaction.repository.ScheduledPaymentRepository;
+import com.restapi.demo.transaction.scheduling.ScheduledPaymentScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Service class for creating and cancelling future-dated and recurring payments.
+ */
+@Service
+@Transactional
+public class ScheduledPaymentService {
+
+    private final ScheduledPaymentRepository scheduledPaymentRepository;
+    private final AccountRepository accountRepository;
+    private final ScheduledPaymentScheduler scheduler;
+
+    /**
+     * Constructs a ScheduledPaymentService.
+     *
+     * @param scheduledPaymentRepository The ScheduledPaymentRepository to use for persisting schedules.
+     * @param accountRepository          The AccountRepository to use for validating accounts.
+     * @param scheduler                  The ScheduledPaymentScheduler holding the schedules due soon.
+     */
+    @Autowired
+    public ScheduledPaymentService(ScheduledPaymentRepository scheduledPaymentRepository,
+                                   AccountRepository accountRepository, ScheduledPaymentScheduler scheduler) {
+        this.scheduledPaymentRepository = scheduledPaymentRepository;
+        this.accountRepository = accountRepository;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Schedules a payment from one account to another.
+     *
+     * @param fromAccountId    The ID of the account to transfer funds from.
+     * @param toAccountId      The ID of the account to transfer funds to.
+     * @param amount           The amount to transfer on each execution.
+     * @param firstExecutionAt The time of the first execution.
+     * @param intervalSeconds  The interval between executions in seconds, or {@code null} for a one-off payment.
+     * @return The created schedule.
+     * @throws AccountNotFoundException If either account does not exist.
+     * @throws InvalidAccountException  If the accounts are the same, or the amount or interval is not positive.
+     */
+    public ScheduledPayment createScheduledPayment(String fromAccountId, String toAccountId, BigDecimal amount,
+                                                   Instant firstExecutionAt, Long intervalSeconds)
+            throws AccountNotFoundException, InvalidAccountException {
+        if (fromAccountId == null || toAccountId == null || fromAccountId.equals(toAccountId)) {
+            throw new InvalidAccountException("From account and to account must be set and cannot be the same.");
+        }
+        if (amount == null || amount.signum() <= 0 || firstExecutionAt == null
+                || (intervalSeconds != null && intervalSeconds <= 0)) {
+            throw new InvalidAccountException("Amount and interval must be positive and the first execution set.");
+        }
+        if (!accountRepository.existsById(fromAccountId)) {
+            throw new AccountNotFoundException("Account not found with id: " + fromAccountId);
+        }
+        if (!accountRepository.existsById(toAccountId)) {
+            throw new AccountNotFoundException("Account not found with id: " + toAccountId);
+        }
+
+        ScheduledPayment schedule = new ScheduledPayment();
+        schedule.setFromAccount(fromAccountId);
+        schedule.setToAccount(toAccountId);
+        schedule.setAmount(amount);
+        schedule.setNextExecutionAt(firstExecutionAt);
+        schedule.setIntervalSeconds(intervalSeconds);
+        schedule.setStatus(ScheduledPayment.STATUS_ACTIVE);
+        ScheduledPayment saved = scheduledPaymentRepository.save(schedule);
+
+        afterCommit(() -> scheduler.schedule(saved.getId(), saved.getNextExecutionAt()));
+        return saved;
+    }
+
+    /**
+     * Retrieves the schedule with the specified ID.
+     *
+     * @param scheduleId The ID of the schedule.
+     * @return The schedule.
+     * @throws ScheduledPaymentNotFoundException If no schedule exists with the specified ID.
+     */
+    @Transactional(readOnly = true)
+    public ScheduledPayment getScheduledPayment(Long scheduleId) throws ScheduledPaymentNotFoundException {
+        return scheduledPaymentRepository.findById(scheduleId)
+                .orElseThrow(() -> new ScheduledPaymentNotFoundException("Scheduled payment not found with id: " + scheduleId));
+    }
+
+    /**
+     * Cancels the schedule with the specified ID. Cancelling a finished schedule has no effect.
+     *
+     * @param scheduleId The ID of the schedule.
+     * @return The schedule.
+     * @throws ScheduledPaymentNotFoundException If no schedule exists with the specified ID.
+     */
+    public ScheduledPayment cancelScheduledPayment(Long scheduleId) throws ScheduledPaymentNotFoundException {
+        ScheduledPayment schedule = scheduledPaymentRepository.findByIdForUpdate(scheduleId)
+                .orElseThrow(() -> new ScheduledPaymentNotFoundException("Scheduled payment not found with id: " + scheduleId));
+        if (ScheduledPayment.STATUS_ACTIVE.equals(schedule.getStatus())) {
+            schedule.setStatus(ScheduledPayment.STATUS_CANCELLED);
+            afterCommit(() -> scheduler.cancel(scheduleId));
+        }
+        return schedule;
+    }
+
+    private static void afterCommit(Runnable action) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package com.restapi.demo.transaction.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the beans left to lazy initialization on a background thread once the application is ready.
+ * <p>
+ * Lazy initialization makes the instance ready sooner, but moves the cost of creating controllers, services and
+ * repositories, including the checks Spring Data runs on every query method, to the first requests that need them.
+ * Creating them right after startup takes that cost off those requests in most cases. A request arriving earlier
+ * simply creates the beans it needs itself; the bean factory makes sure each is created once.
+ */
+@Component
+@ConditionalOnProperty(name = "startup.background-initialization.enabled", havingValue = "true")
+public class BackgroundBeanInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(BackgroundBeanInitializer.class);
+
+    private final ConfigurableListableBeanFactory beanFactory;
+
+    /**
+     * Constructs a BackgroundBeanInitializer.
+     *
+     * @param beanFactory The bean factory holding the beans to create.
+     */
+    @Autowired
+    public BackgroundBeanInitializer(ConfigurableListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Starts creating the remaining lazy beans.
+     *
+     * @param event the ready event
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        Thread.ofPlatform().name("lazy-bean-init").daemon().start(this::initializeLazyBeans);
+    }
+
+    void initializeLazyBeans() {
+        long start = System.nanoTime();
+        int created = 0;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.isAbstract() || !definition.isSingleton() || !definition.isLazyInit()
+                    || beanFactory.containsSingleton(beanName)) {
+                continue;
+            }
+            try {
+                beanFactory.getBean(beanName);
+                created++;
+            } catch (BeansException e) {
+                // Left to whoever needs the bean, who gets the same exception with its own context
+                log.debug("Could not create bean {} in the background", beanName, e);
+            }
+        }
+        log.info("Created {} lazy beans in the background in {} ms", created, (System.nanoTime() - start) / 1_000_000);
+    }
+}
@@ -0,0 +1,51 @@
+package com.restapi.demo.transaction.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+
+import java.lang.reflect.Method;
+
+/**
+ * Decides which beans are still created at startup when {@code spring.main.lazy-initialization} is enabled, as it is
+ * in the {@code faststart} profile.
+ * <p>
+ * Everything else is created on first use. The exceptions are beans that nothing would ever ask for, but which have
+ * to run on their own: lifecycle beans such as the scheduled payment scheduler and the binary listener, and beans with
+ * {@link Scheduled} methods, which are only scheduled once the bean exists. The entity manager factory is created
+ * eagerly as well, so that with {@code spring.data.jpa.repositories.bootstrap-mode=deferred} Hibernate builds its
+ * metamodel on a background thread while the rest of the context starts, rather than when the first request needs it.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class FastStartupConfiguration {
+
+    /**
+     * Excludes the beans that have to start on their own from lazy initialization.
+     *
+     * @return the filter
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return (beanName, beanDefinition, beanType) -> SmartLifecycle.class.isAssignableFrom(beanType)
+                || AbstractEntityManagerFactoryBean.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType);
+    }
+
+    static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                isScheduled(method) ? Boolean.TRUE : null).isEmpty();
+    }
+
+    private static boolean isScheduled(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || AnnotatedElementUtils.hasAnnotation(method, Schedules.class);
+    }
+}
@@ -0,0 +1,53 @@
+package com.restapi.demo.transaction.startup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Tells the {@link StartupReport} when the first request has been answered with a 2xx status. After that, requests
+ * pass through without being looked at.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "startup.report.enabled", havingValue = "true")
+public class FirstRequestTimingFilter extends OncePerRequestFilter {
+
+    private final StartupReport startupReport;
+
+    /**
+     * Constructs a FirstRequestTimingFilter.
+     *
+     * @param startupReport The StartupReport to record the first successful request in.
+     */
+    @Autowired
+    public FirstRequestTimingFilter(StartupReport startupReport) {
+        this.startupReport = startupReport;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return startupReport.isFirstRequestRecorded();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        int status = response.getStatus();
+        if (status >= 200 && status < 300) {
+            startupReport.recordSuccessfulRequest(request.getMethod(), request.getRequestURI());
+        }
+    }
+}
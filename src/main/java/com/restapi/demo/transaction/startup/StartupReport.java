@@ -0,0 +1,146 @@
+package com.restapi.demo.transaction.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reports how long this instance took to start.
+ * <p>
+ * All times are measured from the start of the JVM, so they include what happens before Spring runs. Once the
+ * application is ready, the steps recorded by the {@link BufferingApplicationStartup} set up in
+ * {@code TransactionApplication} are summarized: the top-level phases in order, then the slowest bean creations. The
+ * headline number, the time until the first request succeeded, is logged by {@link #recordSuccessfulRequest} when
+ * {@link FirstRequestTimingFilter} sees it. The recorded steps are released after the report whether it is enabled
+ * or not.
+ */
+@Component
+public class StartupReport {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private static final String BEAN_INSTANTIATION_STEP = "spring.beans.instantiate";
+
+    private final boolean enabled;
+    private final int slowestBeans;
+    private final long jvmStartMillis;
+    private final AtomicBoolean firstRequestRecorded = new AtomicBoolean();
+    private volatile long readyMillis = -1;
+
+    /**
+     * Constructs a StartupReport.
+     *
+     * @param enabled      Whether the report is logged.
+     * @param slowestBeans The number of slowest bean creations listed in the report.
+     */
+    @Autowired
+    public StartupReport(@Value("${startup.report.enabled:false}") boolean enabled,
+                         @Value("${startup.report.slowest-beans:10}") int slowestBeans) {
+        this(enabled, slowestBeans, ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    StartupReport(boolean enabled, int slowestBeans, long jvmStartMillis) {
+        this.enabled = enabled;
+        this.slowestBeans = slowestBeans;
+        this.jvmStartMillis = jvmStartMillis;
+    }
+
+    /**
+     * Logs the startup phases once the application is ready to serve requests.
+     *
+     * @param event the ready event
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        readyMillis = System.currentTimeMillis() - jvmStartMillis;
+        ApplicationStartup startup = event.getApplicationContext().getApplicationStartup();
+        StartupTimeline timeline = startup instanceof BufferingApplicationStartup buffering
+                ? buffering.drainBufferedTimeline()
+                : null;
+        if (enabled) {
+            log.info("Startup: ready {} ms after JVM start{}", readyMillis,
+                    timeline == null ? "" : System.lineSeparator() + describe(timeline));
+        }
+    }
+
+    /**
+     * Logs the time to the first successful request, the first time it is called.
+     *
+     * @param method the HTTP method of the request
+     * @param path   the path of the request
+     */
+    public void recordSuccessfulRequest(String method, String path) {
+        if (firstRequestRecorded.compareAndSet(false, true) && enabled) {
+            long millis = System.currentTimeMillis() - jvmStartMillis;
+            log.info("Startup: first successful request ({} {}) {} ms after JVM start, {} ms after ready",
+                    method, path, millis, readyMillis < 0 ? "?" : millis - readyMillis);
+        }
+    }
+
+    /**
+     * Returns whether a successful request has been recorded.
+     *
+     * @return {@code true} once {@link #recordSuccessfulRequest} has been called
+     */
+    public boolean isFirstRequestRecorded() {
+        return firstRequestRecorded.get();
+    }
+
+    /**
+     * Describes the top-level phases of the given timeline and its slowest bean creations. A bean's time includes
+     * the beans it depends on, so only beans that were not created as another bean's dependency are listed.
+     */
+    String describe(StartupTimeline timeline) {
+        List<StartupTimeline.TimelineEvent> events = timeline.getEvents();
+        Map<Long, String> namesById = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            namesById.put(event.getStartupStep().getId(), event.getStartupStep().getName());
+        }
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("  %-48s %8d ms%n", "jvm.start-to-spring",
+                timeline.getStartTime().toEpochMilli() - jvmStartMillis));
+        events.stream()
+                .filter(event -> event.getStartupStep().getParentId() == null)
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getStartTime))
+                .forEach(event -> report.append(String.format("  %-48s %8d ms%n",
+                        event.getStartupStep().getName(), event.getDuration().toMillis())));
+
+        List<StartupTimeline.TimelineEvent> beans = events.stream()
+                .filter(event -> BEAN_INSTANTIATION_STEP.equals(event.getStartupStep().getName()))
+                .filter(event -> !BEAN_INSTANTIATION_STEP.equals(namesById.get(event.getStartupStep().getParentId())))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestBeans)
+                .toList();
+        report.append("  slowest beans, including their dependencies:");
+        for (StartupTimeline.TimelineEvent bean : beans) {
+            report.append(String.format("%n    %-46s %8d ms", beanName(bean.getStartupStep()),
+                    bean.getDuration().toMillis()));
+        }
+        return report.toString();
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
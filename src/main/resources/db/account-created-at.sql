@@ -0,0 +1,5 @@
+-- Adds the creation time of accounts. It is part of the ETag of GET /v1/accounts/{accountId} and GET /v1/accounts,
+-- so that an account deleted and created again under the same ID, whose version starts over, gets a new ETag.
+-- Existing accounts get the time the column is added; accounts inserted without a creation time get the current time.
+
+ALTER TABLE accounts ADD COLUMN created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
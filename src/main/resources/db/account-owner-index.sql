@@ -0,0 +1,4 @@
+-- Indexes account owners for GET /v1/accounts/search. Searches use the in-memory owner index once it has been built;
+-- until then, and when the in-memory index is disabled, prefix searches use this index and substring searches scan it.
+
+CREATE INDEX idx_accounts_owner ON accounts (owner);
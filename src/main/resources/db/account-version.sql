@@ -0,0 +1,4 @@
+-- Adds the optimistic-lock version of accounts. Every update through JPA increments it, and it is the ETag of
+-- GET /v1/accounts/{accountId}, so clients polling an unchanged account are answered with 304 Not Modified.
+
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Balances of every account as of the time each checkpoint was taken, written by the balance checkpoint job and read
+-- by GET /v1/accounts/{accountId}/balance?at=. The account version lets the job skip accounts that have not changed
+-- since their latest checkpoint.
+
+CREATE TABLE balance_checkpoints (
+    account_id      VARCHAR(255)   NOT NULL,
+    taken_at        DATETIME(6)    NOT NULL,
+    balance         DECIMAL(19, 2) NOT NULL,
+    account_version BIGINT         NOT NULL,
+    PRIMARY KEY (account_id, taken_at)
+);
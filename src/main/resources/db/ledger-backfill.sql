@@ -0,0 +1,24 @@
+-- One-off backfill for accounts created before account creation, balance edits and withdrawals were recorded as
+-- payments. Records the difference between each balance and its payments as an opening payment so that the
+-- reconciliation job starts from a clean ledger. Run once, before the first reconciliation.
+
+INSERT INTO payments (from_account, to_account, amount, direction, created_at)
+SELECT CASE WHEN diff < 0 THEN id END,
+       CASE WHEN diff > 0 THEN id END,
+       ABS(diff),
+       CASE WHEN diff > 0 THEN 'incoming' ELSE 'outgoing' END,
+       CURRENT_TIMESTAMP(6)
+FROM (
+    SELECT a.id, a.balance - COALESCE(flow.net, 0) AS diff
+    FROM accounts a
+    LEFT JOIN (
+        SELECT account_id, SUM(delta) AS net
+        FROM (
+            SELECT to_account AS account_id, amount AS delta FROM payments WHERE to_account IS NOT NULL
+            UNION ALL
+            SELECT from_account AS account_id, -amount AS delta FROM payments WHERE from_account IS NOT NULL
+        ) flows
+        GROUP BY account_id
+    ) flow ON flow.account_id = a.id
+) differences
+WHERE diff <> 0;
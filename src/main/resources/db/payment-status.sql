@@ -0,0 +1,5 @@
+-- Adds the payment status used by cross-partition transfers. Existing payments keep a NULL status, which is read as
+-- COMPLETED. The index serves PendingCreditRelay's sweep over PENDING_CREDIT payments.
+
+ALTER TABLE payments ADD COLUMN status VARCHAR(16) NULL;
+ALTER TABLE payments ADD KEY idx_payments_status_created_at (status, created_at);
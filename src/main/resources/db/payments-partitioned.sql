@@ -0,0 +1,30 @@
+-- Payments table partitioned by month on created_at.
+--
+-- MySQL requires the partitioning column to be part of every unique key, so the primary key is (id, created_at).
+-- PaymentArchiveJob splits the pmax partition into monthly pYYYYMM partitions ahead of time and drops partitions
+-- once they have been archived.
+
+CREATE TABLE payments (
+    id           BIGINT         NOT NULL AUTO_INCREMENT,
+    from_account VARCHAR(255)   NULL,
+    to_account   VARCHAR(255)   NULL,
+    amount       DECIMAL(19, 2) NOT NULL,
+    direction    VARCHAR(255)   NOT NULL,
+    created_at   DATETIME(6)    NOT NULL,
+    status       VARCHAR(16)    NULL,
+    PRIMARY KEY (id, created_at),
+    KEY idx_payments_from_account_created_at (from_account, created_at),
+    KEY idx_payments_to_account_created_at (to_account, created_at),
+    KEY idx_payments_status_created_at (status, created_at)
+)
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION pmax VALUES LESS THAN (MAXVALUE)
+);
+
+-- Migrating an existing, unpartitioned payments table:
+--
+-- ALTER TABLE payments ADD COLUMN created_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+-- ALTER TABLE payments DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+-- ALTER TABLE payments ADD KEY idx_payments_from_account_created_at (from_account, created_at),
+--                      ADD KEY idx_payments_to_account_created_at (to_account, created_at);
+-- ALTER TABLE payments PARTITION BY RANGE COLUMNS (created_at) (PARTITION pmax VALUES LESS THAN (MAXVALUE));
@@ -0,0 +1,16 @@
+-- Durable store for future-dated and recurring payments. The (status, next_execution_at) index serves both the
+-- startup recovery and the periodic refill of the in-memory timing wheel.
+
+CREATE TABLE scheduled_payments (
+    id                BIGINT         NOT NULL AUTO_INCREMENT,
+    from_account      VARCHAR(255)   NOT NULL,
+    to_account        VARCHAR(255)   NOT NULL,
+    amount            DECIMAL(19, 2) NOT NULL,
+    next_execution_at DATETIME(6)    NOT NULL,
+    interval_seconds  BIGINT         NULL,
+    status            VARCHAR(16)    NOT NULL,
+    last_executed_at  DATETIME(6)    NULL,
+    last_error        VARCHAR(255)   NULL,
+    PRIMARY KEY (id),
+    KEY idx_scheduled_payments_status_next (status, next_execution_at, id)
+);
@@ -1,10 +1,14 @@
 package com.restapi.demo.transaction;
 
+import com.restapi.demo.transaction.cluster.ClusterTopology;
 import com.restapi.demo.transaction.exception.*;
 import com.restapi.demo.transaction.model.Account;
 import com.restapi.demo.transaction.model.Payment;
 import com.restapi.demo.transaction.repository.AccountRepository;
 import com.restapi.demo.transaction.repository.PaymentRepository;
+import com.restapi.demo.transaction.search.AccountOwnerIndex;
+import com.restapi.demo.transaction.service.AccountLocks;
+import com.restapi.demo.transaction.service.AccountMailboxes;
 import com.restapi.demo.transaction.service.AccountService;
 import com.restapi.demo.transaction.service.PaymentService;
 import org.junit.jupiter.api.Assertions;
@@ -13,7 +17,10 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.util.Optional;
@@ -30,6 +37,24 @@ public class TransactionApplicationTest {
     @Mock
     private PaymentRepository paymentRepository;
 
+    @Mock
+    private ClusterTopology clusterTopology;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private AccountLocks accountLocks = new AccountLocks(16);
+
+    @Mock
+    private AccountMailboxes accountMailboxes;
+
+    @Mock
+    private AccountOwnerIndex ownerIndex;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -69,7 +94,7 @@ public class TransactionApplicationTest {
     @Test
     public void updateAccount_shouldUpdateAccountSuccessfully() throws Exception {
         // Arrange
-        when(accountRepository.findById("1")).thenReturn(Optional.of(existingAccount));
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.of(existingAccount));
         when(accountRepository.save(existingAccount)).thenReturn(existingAccount);
 
         // Act
@@ -84,7 +109,7 @@ public class TransactionApplicationTest {
     @Test
     public void updateAccount_shouldThrowAccountNotFoundException_whenAccountNotFound() {
         // Arrange
-        when(accountRepository.findById("1")).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.empty());
 
         // Act & Assert
         Assertions.assertThrows(AccountNotFoundException.class, () -> {
@@ -112,8 +137,8 @@ public class TransactionApplicationTest {
     @Test
     public void makePayment_shouldTransferMoneySuccessfully() throws Exception {
 
-        when(accountRepository.findById("1")).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findById("2")).thenReturn(Optional.of(toAccount));
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByIdForUpdate("2")).thenReturn(Optional.of(toAccount));
 
         // Act
         Payment payment = paymentService.makePayment("1", "2", amount);
@@ -127,8 +152,8 @@ public class TransactionApplicationTest {
     @Test
     public void makePayment_shouldThrowAccountNotFoundException_whenFromAccountNotFound() {
 
-        when(accountRepository.findById("1")).thenReturn(Optional.empty());
-        when(accountRepository.findById("2")).thenReturn(Optional.of(toAccount));
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate("2")).thenReturn(Optional.of(toAccount));
 
         // Act & Assert
         Assertions.assertThrows(AccountNotFoundException.class, () -> {
@@ -139,8 +164,8 @@ public class TransactionApplicationTest {
     @Test
     public void makePayment_shouldThrowAccountNotFoundException_whenToAccountNotFound() {
 
-        when(accountRepository.findById("1")).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findById("2")).thenReturn(Optional.empty());
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByIdForUpdate("2")).thenReturn(Optional.empty());
 
         // Act & Assert
         Assertions.assertThrows(AccountNotFoundException.class, () -> {
@@ -152,8 +177,8 @@ public class TransactionApplicationTest {
     public void makePayment_shouldThrowInsufficientFundsException_whenBalanceIsNotEnough() {
 
         fromAccount.setBalance(BigDecimal.valueOf(50));
-        when(accountRepository.findById("1")).thenReturn(Optional.of(fromAccount));
-        when(accountRepository.findById("2")).thenReturn(Optional.of(toAccount));
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.of(fromAccount));
+        when(accountRepository.findByIdForUpdate("2")).thenReturn(Optional.of(toAccount));
 
         // Act & Assert
         Assertions.assertThrows(InsufficientFundsException.class, () -> {
@@ -0,0 +1,101 @@
+package com.restapi.demo.transaction.archive;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PaymentArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void archive_shouldRoundTripPayments() throws Exception {
+        // Arrange
+        Path file = directory.resolve("payments-p202401.parc");
+        Instant first = Instant.parse("2024-01-03T10:15:30.123456Z");
+        try (PaymentArchiveWriter writer = new PaymentArchiveWriter(file)) {
+            writer.append(10, first, "1", "2", "OUTGOING", "COMPLETED", new BigDecimal("100.25"));
+            writer.append(11, first.plusSeconds(60), null, "1", "incoming", null, new BigDecimal("-3.50"));
+            writer.append(15, first.minusSeconds(5), "3", "2", "OUTGOING", "REVERSED", new BigDecimal("7"));
+            writer.commit();
+        }
+
+        // Act
+        PaymentArchiveReader reader = new PaymentArchiveReader(file);
+        List<String> rows = new ArrayList<>();
+        reader.scan("1", (id, createdAt, from, to, direction, status, unscaled, scale) ->
+                rows.add(id + " " + PaymentArchiveReader.toInstant(createdAt) + " " + from + " " + to + " "
+                        + direction + " " + status + " " + BigDecimal.valueOf(unscaled, scale)));
+
+        // Assert
+        Assertions.assertEquals(3, reader.getRowCount());
+        Assertions.assertEquals(first.minusSeconds(5), reader.getMinCreatedAt());
+        Assertions.assertEquals(first.plusSeconds(60), reader.getMaxCreatedAt());
+        Assertions.assertEquals(List.of(
+                "10 2024-01-03T10:15:30.123456Z 1 2 OUTGOING COMPLETED 100.25",
+                "11 2024-01-03T10:16:30.123456Z null 1 incoming null -3.50"), rows);
+        Assertions.assertFalse(reader.mentions("4"));
+    }
+
+    @Test
+    public void scan_shouldVisitExactlyTheAccountsRows_whenTheWriterSpilledItsDictionaryAndRowIndex() throws Exception {
+        // Arrange
+        Path file = directory.resolve("payments-p202403.parc");
+        Instant first = Instant.parse("2024-03-01T00:00:00Z");
+        List<String> expected = new ArrayList<>();
+        try (PaymentArchiveWriter writer = new PaymentArchiveWriter(file, 16)) {
+            for (int i = 0; i < 1000; i++) {
+                String from = "a" + (i * 7 % 97);
+                String to = i % 50 == 0 ? from : "a" + (i * 13 % 89);
+                writer.append(100 + i * 3L, first.plusSeconds(i), from, to, "OUTGOING", "COMPLETED",
+                        BigDecimal.valueOf(i, 2));
+                if (from.equals("a5") || to.equals("a5")) {
+                    expected.add((100 + i * 3L) + " " + from + " " + to + " " + BigDecimal.valueOf(i, 2));
+                }
+            }
+            writer.commit();
+        }
+        PaymentArchiveReader reader = new PaymentArchiveReader(file);
+
+        // Act
+        List<String> rows = new ArrayList<>();
+        reader.scan("a5", (id, createdAt, from, to, direction, status, unscaled, scale) ->
+                rows.add(id + " " + from + " " + to + " " + BigDecimal.valueOf(unscaled, scale)));
+        long[] fullScan = new long[1];
+        reader.scan((id, createdAt, from, to, direction, status, unscaled, scale) -> fullScan[0]++);
+
+        // Assert
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertEquals(expected, rows);
+        Assertions.assertEquals(1000, fullScan[0]);
+        Assertions.assertTrue(reader.mentions("a96"));
+        Assertions.assertFalse(reader.mentions("OUTGOING"));
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    public void archive_shouldNotLeaveFilesBehind_whenNotCommitted() throws Exception {
+        // Arrange
+        Path file = directory.resolve("payments-p202402.parc");
+
+        // Act
+        try (PaymentArchiveWriter writer = new PaymentArchiveWriter(file)) {
+            writer.append(1, Instant.now(), "1", "2", "OUTGOING", "COMPLETED", BigDecimal.ONE);
+        }
+
+        // Assert
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.restapi.demo.transaction.checkpoint;
+
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository;
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository.BalanceCheckpoint;
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import com.restapi.demo.transaction.repository.LedgerScanRepository.AccountState;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BalanceCheckpointJobTest {
+
+    @Test
+    public void run_shouldCheckpointChangedAccountsAsOfTheCheckpointTime() {
+        // Arrange
+        LedgerScanRepository scanRepository = Mockito.mock(LedgerScanRepository.class);
+        BalanceCheckpointRepository checkpointRepository = Mockito.mock(BalanceCheckpointRepository.class);
+        BalanceCheckpointJob job = new BalanceCheckpointJob(scanRepository, checkpointRepository,
+                Mockito.mock(PlatformTransactionManager.class), 2, 0, 300);
+        when(scanRepository.findAccountStatesAfter(eq(""), anyInt())).thenReturn(List.of(
+                new AccountState("a", new BigDecimal("100.00"), 3),
+                new AccountState("b", new BigDecimal("50.00"), 7)));
+        when(scanRepository.findAccountStatesAfter(eq("b"), anyInt())).thenReturn(List.of(
+                new AccountState("c", new BigDecimal("10.00"), 1)));
+        when(checkpointRepository.findLatestVersions(List.of("a", "b"))).thenReturn(Map.of("a", 3L, "b", 5L));
+        // Paid to b after the checkpoint time, so not part of its checkpointed balance
+        when(scanRepository.sumNetFlowsAfter(eq(List.of("a", "b")), any(Instant.class)))
+                .thenReturn(Map.of("b", new BigDecimal("20.00")));
+
+        // Act
+        long written = job.run();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(checkpointRepository, Mockito.times(2)).insert(captor.capture());
+        List<BalanceCheckpoint> first = captor.getAllValues().get(0);
+        List<BalanceCheckpoint> second = captor.getAllValues().get(1);
+        Assertions.assertEquals(2, written);
+        Assertions.assertEquals(1, first.size());
+        Assertions.assertEquals("b", first.get(0).getAccountId());
+        Assertions.assertEquals(new BigDecimal("30.00"), first.get(0).getBalance());
+        Assertions.assertEquals(7, first.get(0).getAccountVersion());
+        Assertions.assertEquals(new BigDecimal("10.00"), second.get(0).getBalance());
+        Assertions.assertEquals(first.get(0).getTakenAt(), second.get(0).getTakenAt());
+        Assertions.assertTrue(first.get(0).getTakenAt().isBefore(Instant.now().minusSeconds(299)));
+    }
+
+    @Test
+    public void run_shouldSkipAccountsWithPaymentsStillPendingAtTheCheckpointTime() {
+        // Arrange
+        LedgerScanRepository scanRepository = Mockito.mock(LedgerScanRepository.class);
+        BalanceCheckpointRepository checkpointRepository = Mockito.mock(BalanceCheckpointRepository.class);
+        BalanceCheckpointJob job = new BalanceCheckpointJob(scanRepository, checkpointRepository,
+                Mockito.mock(PlatformTransactionManager.class), 2, 0, 300);
+        when(scanRepository.findAccountStatesAfter(eq(""), anyInt())).thenReturn(List.of(
+                new AccountState("a", new BigDecimal("100.00"), 3),
+                new AccountState("b", new BigDecimal("50.00"), 7)));
+        // b received a payment before the checkpoint time whose credit has not been applied yet
+        when(scanRepository.findAccountsWithPendingCredits(eq(List.of("a", "b")), any(Instant.class)))
+                .thenReturn(Set.of("b"));
+
+        // Act
+        long written = job.run();
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BalanceCheckpoint>> captor = ArgumentCaptor.forClass(List.class);
+        verify(checkpointRepository).insert(captor.capture());
+        Assertions.assertEquals(1, written);
+        Assertions.assertEquals("a", captor.getValue().get(0).getAccountId());
+    }
+}
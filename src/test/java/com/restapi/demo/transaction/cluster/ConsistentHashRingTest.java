@@ -0,0 +1,66 @@
+package com.restapi.demo.transaction.cluster;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConsistentHashRingTest {
+
+    private static final int KEYS = 30_000;
+
+    @Test
+    public void ownerOf_shouldSpreadKeysEvenly() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node1", "node2", "node3"), 128);
+
+        // Act
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.ownerOf(Integer.toString(i)), 1, Integer::sum);
+        }
+
+        // Assert
+        Assertions.assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            Assertions.assertTrue(Math.abs(count - KEYS / 3) < KEYS / 3 * 0.2, "Unbalanced ring: " + counts);
+        }
+    }
+
+    @Test
+    public void ownerOf_shouldOnlyMoveKeysToAddedNode() {
+        // Arrange
+        ConsistentHashRing before = new ConsistentHashRing(List.of("node1", "node2", "node3"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("node1", "node2", "node3", "node4"), 128);
+
+        // Act
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = Integer.toString(i);
+            String oldOwner = before.ownerOf(key);
+            String newOwner = after.ownerOf(key);
+            if (!oldOwner.equals(newOwner)) {
+                Assertions.assertEquals("node4", newOwner);
+                moved++;
+            }
+        }
+
+        // Assert
+        Assertions.assertTrue(moved > KEYS / 4 * 0.8 && moved < KEYS / 4 * 1.2, "Moved " + moved + " keys");
+    }
+
+    @Test
+    public void ownerOf_shouldNotDependOnNodeOrder() {
+        // Arrange
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("node1", "node2", "node3"), 64);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("node3", "node1", "node2"), 64);
+
+        // Act & Assert
+        for (int i = 0; i < 1_000; i++) {
+            String key = "account-" + i;
+            Assertions.assertEquals(ring.ownerOf(key), reordered.ownerOf(key));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.restapi.demo.transaction.cluster;
+
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PendingCreditRelayTest {
+
+    @Test
+    public void retryPendingCredits_shouldReachOwnCreditsBehindOthersAndSkipFailedNodes() throws Exception {
+        // Arrange
+        ClusterTopology topology = new ClusterTopology(true, "node1",
+                "node1=http://localhost:3001,node2=http://localhost:3002,node3=http://localhost:3003", 64);
+        ClusterClient clusterClient = Mockito.mock(ClusterClient.class);
+        PaymentRepository paymentRepository = Mockito.mock(PaymentRepository.class);
+        PendingCreditRelay relay = new PendingCreditRelay(topology, clusterClient, Mockito.mock(PaymentService.class),
+                paymentRepository, 1, 10, 0, 2);
+        String own = accountOwnedBy(topology, "node1");
+        String elsewhere = accountOwnedBy(topology, "node2");
+        String deadNode = accountOwnedBy(topology, "node3");
+        List<Payment> pending = new ArrayList<>();
+        for (long id = 1; id <= 6; id++) {
+            pending.add(payment(id, elsewhere, elsewhere));
+        }
+        pending.add(payment(7, own, deadNode));
+        pending.add(payment(8, own, deadNode));
+        pending.add(payment(9, own, elsewhere));
+        when(paymentRepository.findPendingCredits(anyLong(), anyLong(), any(Instant.class), any()))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(0);
+                    long upToId = invocation.getArgument(1);
+                    return pending.stream().filter(p -> p.getId() > afterId && p.getId() <= upToId).limit(2).toList();
+                });
+        when(clusterClient.requestCredit(eq("node3"), anyLong())).thenThrow(new IOException("Connection refused"));
+        when(clusterClient.requestCredit(eq("node2"), anyLong())).thenReturn(200);
+
+        // Act
+        relay.retryPendingCredits();
+
+        // Assert
+        verify(clusterClient).requestCredit("node3", 7);
+        verify(clusterClient, never()).requestCredit("node3", 8);
+        verify(clusterClient).requestCredit("node2", 9);
+        verify(clusterClient, times(2)).requestCredit(any(), anyLong());
+        relay.destroy();
+    }
+
+    @Test
+    public void retryPendingCredits_shouldRefundOnlyWhenTheOwnerAnswersGone() throws Exception {
+        // Arrange
+        ClusterTopology topology = new ClusterTopology(true, "node1",
+                "node1=http://localhost:3001,node2=http://localhost:3002,node3=http://localhost:3003", 64);
+        ClusterClient clusterClient = Mockito.mock(ClusterClient.class);
+        PaymentRepository paymentRepository = Mockito.mock(PaymentRepository.class);
+        PaymentService paymentService = Mockito.mock(PaymentService.class);
+        PendingCreditRelay relay = new PendingCreditRelay(topology, clusterClient, paymentService,
+                paymentRepository, 1, 10, 0, 10);
+        String own = accountOwnedBy(topology, "node1");
+        List<Payment> pending = List.of(
+                payment(1, own, accountOwnedBy(topology, "node2")),
+                payment(2, own, accountOwnedBy(topology, "node3")));
+        when(paymentRepository.findPendingCredits(anyLong(), anyLong(), any(Instant.class), any()))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(0);
+                    long upToId = invocation.getArgument(1);
+                    return pending.stream().filter(p -> p.getId() > afterId && p.getId() <= upToId).toList();
+                });
+        // node2 does not serve the credit endpoint; on node3 the receiving account has been deleted
+        when(clusterClient.requestCredit("node2", 1)).thenReturn(404);
+        when(clusterClient.requestCredit("node3", 2)).thenReturn(410);
+
+        // Act
+        relay.retryPendingCredits();
+
+        // Assert
+        verify(paymentService, never()).reverseDebit(1L);
+        verify(paymentService).reverseDebit(2L);
+        relay.destroy();
+    }
+
+    private static Payment payment(long id, String from, String to) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setFromAccount(from);
+        payment.setToAccount(to);
+        payment.setStatus(Payment.STATUS_PENDING_CREDIT);
+        return payment;
+    }
+
+    private static String accountOwnedBy(ClusterTopology topology, String nodeId) {
+        for (int i = 0; ; i++) {
+            if (topology.ownerOf("acc-" + i).equals(nodeId)) {
+                return "acc-" + i;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.restapi.demo.transaction.controller;
+
+import com.restapi.demo.transaction.exception.AccountAlreadyExistsException;
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.service.AccountService;
+import com.restapi.demo.transaction.service.HistoricalBalanceService;
+import com.restapi.demo.transaction.service.HistoricalBalanceService.HistoricalBalance;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+public class AccountControllerTest {
+
+    private AccountService accountService;
+    private HistoricalBalanceService historicalBalanceService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        accountService = Mockito.mock(AccountService.class);
+        historicalBalanceService = Mockito.mock(HistoricalBalanceService.class);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AccountController(accountService, historicalBalanceService))
+                .build();
+    }
+
+    @Test
+    public void getAccountById_shouldReturnBodyAndETag_whenIfNoneMatchIsAbsent() throws Exception {
+        // Arrange
+        Account account = new Account();
+        account.setId("1");
+        account.setOwner("ABC");
+        account.setBalance(new BigDecimal("1000.00"));
+        account.setVersion(3L);
+        when(accountService.getAccountVersion("1")).thenReturn("3-lx2k9q1");
+        when(accountService.getAccountById("1")).thenReturn(account);
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/accounts/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3-lx2k9q1\""))
+                .andExpect(content().json("{\"id\":\"1\",\"owner\":\"ABC\",\"balance\":1000.00}", true));
+    }
+
+    @Test
+    public void getAccountById_shouldReturnNotModifiedWithoutLoadingAccount_whenETagMatches() throws Exception {
+        // Arrange
+        when(accountService.getAccountVersion("1")).thenReturn("3-lx2k9q1");
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/accounts/1").header(HttpHeaders.IF_NONE_MATCH, "\"3-lx2k9q1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(accountService, never()).getAccountById(anyString());
+    }
+
+    @Test
+    public void getAllAccounts_shouldReturnNotModifiedWithoutLoadingAccounts_whenETagMatches() throws Exception {
+        // Arrange
+        when(accountService.getAllAccountsVersion()).thenReturn("2-7-1234");
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/accounts").header(HttpHeaders.IF_NONE_MATCH, "\"2-7-1234\""))
+                .andExpect(status().isNotModified());
+        verify(accountService, never()).getAllAccounts();
+    }
+
+    @Test
+    public void createAccount_shouldReturnConflict_whenAccountIdIsTaken() throws Exception {
+        // Arrange
+        when(accountService.createAccount(any(Account.class)))
+                .thenThrow(new AccountAlreadyExistsException("Account already exists"));
+
+        // Act & Assert
+        mockMvc.perform(post("/v1/accounts")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\":\"1\",\"owner\":\"ABC\",\"balance\":1000.00}"))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Account already exists"));
+    }
+
+    @Test
+    public void getBalanceAt_shouldReturnHistoricalBalance() throws Exception {
+        // Arrange
+        Instant at = Instant.parse("2024-05-01T00:00:00Z");
+        when(historicalBalanceService.getBalanceAt("1", at)).thenReturn(new HistoricalBalance("1", at,
+                new BigDecimal("250.00"), Instant.parse("2024-04-30T23:00:00Z")));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/accounts/1/balance").param("at", "2024-05-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value("1"))
+                .andExpect(jsonPath("$.balance").value(250.00));
+    }
+
+    @Test
+    public void getBalanceAt_shouldReturnBadRequest_whenTimeIsMissingOrMalformed() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/v1/accounts/1/balance"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/accounts/1/balance").param("at", "yesterday"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(historicalBalanceService);
+    }
+
+    @Test
+    public void getBalanceAt_shouldReturnBadRequest_whenTimeIsInTheFuture() throws Exception {
+        // Arrange
+        Instant at = Instant.parse("2999-01-01T00:00:00Z");
+        when(historicalBalanceService.getBalanceAt("1", at))
+                .thenThrow(new InvalidAccountException("The balance can only be looked up for times in the past"));
+
+        // Act & Assert
+        mockMvc.perform(get("/v1/accounts/1/balance").param("at", "2999-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("The balance can only be looked up for times in the past"));
+    }
+}
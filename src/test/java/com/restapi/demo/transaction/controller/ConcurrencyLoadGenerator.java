@@ -0,0 +1,82 @@
+package com.restapi.demo.transaction.controller;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a fixed number of requests open against a running instance and prints throughput and latency percentiles,
+ * for comparing {@code spring.threads.virtual.enabled=false} with {@code true}. Not a test; start the instance once
+ * in each mode and run:
+ *
+ * <pre>
+ * java -cp target/test-classes com.restapi.demo.transaction.controller.ConcurrencyLoadGenerator \
+ *     [baseUrl] [fromAccountId] [toAccountId] [concurrency] [requests]
+ * </pre>
+ *
+ * Every fourth request is a 0.01 transfer and the rest read the from account, so the from account should hold
+ * enough funds for {@code requests / 4} transfers. At the default concurrency of 10000 the open file limit of both
+ * processes has to allow that many sockets ({@code ulimit -n}).
+ */
+public class ConcurrencyLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = arg(args, 0, "http://localhost:3000");
+        String from = arg(args, 1, "1");
+        String to = arg(args, 2, "2");
+        int concurrency = Integer.parseInt(arg(args, 3, "10000"));
+        int requests = Integer.parseInt(arg(args, 4, "200000"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        HttpRequest read = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/accounts/" + from)).GET().build();
+        HttpRequest transfer = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/payments?fromAccountId=" + from
+                        + "&toAccountId=" + to + "&amount=" + new BigDecimal("0.01")))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+
+        long[] latencies = new long[requests];
+        AtomicLong errors = new AtomicLong();
+        Semaphore window = new Semaphore(concurrency);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            window.acquire();
+            int index = i;
+            long sentAt = System.nanoTime();
+            futures[i] = client.sendAsync(i % 4 == 0 ? transfer : read, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies[index] = System.nanoTime() - sentAt;
+                        if (e != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        window.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("concurrency %d  %8.0f req/s  p50 %7.3f ms  p99 %7.3f ms  p99.9 %7.3f ms  errors %d%n",
+                concurrency, requests / (elapsed / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999), errors.get());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))] / 1e6;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index ? args[index] : defaultValue;
+    }
+}
@@ -0,0 +1,168 @@
+package com.restapi.demo.transaction.ingest;
+
+import com.restapi.demo.transaction.cluster.ClusterClient;
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class BinaryPaymentServerTest {
+
+    private PaymentService paymentService;
+    private ClusterTopology topology;
+    private ClusterClient clusterClient;
+    private BinaryPaymentServer server;
+    private int port;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        paymentService = Mockito.mock(PaymentService.class);
+        topology = Mockito.mock(ClusterTopology.class);
+        clusterClient = Mockito.mock(ClusterClient.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ClusterClient> clusterClientProvider = Mockito.mock(ObjectProvider.class);
+        when(clusterClientProvider.getObject()).thenReturn(clusterClient);
+        server = new BinaryPaymentServer(paymentService, topology, clusterClientProvider, port, 4, 1024, 64, 4096);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void server_shouldAnswerPipelinedRequestsByCorrelationId() throws Exception {
+        // Arrange
+        Payment payment = new Payment();
+        payment.setId(42L);
+        when(paymentService.makePayment(eq("1"), eq("2"), any())).thenReturn(payment);
+        when(paymentService.makePayment(eq("1"), eq("3"), any())).thenThrow(new InsufficientFundsException("no"));
+        int requests = 500;
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port))) {
+            // Act
+            ByteBuffer out = ByteBuffer.allocate(requests * BinaryPaymentProtocol.REQUEST_SIZE);
+            for (int i = 0; i < requests; i++) {
+                BinaryPaymentProtocol.encodeRequest(out, i, "1", i % 2 == 0 ? "2" : "3", 1050, 2);
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+
+            ByteBuffer in = ByteBuffer.allocate(requests * BinaryPaymentProtocol.RESPONSE_SIZE);
+            while (in.hasRemaining()) {
+                channel.read(in);
+            }
+            in.flip();
+
+            // Assert
+            Map<Long, Byte> statuses = new HashMap<>();
+            while (in.hasRemaining()) {
+                Assertions.assertEquals(BinaryPaymentProtocol.MAGIC, in.getShort());
+                Assertions.assertEquals(BinaryPaymentProtocol.VERSION, in.get());
+                Assertions.assertEquals(BinaryPaymentProtocol.TYPE_PAYMENT_RESPONSE, in.get());
+                long correlationId = in.getLong();
+                byte status = in.get();
+                in.position(in.position() + 3);
+                long paymentId = in.getLong();
+                statuses.put(correlationId, status);
+                Assertions.assertEquals(status == BinaryPaymentProtocol.STATUS_OK ? 42L : 0L, paymentId);
+            }
+            Assertions.assertEquals(requests, statuses.size());
+            for (long i = 0; i < requests; i++) {
+                byte expected = i % 2 == 0
+                        ? BinaryPaymentProtocol.STATUS_OK
+                        : BinaryPaymentProtocol.STATUS_INSUFFICIENT_FUNDS;
+                Assertions.assertEquals(expected, statuses.get(i));
+            }
+        }
+        Mockito.verify(paymentService, Mockito.times(requests / 2))
+                .makePayment("1", "2", new BigDecimal("10.50"));
+    }
+
+    @Test
+    public void server_shouldAnswerMalformed_whenAmountIsNotPositiveOrScaleIsNegative() throws Exception {
+        // Arrange
+        long[] amounts = {0, -1050, 1050};
+        int[] scales = {2, 2, -1};
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port))) {
+            // Act
+            ByteBuffer out = ByteBuffer.allocate(amounts.length * BinaryPaymentProtocol.REQUEST_SIZE);
+            for (int i = 0; i < amounts.length; i++) {
+                BinaryPaymentProtocol.encodeRequest(out, i, "1", "2", amounts[i], scales[i]);
+            }
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+
+            ByteBuffer in = ByteBuffer.allocate(amounts.length * BinaryPaymentProtocol.RESPONSE_SIZE);
+            while (in.hasRemaining()) {
+                channel.read(in);
+            }
+            in.flip();
+
+            // Assert
+            for (int i = 0; i < amounts.length; i++) {
+                Assertions.assertEquals(BinaryPaymentProtocol.STATUS_MALFORMED,
+                        in.get(i * BinaryPaymentProtocol.RESPONSE_SIZE + 12));
+            }
+        }
+        Mockito.verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    public void server_shouldHandPaymentToTheOwnerOfTheSendingAccount_whenItIsOwnedElsewhere() throws Exception {
+        // Arrange
+        Payment payment = new Payment();
+        payment.setId(7L);
+        when(topology.isOwnedElsewhere("9")).thenReturn(true);
+        when(topology.ownerOf("9")).thenReturn("node2");
+        when(clusterClient.makePayment("node2", "9", "2", new BigDecimal("10.50"))).thenReturn(payment);
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port))) {
+            // Act
+            ByteBuffer out = ByteBuffer.allocate(BinaryPaymentProtocol.REQUEST_SIZE);
+            BinaryPaymentProtocol.encodeRequest(out, 1, "9", "2", 1050, 2);
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+
+            ByteBuffer in = ByteBuffer.allocate(BinaryPaymentProtocol.RESPONSE_SIZE);
+            while (in.hasRemaining()) {
+                channel.read(in);
+            }
+
+            // Assert
+            Assertions.assertEquals(BinaryPaymentProtocol.STATUS_OK, in.get(12));
+            Assertions.assertEquals(7L, in.getLong(16));
+        }
+        Mockito.verifyNoInteractions(paymentService);
+    }
+}
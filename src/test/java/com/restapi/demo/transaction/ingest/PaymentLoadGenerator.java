@@ -0,0 +1,150 @@
+package com.restapi.demo.transaction.ingest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the same payment workload through the REST endpoint and the binary listener of a running instance and
+ * prints throughput and latency percentiles for both. Not a test; run it against a local instance started with
+ * {@code payments.binary.enabled=true}:
+ *
+ * <pre>
+ * java -cp target/test-classes com.restapi.demo.transaction.ingest.PaymentLoadGenerator \
+ *     [host] [restPort] [binaryPort] [fromAccountId] [toAccountId] [requests] [inFlight]
+ * </pre>
+ *
+ * The from account should hold enough funds for {@code requests} transfers of 0.01.
+ */
+public class PaymentLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        String host = arg(args, 0, "localhost");
+        int restPort = Integer.parseInt(arg(args, 1, "3000"));
+        int binaryPort = Integer.parseInt(arg(args, 2, "3100"));
+        String from = arg(args, 3, "1");
+        String to = arg(args, 4, "2");
+        int requests = Integer.parseInt(arg(args, 5, "20000"));
+        int inFlight = Integer.parseInt(arg(args, 6, "64"));
+
+        report("REST", runRest(host, restPort, from, to, requests, inFlight));
+        report("binary", runBinary(host, binaryPort, from, to, requests, inFlight));
+    }
+
+    private static Result runRest(String host, int port, String from, String to, int requests, int inFlight)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://" + host + ":" + port + "/v1/payments?fromAccountId=" + from
+                + "&toAccountId=" + to + "&amount=" + new BigDecimal("0.01"));
+        long[] latencies = new long[requests];
+        AtomicLong errors = new AtomicLong();
+        Semaphore window = new Semaphore(inFlight);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            window.acquire();
+            int index = i;
+            long sentAt = System.nanoTime();
+            HttpRequest request = HttpRequest.newBuilder(uri).POST(HttpRequest.BodyPublishers.noBody()).build();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+                latencies[index] = System.nanoTime() - sentAt;
+                if (e != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                }
+                window.release();
+            });
+        }
+        CompletableFuture.allOf(futures).join();
+        return new Result(System.nanoTime() - start, latencies, errors.get());
+    }
+
+    private static Result runBinary(String host, int port, String from, String to, int requests, int inFlight)
+            throws IOException, InterruptedException {
+        long[] sentAt = new long[requests];
+        long[] latencies = new long[requests];
+        AtomicLong errors = new AtomicLong();
+        Semaphore window = new Semaphore(inFlight);
+
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port))) {
+            Thread reader = new Thread(() -> {
+                ByteBuffer in = ByteBuffer.allocateDirect(BinaryPaymentProtocol.RESPONSE_SIZE * 1024);
+                int received = 0;
+                try {
+                    while (received < requests) {
+                        channel.read(in);
+                        in.flip();
+                        while (in.remaining() >= BinaryPaymentProtocol.RESPONSE_SIZE) {
+                            int correlationId = (int) in.getLong(in.position() + 4);
+                            if (in.get(in.position() + 12) != BinaryPaymentProtocol.STATUS_OK) {
+                                errors.incrementAndGet();
+                            }
+                            latencies[correlationId] = System.nanoTime() - sentAt[correlationId];
+                            in.position(in.position() + BinaryPaymentProtocol.RESPONSE_SIZE);
+                            received++;
+                            window.release();
+                        }
+                        in.compact();
+                    }
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            long start = System.nanoTime();
+            reader.start();
+            ByteBuffer out = ByteBuffer.allocateDirect(BinaryPaymentProtocol.REQUEST_SIZE);
+            for (int i = 0; i < requests; i++) {
+                window.acquire();
+                out.clear();
+                BinaryPaymentProtocol.encodeRequest(out, i, from, to, 1, 2);
+                out.flip();
+                sentAt[i] = System.nanoTime();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+            }
+            reader.join();
+            return new Result(System.nanoTime() - start, latencies, errors.get());
+        }
+    }
+
+    private static void report(String name, Result result) {
+        long[] sorted = result.latencies.clone();
+        Arrays.sort(sorted);
+        double seconds = result.elapsedNanos / 1e9;
+        System.out.printf("%-7s %8.0f req/s  p50 %7.3f ms  p99 %7.3f ms  p99.9 %7.3f ms  errors %d%n",
+                name, sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), result.errors);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))] / 1e6;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index ? args[index] : defaultValue;
+    }
+
+    private static final class Result {
+        final long elapsedNanos;
+        final long[] latencies;
+        final long errors;
+
+        Result(long elapsedNanos, long[] latencies, long errors) {
+            this.elapsedNanos = elapsedNanos;
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restapi.demo.transaction.controller.AccountController.DepositRequest;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the hand-written codecs with the ObjectMapper path Spring MVC would otherwise take, for a single account, a
+ * 50-entry history page and a deposit request body. Run the main method from the test classpath; the GC profiler
+ * reports the bytes allocated per operation as {@code gc.alloc.rate.norm}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private static final int HISTORY_PAGE_SIZE = 50;
+
+    private final OutputStream sink = StreamUtils.nonClosing(OutputStream.nullOutputStream());
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final JsonOutputPool outputPool = new JsonOutputPool(4096, 262144, 64);
+    private final AccountJsonCodec accountCodec = new AccountJsonCodec();
+    private final PaymentJsonCodec paymentCodec = new PaymentJsonCodec();
+    private final DepositRequestJsonCodec depositCodec = new DepositRequestJsonCodec();
+
+    private JsonFactory objectMapperFactory;
+    private ObjectWriter accountWriter;
+    private ObjectWriter historyWriter;
+    private ObjectReader depositReader;
+    private Account account;
+    private List<Payment> history;
+    private byte[] depositJson;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        objectMapperFactory = objectMapper.getFactory();
+        accountWriter = objectMapper.writerFor(Account.class);
+        historyWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, Payment.class));
+        depositReader = objectMapper.readerFor(DepositRequest.class);
+
+        account = new Account();
+        account.setId("4f0c9a52-7a3e-4c1e-9d59-2b8e4b0f6a11");
+        account.setOwner("Jane Example");
+        account.setBalance(new BigDecimal("15234.75"));
+
+        history = new ArrayList<>();
+        Instant now = Instant.parse("2024-03-01T10:15:30.123456Z");
+        for (int i = 0; i < HISTORY_PAGE_SIZE; i++) {
+            Payment payment = new Payment();
+            payment.setId(1_000_000L + i);
+            payment.setFromAccount(account.getId());
+            payment.setToAccount("9b2d7c1e-0f4a-4b8e-a3c6-5d1e2f3a4b5" + (i % 10));
+            payment.setAmount(BigDecimal.valueOf(1000 + i * 37L, 2));
+            payment.setCreatedAt(now.minusSeconds(i * 60L));
+            payment.setStatus(Payment.STATUS_COMPLETED);
+            payment.setDirection("OUTGOING");
+            history.add(payment);
+        }
+
+        depositJson = "{\"toAccountId\":\"9b2d7c1e-0f4a-4b8e-a3c6-5d1e2f3a4b50\",\"amount\":125.50}"
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void writeAccountObjectMapper() throws IOException {
+        writeWithObjectMapper(accountWriter, account);
+    }
+
+    @Benchmark
+    public void writeAccountPrecompiled() throws IOException {
+        JsonOutput output = outputPool.acquire();
+        accountCodec.write(account, output);
+        output.writeTo(sink);
+        outputPool.release(output);
+    }
+
+    @Benchmark
+    public void writeHistoryObjectMapper() throws IOException {
+        writeWithObjectMapper(historyWriter, history);
+    }
+
+    @Benchmark
+    public void writeHistoryPrecompiled() throws IOException {
+        JsonOutput output = outputPool.acquire();
+        output.raw('[');
+        for (int i = 0; i < history.size(); i++) {
+            if (i > 0) {
+                output.raw(',');
+            }
+            paymentCodec.write(history.get(i), output);
+        }
+        output.raw(']');
+        output.writeTo(sink);
+        outputPool.release(output);
+    }
+
+    @Benchmark
+    public DepositRequest readDepositObjectMapper() throws IOException {
+        return depositReader.readValue(depositJson);
+    }
+
+    @Benchmark
+    public DepositRequest readDepositPrecompiled() throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(depositJson)) {
+            parser.nextToken();
+            return depositCodec.read(parser);
+        }
+    }
+
+    /**
+     * Writes the way MappingJackson2HttpMessageConverter does: through a generator of the ObjectMapper's factory on a
+     * non-closing view of the response stream.
+     */
+    private void writeWithObjectMapper(ObjectWriter writer, Object value) throws IOException {
+        try (JsonGenerator generator = objectMapperFactory.createGenerator(sink, JsonEncoding.UTF8)) {
+            writer.writeValue(generator, value);
+            generator.flush();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(JsonCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,122 @@
+package com.restapi.demo.transaction.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.restapi.demo.transaction.controller.AccountController.DepositRequest;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.model.Payment;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+public class PrecompiledJsonHttpMessageConverterTest {
+
+    /** Configured like the ObjectMapper Spring Boot creates for Spring MVC. */
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private final PrecompiledJsonHttpMessageConverter converter =
+            new PrecompiledJsonHttpMessageConverter(16, 1024, 4);
+
+    @Test
+    public void write_shouldProduceSameBytesAsObjectMapper() throws Exception {
+        // Arrange
+        Account account = new Account();
+        account.setId("acc-1");
+        account.setOwner("Zoë \"Z\" O'Brien\n\t\u0001 € 😀 \\ a\uD800b \uDC00 \uD83D");
+        account.setBalance(new BigDecimal("1234567.80"));
+        account.setVersion(7L);
+
+        // Act
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(account, Account.class, MediaType.APPLICATION_JSON, output);
+
+        // Assert
+        Assertions.assertArrayEquals(objectMapper.writeValueAsBytes(account), output.getBodyAsBytes());
+        Assertions.assertEquals(output.getBodyAsBytes().length, output.getHeaders().getContentLength());
+    }
+
+    @Test
+    public void writeList_shouldProduceSameBytesAsObjectMapper() throws Exception {
+        // Arrange
+        Payment completed = payment(1L, "a", "b", "10.50", Instant.parse("2024-03-01T10:15:30.123456Z"));
+        completed.setStatus(Payment.STATUS_COMPLETED);
+        Payment deposit = payment(2L, null, "a", "1E+3", Instant.parse("2024-03-01T10:15:31Z"));
+        List<Payment> payments = List.of(completed, deposit);
+        Type listType = ResolvableType.forClassWithGenerics(List.class, Payment.class).getType();
+
+        // Act
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        Assertions.assertTrue(converter.canWrite(listType, List.class, MediaType.APPLICATION_JSON));
+        converter.write(payments, listType, MediaType.APPLICATION_JSON, output);
+
+        // Assert
+        byte[] expected = objectMapper.writerFor(objectMapper.constructType(listType)).writeValueAsBytes(payments);
+        Assertions.assertEquals(new String(expected, StandardCharsets.UTF_8), output.getBodyAsString());
+        Assertions.assertFalse(converter.canWrite(List.class, List.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    public void write_shouldFormatInstantsLikeObjectMapper() throws Exception {
+        for (String instant : List.of("1969-12-31T23:59:59.999999999Z", "2024-02-29T00:00:00.100Z",
+                "2038-01-19T03:14:08.000001Z", "0001-01-01T00:00:00Z", "+10000-01-01T00:00:00Z")) {
+            // Arrange
+            Payment payment = payment(1L, "a", "b", "1.00", Instant.parse(instant));
+
+            // Act
+            MockHttpOutputMessage output = new MockHttpOutputMessage();
+            converter.write(payment, Payment.class, MediaType.APPLICATION_JSON, output);
+
+            // Assert
+            Assertions.assertArrayEquals(objectMapper.writeValueAsBytes(payment), output.getBodyAsBytes(), instant);
+        }
+    }
+
+    @Test
+    public void read_shouldAcceptSameInputAsObjectMapper() throws Exception {
+        // Arrange
+        String json = "{\"unknown\":{\"nested\":[1,2]},\"amount\":\"12.30\",\"toAccountId\":\"b\",\"extra\":null}";
+
+        // Act
+        DepositRequest actual = (DepositRequest) converter.read(DepositRequest.class, null,
+                new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        DepositRequest expected = objectMapper.readValue(json, DepositRequest.class);
+        Assertions.assertEquals(expected.getToAccountId(), actual.getToAccountId());
+        Assertions.assertEquals(expected.getAmount(), actual.getAmount());
+    }
+
+    @Test
+    public void read_shouldRejectMalformedInput() {
+        // Arrange
+        MockHttpInputMessage input = new MockHttpInputMessage("{\"amount\":[1]}".getBytes(StandardCharsets.UTF_8));
+
+        // Act & Assert
+        Assertions.assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(DepositRequest.class, null, input));
+    }
+
+    private static Payment payment(Long id, String from, String to, String amount, Instant createdAt) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setFromAccount(from);
+        payment.setToAccount(to);
+        payment.setAmount(new BigDecimal(amount));
+        payment.setCreatedAt(createdAt);
+        payment.setDirection("incoming");
+        return payment;
+    }
+}
@@ -0,0 +1,86 @@
+package com.restapi.demo.transaction.limit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void onSample_shouldGrowWhileLatencyIsStableAndShrinkWhenItRises() {
+        // Arrange
+        GradientLimit limit = new GradientLimit(20, 4, 200, 2.0, 0.5, 0.9, 10, 100);
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(10 * MILLISECOND, limit.getLimit(), false);
+        }
+        int grown = limit.getLimit();
+
+        // Act
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(100 * MILLISECOND, limit.getLimit(), false);
+        }
+
+        // Assert
+        Assertions.assertTrue(grown > 20, "grown to " + grown);
+        Assertions.assertTrue(limit.getLimit() < grown / 2, "shrunk to " + limit.getLimit());
+    }
+
+    @Test
+    public void tryAcquire_shouldRejectWithoutWaiting_whenLimitIsReachedAndQueueIsFull() {
+        // Arrange
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(fixedLimit(1), 0, 1000, 1, 1);
+        limiter.tryAcquire(ConcurrencyLimiter.Lane.WRITE);
+
+        // Act
+        boolean write = limiter.tryAcquire(ConcurrencyLimiter.Lane.WRITE);
+        boolean read = limiter.tryAcquire(ConcurrencyLimiter.Lane.READ);
+
+        // Assert
+        Assertions.assertFalse(write);
+        Assertions.assertFalse(read);
+        ConcurrencyLimitStats stats = limiter.getStats();
+        Assertions.assertEquals(1, stats.getInFlight());
+        Assertions.assertEquals(1, stats.getWrites().getRejected());
+        Assertions.assertEquals(1, stats.getReads().getRejected());
+    }
+
+    @Test
+    public void release_shouldHandSlotToWaitingWriteBeforeWaitingRead() throws Exception {
+        // Arrange
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(fixedLimit(1), 10, 10_000, 10, 10_000);
+        limiter.tryAcquire(ConcurrencyLimiter.Lane.WRITE);
+        CompletableFuture<Boolean> read = CompletableFuture.supplyAsync(
+                () -> limiter.tryAcquire(ConcurrencyLimiter.Lane.READ));
+        awaitTrue(() -> limiter.getStats().getReads().getQueued() == 1);
+        CompletableFuture<Boolean> write = CompletableFuture.supplyAsync(
+                () -> limiter.tryAcquire(ConcurrencyLimiter.Lane.WRITE));
+        awaitTrue(() -> limiter.getStats().getWrites().getQueued() == 1);
+
+        // Act
+        limiter.release(MILLISECOND, false);
+
+        // Assert
+        Assertions.assertTrue(write.get(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(read.isDone());
+        limiter.release(MILLISECOND, false);
+        Assertions.assertTrue(read.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, limiter.getStats().getReads().getAdmittedAfterWait());
+    }
+
+    private static GradientLimit fixedLimit(int limit) {
+        return new GradientLimit(limit, limit, limit, 2.0, 0.2, 0.9, 1000, 100);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "timed out waiting");
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.restapi.demo.transaction.reactive;
+
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.service.PaymentHistoryService;
+import io.r2dbc.h2.CloseableConnectionFactory;
+import io.r2dbc.h2.H2ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.support.R2dbcRepositoryFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class ReactivePaymentServiceTest {
+
+    private CloseableConnectionFactory connectionFactory;
+    private ReactiveAccountRepository accountRepository;
+    private ReactivePaymentRepository paymentRepository;
+    private ReactivePaymentService paymentService;
+
+    @BeforeEach
+    public void setUp() {
+        connectionFactory = H2ConnectionFactory.inMemory(UUID.randomUUID().toString());
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        client.sql("CREATE TABLE accounts (id VARCHAR(64) PRIMARY KEY, owner VARCHAR(255) NOT NULL, "
+                + "balance DECIMAL(19, 2) NOT NULL, version BIGINT NOT NULL DEFAULT 0)").then().block();
+        client.sql("CREATE TABLE payments (id BIGINT AUTO_INCREMENT PRIMARY KEY, from_account VARCHAR(64), "
+                + "to_account VARCHAR(64), amount DECIMAL(19, 2) NOT NULL, direction VARCHAR(16), "
+                + "status VARCHAR(16), created_at TIMESTAMP NOT NULL)").then().block();
+
+        R2dbcRepositoryFactory factory = new R2dbcRepositoryFactory(new R2dbcEntityTemplate(connectionFactory));
+        accountRepository = factory.getRepository(ReactiveAccountRepository.class);
+        paymentRepository = factory.getRepository(ReactivePaymentRepository.class);
+        paymentService = new ReactivePaymentService(accountRepository, paymentRepository,
+                Mockito.mock(PaymentHistoryService.class),
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)),
+                new ClusterTopology(false, "node1", "", 128));
+
+        insertAccount("1", "100.00");
+        insertAccount("2", "50.00");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        connectionFactory.close();
+    }
+
+    @Test
+    public void makePayment_shouldMoveFundsAndRecordPayment() {
+        // Act
+        Payment payment = paymentService.makePayment("1", "2", new BigDecimal("30.00")).block();
+
+        // Assert
+        Assertions.assertNotNull(payment);
+        Assertions.assertNotNull(payment.getId());
+        Assertions.assertEquals(Payment.STATUS_COMPLETED, payment.getStatus());
+        Assertions.assertEquals(0, new BigDecimal("70.00").compareTo(balanceOf("1")));
+        Assertions.assertEquals(0, new BigDecimal("80.00").compareTo(balanceOf("2")));
+        Assertions.assertEquals(1L, paymentRepository.count().block());
+    }
+
+    @Test
+    public void makePayment_whenInsufficientFunds_shouldLeaveBalancesUnchanged() {
+        // Act & Assert
+        Assertions.assertThrows(InsufficientFundsException.class,
+                () -> paymentService.makePayment("2", "1", new BigDecimal("80.00")).block());
+        Assertions.assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf("1")));
+        Assertions.assertEquals(0, new BigDecimal("50.00").compareTo(balanceOf("2")));
+        Assertions.assertEquals(0L, paymentRepository.count().block());
+    }
+
+    @Test
+    public void makePayment_whenReceiverMissing_shouldNotDebitSender() {
+        // Act & Assert
+        Assertions.assertThrows(AccountNotFoundException.class,
+                () -> paymentService.makePayment("1", "3", new BigDecimal("10.00")).block());
+        Assertions.assertEquals(0, new BigDecimal("100.00").compareTo(balanceOf("1")));
+        Assertions.assertEquals(0L, paymentRepository.count().block());
+    }
+
+    private void insertAccount(String id, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setOwner("Owner " + id);
+        account.setBalance(new BigDecimal(balance));
+        accountRepository.save(AccountRow.newRow(account)).block();
+    }
+
+    private BigDecimal balanceOf(String id) {
+        return accountRepository.findById(id).map(AccountRow::getBalance).block();
+    }
+}
@@ -0,0 +1,56 @@
+package com.restapi.demo.transaction.reconciliation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class AccountFlowMapTest {
+
+    @Test
+    public void add_shouldAccumulateAndMerge() {
+        // Arrange
+        AccountFlowMap left = new AccountFlowMap();
+        AccountFlowMap right = new AccountFlowMap();
+
+        // Act
+        left.add("1", -100);
+        left.add("2", 100);
+        right.add("2", 50);
+        right.add("3", -50);
+        left.mergeFrom(right);
+
+        // Assert
+        Assertions.assertEquals(-100, left.get("1"));
+        Assertions.assertEquals(150, left.get("2"));
+        Assertions.assertEquals(-50, left.get("3"));
+        Assertions.assertEquals(0, left.get("4"));
+        Assertions.assertEquals(3, left.size());
+    }
+
+    @Test
+    public void remove_shouldKeepOtherEntriesReachable() {
+        // Arrange
+        AccountFlowMap map = new AccountFlowMap(4);
+        Map<String, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            String accountId = Integer.toString(random.nextInt(2_000));
+            map.add(accountId, i);
+            expected.merge(accountId, (long) i, Long::sum);
+        }
+
+        // Act
+        for (int i = 0; i < 2_000; i += 3) {
+            String accountId = Integer.toString(i);
+            Assertions.assertEquals(expected.getOrDefault(accountId, 0L), map.remove(accountId));
+            expected.remove(accountId);
+        }
+
+        // Assert
+        Assertions.assertEquals(expected.size(), map.size());
+        expected.forEach((accountId, value) -> Assertions.assertEquals(value, map.get(accountId)));
+    }
+}
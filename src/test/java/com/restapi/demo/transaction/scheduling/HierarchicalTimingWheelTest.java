@@ -0,0 +1,78 @@
+package com.restapi.demo.transaction.scheduling;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HierarchicalTimingWheelTest {
+
+    @Test
+    public void advance_shouldExpireTasksOnTimeAcrossLevels() {
+        // Arrange
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 3, 3, 0);
+        Random random = new Random(7);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            long deadline = 1 + random.nextInt((int) wheel.getHorizonMillis() - 1);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        // Act & Assert
+        for (long now = 0; now <= wheel.getHorizonMillis(); now += 10) {
+            long time = now;
+            wheel.advance(now, deadline -> {
+                Assertions.assertTrue(deadline <= time, "expired early");
+                Assertions.assertTrue(deadline > time - 10, "expired late");
+                deadlines.remove(deadline);
+            });
+        }
+        Assertions.assertTrue(deadlines.isEmpty());
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancel_shouldPreventExpiry() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 9, 3, 0);
+        HierarchicalTimingWheel.Timeout<String> kept = wheel.schedule("kept", 60_000);
+        HierarchicalTimingWheel.Timeout<String> cancelled = wheel.schedule("cancelled", 60_000);
+        List<String> expired = new ArrayList<>();
+
+        // Act
+        Assertions.assertTrue(cancelled.cancel());
+        wheel.advance(120_000, expired::add);
+
+        // Assert
+        Assertions.assertEquals(List.of("kept"), expired);
+        Assertions.assertFalse(cancelled.cancel());
+        Assertions.assertFalse(kept.cancel());
+    }
+
+    @Test
+    public void schedule_shouldExpireOverdueTasksOnNextTick() {
+        // Arrange
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 9, 3, 10_000);
+        List<String> expired = new ArrayList<>();
+
+        // Act
+        wheel.schedule("overdue", 0);
+        wheel.advance(10_000, expired::add);
+        Assertions.assertTrue(expired.isEmpty());
+        wheel.advance(10_100, expired::add);
+
+        // Assert
+        Assertions.assertEquals(List.of("overdue"), expired);
+    }
+
+    @Test
+    public void schedule_shouldRejectDeadlinesBeyondHorizon() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 9, 2, 0);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () ->
+                wheel.schedule("too far", wheel.getHorizonMillis() + 100 * 512));
+    }
+}
@@ -0,0 +1,85 @@
+package com.restapi.demo.transaction.scheduling;
+
+import com.restapi.demo.transaction.cluster.ClusterClient;
+import com.restapi.demo.transaction.cluster.ClusterTopology;
+import com.restapi.demo.transaction.model.ScheduledPayment;
+import com.restapi.demo.transaction.repository.ScheduledPaymentRepository;
+import com.restapi.demo.transaction.service.PaymentService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ScheduledPaymentExecutorTest {
+
+    private ScheduledPaymentRepository scheduledPaymentRepository;
+    private PaymentService paymentService;
+    private ClusterTopology clusterTopology;
+    private ClusterClient clusterClient;
+    private ScheduledPaymentExecutor executor;
+    private ScheduledPayment schedule;
+
+    @BeforeEach
+    public void setUp() {
+        scheduledPaymentRepository = Mockito.mock(ScheduledPaymentRepository.class);
+        paymentService = Mockito.mock(PaymentService.class);
+        clusterTopology = Mockito.mock(ClusterTopology.class);
+        clusterClient = Mockito.mock(ClusterClient.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<ClusterClient> clusterClientProvider = Mockito.mock(ObjectProvider.class);
+        when(clusterClientProvider.getObject()).thenReturn(clusterClient);
+        executor = new ScheduledPaymentExecutor(scheduledPaymentRepository, paymentService, clusterTopology,
+                clusterClientProvider, Mockito.mock(PlatformTransactionManager.class));
+
+        schedule = new ScheduledPayment();
+        schedule.setId(5L);
+        schedule.setFromAccount("1");
+        schedule.setToAccount("2");
+        schedule.setAmount(new BigDecimal("10.00"));
+        schedule.setStatus(ScheduledPayment.STATUS_ACTIVE);
+        schedule.setNextExecutionAt(Instant.now().minusSeconds(1));
+        when(scheduledPaymentRepository.findByIdForUpdate(5L)).thenReturn(Optional.of(schedule));
+        when(clusterTopology.isOwnedElsewhere("1")).thenReturn(true);
+        when(clusterTopology.ownerOf("1")).thenReturn("node2");
+    }
+
+    @Test
+    public void execute_shouldHandTheScheduleToTheOwnerOfTheSendingAccount_whenItIsOwnedElsewhere() throws Exception {
+        // Arrange
+        when(clusterClient.requestScheduledPayment("node2", 5L)).thenReturn(200);
+
+        // Act
+        Instant next = executor.execute(5L);
+
+        // Assert
+        Assertions.assertNull(next);
+        verify(clusterClient).requestScheduledPayment("node2", 5L);
+        verify(paymentService, never()).makePayment(anyString(), anyString(), any());
+        Assertions.assertEquals(ScheduledPayment.STATUS_ACTIVE, schedule.getStatus());
+    }
+
+    @Test
+    public void executeHandedOver_shouldExecuteTheSchedule_evenIfThisNodeDoesNotOwnTheSendingAccount() throws Exception {
+        // Act
+        Instant next = executor.executeHandedOver(5L);
+
+        // Assert
+        Assertions.assertNull(next);
+        verify(paymentService).makePayment("1", "2", new BigDecimal("10.00"));
+        verify(clusterClient, never()).requestScheduledPayment(anyString(), anyLong());
+        Assertions.assertEquals(ScheduledPayment.STATUS_COMPLETED, schedule.getStatus());
+    }
+}
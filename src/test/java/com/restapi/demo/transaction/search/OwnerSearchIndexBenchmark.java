@@ -0,0 +1,87 @@
+package com.restapi.demo.transaction.search;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds an {@link OwnerTrigramIndex} over generated owners and prints the build time, the heap it takes and the
+ * latency of prefix and substring searches. Not a test; run with enough heap for the index, e.g.:
+ *
+ * <pre>
+ * java -Xmx4g -cp target/classes:target/test-classes \
+ *     com.restapi.demo.transaction.search.OwnerSearchIndexBenchmark [accounts] [queries]
+ * </pre>
+ *
+ * Owners are a first name and a last name picked at random, plus a number for a quarter of them, and IDs look like
+ * {@code acc-00001234}.
+ */
+public class OwnerSearchIndexBenchmark {
+
+    private static final String[] FIRST_NAMES = {
+            "Anna", "Maria", "Johan", "Erik", "Lars", "Karin", "Sofia", "Anders", "Per", "Eva", "Nils", "Ingrid",
+            "Mohammed", "Fatima", "Ali", "Leila", "Chen", "Wei", "Yuki", "Hiro", "Olga", "Ivan", "Pierre", "Claire",
+            "Giulia", "Marco", "Lucia", "Pablo", "Carmen", "Hans", "Greta", "Liam", "Emma", "Noah", "Olivia", "Ava",
+            "Lucas", "Mia", "Ethan", "Zoe", "Amir", "Sara", "Tomas", "Elin", "Oskar", "Freja", "Hugo", "Alma"};
+    private static final String[] LAST_NAMES = {
+            "Andersson", "Johansson", "Karlsson", "Nilsson", "Eriksson", "Larsson", "Olsson", "Persson", "Svensson",
+            "Gustafsson", "Pettersson", "Jonsson", "Jansson", "Hansson", "Bengtsson", "Lindberg", "Lindqvist",
+            "Berg", "Holm", "Lund", "Smith", "Johnson", "Williams", "Brown", "Garcia", "Martinez", "Rossi", "Russo",
+            "Müller", "Schmidt", "Schneider", "Dubois", "Moreau", "Nakamura", "Tanaka", "Wang", "Li", "Zhang", "Kim",
+            "Park", "Nguyen", "Tran", "Kowalski", "Nowak", "Novak", "Horvat", "Ivanov", "Petrov", "Haddad", "Khan"};
+
+    public static void main(String[] args) {
+        int accounts = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        SplittableRandom random = new SplittableRandom(7);
+
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+        OwnerTrigramIndex index = new OwnerTrigramIndex();
+        for (int i = 0; i < accounts; i++) {
+            index.put(String.format("acc-%08d", i), owner(random));
+        }
+        index.trimToSize();
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+        long heapAfter = usedHeap();
+        System.out.printf("accounts %d  trigrams %d  build %d ms  heap %d MB  estimated %d MB%n", index.size(),
+                index.trigrams(), buildMillis, (heapAfter - heapBefore) >> 20, index.estimatedBytes() >> 20);
+
+        run("prefix   ", index, random, queries, true);
+        run("substring", index, random, queries, false);
+    }
+
+    private static void run(String name, OwnerTrigramIndex index, SplittableRandom random, int queries,
+                            boolean prefix) {
+        long[] latencies = new long[queries];
+        long matches = 0;
+        for (int i = 0; i < queries; i++) {
+            String owner = OwnerTrigramIndex.normalize(owner(random));
+            int length = 3 + random.nextInt(4);
+            int from = prefix ? 0 : random.nextInt(Math.max(1, owner.length() - length));
+            String query = owner.substring(from, Math.min(owner.length(), from + length));
+            long start = System.nanoTime();
+            List<String> result = index.search(query, prefix, 50);
+            latencies[i] = System.nanoTime() - start;
+            matches += result.size();
+        }
+        Arrays.sort(latencies);
+        System.out.printf("%s  queries %d  avg matches %.1f  p50 %.3f ms  p99 %.3f ms  max %.3f ms%n", name, queries,
+                (double) matches / queries, latencies[queries / 2] / 1e6, latencies[(int) (queries * 0.99)] / 1e6,
+                latencies[queries - 1] / 1e6);
+    }
+
+    private static String owner(SplittableRandom random) {
+        String owner = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return random.nextInt(4) == 0 ? owner + " " + random.nextInt(100_000) : owner;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,111 @@
+package com.restapi.demo.transaction.search;
+
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import com.restapi.demo.transaction.repository.LedgerScanRepository.AccountOwner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+public class OwnerTrigramIndexTest {
+
+    @Test
+    public void search_shouldMatchPrefixesAndSubstringsIgnoringCase() {
+        // Arrange
+        OwnerTrigramIndex index = new OwnerTrigramIndex();
+        index.put("1", "Anna Berg");
+        index.put("2", "Joanna Lind");
+        index.put("3", "Bernard Ann");
+
+        // Act
+        List<String> substring = index.search("ANN", false, 10);
+        List<String> prefix = index.search("an", true, 10);
+        List<String> shortPrefix = index.search("b", true, 10);
+
+        // Assert
+        Assertions.assertEquals(List.of("1", "2", "3"), substring);
+        Assertions.assertEquals(List.of("1"), prefix);
+        Assertions.assertEquals(List.of("3"), shortPrefix);
+    }
+
+    @Test
+    public void copyTo_shouldKeepOnlyLiveEntries_whenOwnersWereChangedAndRemoved() {
+        // Arrange
+        OwnerTrigramIndex index = new OwnerTrigramIndex();
+        index.put("1", "Anna Berg");
+        index.put("2", "Joanna Lind");
+        index.put("1", "Maria Berg");
+        index.remove("2");
+        OwnerTrigramIndex compacted = new OwnerTrigramIndex();
+
+        // Act
+        index.copyTo(compacted, 0, index.ordinals());
+
+        // Assert
+        Assertions.assertEquals(2.0 / 3, index.tombstoneRatio());
+        Assertions.assertEquals(1, compacted.ordinals());
+        Assertions.assertEquals(List.of(), compacted.search("anna", false, 10));
+        Assertions.assertEquals(List.of("1"), compacted.search("berg", false, 10));
+        Assertions.assertEquals(List.of("1"), compacted.search("maria", true, 10));
+    }
+
+    @Test
+    public void onOwnerChanged_shouldReplayChangesMadeWhileTheIndexIsBuilt() throws InterruptedException {
+        // Arrange
+        LedgerScanRepository scanRepository = Mockito.mock(LedgerScanRepository.class);
+        AccountOwnerIndex ownerIndex = new AccountOwnerIndex(scanRepository, true, false, 2, 0.25);
+        when(scanRepository.findAccountOwnersAfter(eq(""), anyInt())).thenAnswer(invocation -> {
+            // Committed while the first chunk is read, and too late to be in the second one
+            ownerIndex.onOwnerChanged(new AccountOwnerChangedEvent("b"));
+            ownerIndex.onOwnerChanged(new AccountOwnerChangedEvent("c"));
+            return List.of(new AccountOwner("a", "Anna Berg"), new AccountOwner("b", "Bo Berg"));
+        });
+        when(scanRepository.findAccountOwnersAfter(eq("b"), anyInt()))
+                .thenReturn(List.of(new AccountOwner("c", "Cecilia Berg")));
+        when(scanRepository.findAccountOwners(List.of("b", "c"))).thenReturn(Map.of("b", "Carl Olsen"));
+
+        // Act
+        ownerIndex.buildOnStartup();
+
+        // Assert
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ownerIndex.search("berg", false, 10) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Assertions.assertEquals(List.of("a"), ownerIndex.search("berg", false, 10));
+        Assertions.assertEquals(List.of("b"), ownerIndex.search("carl", true, 10));
+        ownerIndex.destroy();
+    }
+
+    @Test
+    public void onOwnerChanged_shouldKeepTheCurrentOwner_whenEventsArriveOutOfCommitOrder() throws InterruptedException {
+        // Arrange
+        LedgerScanRepository scanRepository = Mockito.mock(LedgerScanRepository.class);
+        AccountOwnerIndex ownerIndex = new AccountOwnerIndex(scanRepository, true, false, 2, 0.25);
+        when(scanRepository.findAccountOwnersAfter(eq(""), anyInt()))
+                .thenReturn(List.of(new AccountOwner("a", "Anna Berg")));
+        ownerIndex.buildOnStartup();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ownerIndex.search("berg", false, 10) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        // Two updates committed, renaming the account to Bo Lind and then to Carl Olsen
+        when(scanRepository.findAccountOwners(List.of("a"))).thenReturn(Map.of("a", "Carl Olsen"));
+
+        // Act: the event of the second update is handled first
+        ownerIndex.onOwnerChanged(new AccountOwnerChangedEvent("a"));
+        ownerIndex.onOwnerChanged(new AccountOwnerChangedEvent("a"));
+
+        // Assert
+        Assertions.assertEquals(List.of("a"), ownerIndex.search("carl", true, 10));
+        Assertions.assertEquals(List.of(), ownerIndex.search("lind", false, 10));
+        Assertions.assertEquals(List.of(), ownerIndex.search("berg", false, 10));
+        ownerIndex.destroy();
+    }
+}
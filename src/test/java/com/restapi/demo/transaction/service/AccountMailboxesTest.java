@@ -0,0 +1,129 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.exception.InsufficientFundsException;
+import com.restapi.demo.transaction.model.Account;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.AccountRepository;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AccountMailboxesTest {
+
+    private AccountRepository accountRepository;
+    private PaymentRepository paymentRepository;
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        accountRepository = Mockito.mock(AccountRepository.class);
+        paymentRepository = Mockito.mock(PaymentRepository.class);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void submit_shouldApplyQueuedOperationsWithOneAccountUpdate() {
+        // Arrange
+        Account account = account("1", "100");
+        when(accountRepository.findByIdForUpdate("1")).thenReturn(Optional.of(account));
+        AccountMailboxes mailboxes = mailboxes(60_000);
+        CompletableFuture<Payment> deposit = mailboxes.submit("1", change("10"));
+        CompletableFuture<Payment> withdrawal = mailboxes.submit("1", change("-30"));
+        CompletableFuture<Payment> overdraft = mailboxes.submit("1", change("-200"));
+        CompletableFuture<Payment> lastDeposit = mailboxes.submit("1", change("5"));
+
+        // Act
+        runTasks();
+
+        // Assert
+        Assertions.assertEquals(0, new BigDecimal("85").compareTo(account.getBalance()));
+        verify(accountRepository, times(1)).findByIdForUpdate("1");
+        verify(accountRepository, times(1)).save(account);
+        verify(paymentRepository, times(3)).save(any(Payment.class));
+        Assertions.assertNotNull(deposit.join());
+        Assertions.assertNotNull(withdrawal.join());
+        Assertions.assertNotNull(lastDeposit.join());
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, overdraft::join);
+        Assertions.assertInstanceOf(InsufficientFundsException.class, failure.getCause());
+    }
+
+    @Test
+    public void submit_shouldOnlyFailRefusedOperation_whenBatchTransactionFails() {
+        // Arrange
+        when(accountRepository.findByIdForUpdate("1")).thenAnswer(invocation -> Optional.of(account("1", "100")));
+        when(paymentRepository.save(Mockito.argThat(payment -> payment.getAmount().intValue() == 7)))
+                .thenThrow(new IllegalStateException("Refused"));
+        AccountMailboxes mailboxes = mailboxes(60_000);
+        CompletableFuture<Payment> first = mailboxes.submit("1", change("10"));
+        CompletableFuture<Payment> refused = mailboxes.submit("1", change("7"));
+        CompletableFuture<Payment> last = mailboxes.submit("1", change("5"));
+
+        // Act
+        runTasks();
+
+        // Assert
+        Assertions.assertNotNull(first.join());
+        Assertions.assertNotNull(last.join());
+        CompletionException failure = Assertions.assertThrows(CompletionException.class, refused::join);
+        Assertions.assertEquals("Refused", failure.getCause().getMessage());
+    }
+
+    @Test
+    public void reclaimIdleMailboxes_shouldOnlyDropMailboxesWithNothingPending() throws InterruptedException {
+        // Arrange
+        when(accountRepository.findByIdForUpdate(any())).thenReturn(Optional.of(account("1", "100")));
+        AccountMailboxes mailboxes = mailboxes(0);
+        mailboxes.submit("1", change("10"));
+        runTasks();
+        CompletableFuture<Payment> queued = mailboxes.submit("2", change("10"));
+        Thread.sleep(5);
+
+        // Act
+        mailboxes.reclaimIdleMailboxes();
+
+        // Assert
+        Assertions.assertEquals(1, mailboxes.size());
+        runTasks();
+        Assertions.assertNotNull(queued.join());
+    }
+
+    private AccountMailboxes mailboxes(long idleMillis) {
+        return new AccountMailboxes(accountRepository, paymentRepository,
+                Mockito.mock(PlatformTransactionManager.class), tasks::add, 64, idleMillis);
+    }
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+
+    private static AccountMailboxes.Operation change(String delta) {
+        Payment payment = new Payment();
+        payment.setAmount(new BigDecimal(delta).abs());
+        return AccountMailboxes.Operation.insert(new BigDecimal(delta), payment,
+                () -> new IllegalStateException("Account not found"), "Insufficient funds");
+    }
+
+    private static Account account(String id, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setBalance(new BigDecimal(balance));
+        return account;
+    }
+}
@@ -0,0 +1,149 @@
+package com.restapi.demo.transaction.service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sends balance updates with a skewed choice of accounts to a running instance and prints throughput, latency
+ * percentiles and the responses by status, for comparing the account locks with {@code accounts.mailboxes.enabled=true}.
+ * Not a test; start the instance once in each mode and run:
+ *
+ * <pre>
+ * java -cp target/test-classes com.restapi.demo.transaction.service.AccountMutationLoadGenerator \
+ *     [baseUrl] [accounts] [skew] [concurrency] [requests]
+ * </pre>
+ *
+ * The first run creates accounts {@code load-0} to {@code load-<accounts - 1>} with a large balance; later runs find
+ * them in place. Accounts are picked from a Zipf distribution with the given exponent, so with the default of 1.1
+ * the first few accounts receive a large share of all updates. Requests are split into transfers between two such
+ * accounts, deposits and withdrawals of 0.01.
+ */
+public class AccountMutationLoadGenerator {
+
+    private static final String INITIAL_BALANCE = "1000000000.00";
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = arg(args, 0, "http://localhost:3000");
+        int accounts = Integer.parseInt(arg(args, 1, "1000"));
+        double skew = Double.parseDouble(arg(args, 2, "1.1"));
+        int concurrency = Integer.parseInt(arg(args, 3, "200"));
+        int requests = Integer.parseInt(arg(args, 4, "100000"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        createMissingAccounts(client, baseUrl, accounts);
+
+        double[] cumulative = zipf(accounts, skew);
+        SplittableRandom random = new SplittableRandom(42);
+        long[] latencies = new long[requests];
+        Map<Integer, Integer> statuses = new TreeMap<>();
+        Semaphore window = new Semaphore(concurrency);
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            HttpRequest request = nextRequest(baseUrl, random, cumulative);
+            window.acquire();
+            int index = i;
+            long sentAt = System.nanoTime();
+            futures[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        latencies[index] = System.nanoTime() - sentAt;
+                        synchronized (statuses) {
+                            statuses.merge(e != null ? -1 : response.statusCode(), 1, Integer::sum);
+                        }
+                        window.release();
+                    });
+        }
+        CompletableFuture.allOf(futures).exceptionally(e -> null).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("accounts %d  skew %.2f  concurrency %d  %8.0f req/s  p50 %7.3f ms  p99 %7.3f ms  "
+                        + "p99.9 %7.3f ms  statuses %s%n",
+                accounts, skew, concurrency, requests / (elapsed / 1e9),
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999), statuses);
+    }
+
+    private static HttpRequest nextRequest(String baseUrl, SplittableRandom random, double[] cumulative) {
+        String account = "load-" + pick(random, cumulative);
+        int kind = random.nextInt(10);
+        if (kind < 4) {
+            String other = "load-" + pick(random, cumulative);
+            while (other.equals(account)) {
+                other = "load-" + random.nextInt(cumulative.length);
+            }
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/v1/payments?fromAccountId=" + account
+                            + "&toAccountId=" + other + "&amount=0.01"))
+                    .POST(HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+        if (kind < 7) {
+            // An unknown sending account makes this a plain deposit
+            return json(baseUrl + "/v1/accounts/external/deposit",
+                    "{\"toAccountId\":\"" + account + "\",\"amount\":0.01}");
+        }
+        return json(baseUrl + "/v1/accounts/" + account + "/withdraw", "{\"amount\":0.01}");
+    }
+
+    private static void createMissingAccounts(HttpClient client, String baseUrl, int accounts) throws Exception {
+        for (int i = 0; i < accounts; i++) {
+            String id = "load-" + i;
+            HttpResponse<Void> existing = client.send(
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/v1/accounts/" + id)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (existing.statusCode() == 404) {
+                client.send(json(baseUrl + "/v1/accounts",
+                                "{\"id\":\"" + id + "\",\"owner\":\"load\",\"balance\":" + INITIAL_BALANCE + "}"),
+                        HttpResponse.BodyHandlers.discarding());
+            }
+        }
+    }
+
+    private static HttpRequest json(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /**
+     * Returns the cumulative probabilities of a Zipf distribution over the given number of ranks.
+     */
+    private static double[] zipf(int ranks, double exponent) {
+        double[] cumulative = new double[ranks];
+        double sum = 0;
+        for (int i = 0; i < ranks; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < ranks; i++) {
+            cumulative[i] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int pick(SplittableRandom random, double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(cumulative.length - 1, index < 0 ? -index - 1 : index);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))] / 1e6;
+    }
+
+    private static String arg(String[] args, int index, String defaultValue) {
+        return args.length > index ? args[index] : defaultValue;
+    }
+}
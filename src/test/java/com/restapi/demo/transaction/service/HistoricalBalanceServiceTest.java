@@ -0,0 +1,87 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.archive.PaymentArchiveStore;
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository;
+import com.restapi.demo.transaction.repository.BalanceCheckpointRepository.BalanceCheckpoint;
+import com.restapi.demo.transaction.repository.LedgerScanRepository;
+import com.restapi.demo.transaction.service.HistoricalBalanceService.HistoricalBalance;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class HistoricalBalanceServiceTest {
+
+    private LedgerScanRepository scanRepository;
+    private BalanceCheckpointRepository checkpointRepository;
+    private HistoricalBalanceService service;
+
+    @BeforeEach
+    public void setUp() {
+        scanRepository = Mockito.mock(LedgerScanRepository.class);
+        checkpointRepository = Mockito.mock(BalanceCheckpointRepository.class);
+        PaymentArchiveStore archiveStore = Mockito.mock(PaymentArchiveStore.class);
+        when(archiveStore.readersNewestFirst()).thenReturn(List.of());
+        service = new HistoricalBalanceService(scanRepository, checkpointRepository, archiveStore);
+    }
+
+    @Test
+    public void getBalanceAt_shouldApplyPaymentsFromTheNearestCheckpoint() {
+        // Arrange
+        Instant at = Instant.now().minus(10, ChronoUnit.DAYS).truncatedTo(ChronoUnit.MICROS);
+        Instant before = at.minus(1, ChronoUnit.DAYS);
+        Instant after = at.plus(2, ChronoUnit.HOURS);
+        when(checkpointRepository.findLatestAtOrBefore("1", at))
+                .thenReturn(new BalanceCheckpoint("1", before, new BigDecimal("100.00"), 4));
+        when(checkpointRepository.findEarliestAfter("1", at))
+                .thenReturn(new BalanceCheckpoint("1", after, new BigDecimal("150.00"), 6));
+        when(scanRepository.findBalance("1")).thenReturn(new BigDecimal("900.00"));
+        when(scanRepository.sumNetFlowBetween("1", at, after)).thenReturn(new BigDecimal("-20.00"));
+
+        // Act
+        HistoricalBalance balance = service.getBalanceAt("1", at);
+
+        // Assert
+        Assertions.assertEquals(new BigDecimal("170.00"), balance.getBalance());
+        Assertions.assertEquals(after, balance.getCheckpointTakenAt());
+        verify(scanRepository, never()).sumNetFlowBetween("1", before, at);
+        verify(scanRepository, never()).sumNetFlowsAfter(any(), any());
+    }
+
+    @Test
+    public void getBalanceAt_shouldStartFromTheCurrentBalance_whenItIsNearerThanAnyCheckpoint() {
+        // Arrange
+        Instant at = Instant.now().minus(1, ChronoUnit.MINUTES).truncatedTo(ChronoUnit.MICROS);
+        Instant before = at.minus(1, ChronoUnit.DAYS);
+        when(checkpointRepository.findLatestAtOrBefore("1", at))
+                .thenReturn(new BalanceCheckpoint("1", before, new BigDecimal("100.00"), 4));
+        when(scanRepository.findBalance("1")).thenReturn(new BigDecimal("900.00"));
+        when(scanRepository.sumNetFlowsAfter(List.of("1"), at)).thenReturn(Map.of("1", new BigDecimal("25.00")));
+
+        // Act
+        HistoricalBalance balance = service.getBalanceAt("1", at);
+
+        // Assert
+        Assertions.assertEquals(new BigDecimal("875.00"), balance.getBalance());
+        Assertions.assertNull(balance.getCheckpointTakenAt());
+    }
+
+    @Test
+    public void getBalanceAt_shouldThrow_whenThereIsNeitherAnAccountNorACheckpoint() {
+        // Act & Assert
+        Assertions.assertThrows(AccountNotFoundException.class,
+                () -> service.getBalanceAt("missing", Instant.now().minus(1, ChronoUnit.DAYS)));
+    }
+}
@@ -0,0 +1,18 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.exception.InvalidAccountException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PaymentHistoryServiceTest {
+
+    @Test
+    public void checkPage_shouldRejectPagesBeyondTheHistoryDepth_withoutOverflowing() {
+        // Act & Assert
+        Assertions.assertDoesNotThrow(() -> PaymentHistoryService.checkPage("1", 199, 500));
+        Assertions.assertThrows(InvalidAccountException.class,
+                () -> PaymentHistoryService.checkPage("1", 200, 500));
+        Assertions.assertThrows(InvalidAccountException.class,
+                () -> PaymentHistoryService.checkPage("1", Integer.MAX_VALUE, 500));
+    }
+}
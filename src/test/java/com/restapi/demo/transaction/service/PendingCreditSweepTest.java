@@ -0,0 +1,56 @@
+package com.restapi.demo.transaction.service;
+
+import com.restapi.demo.transaction.exception.AccountNotFoundException;
+import com.restapi.demo.transaction.model.Payment;
+import com.restapi.demo.transaction.repository.PaymentRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PendingCreditSweepTest {
+
+    @Test
+    public void settleStalePendingCredits_shouldCreditReceiverOrRefundSenderIfReceiverIsGone() {
+        // Arrange
+        AccountMailboxes accountMailboxes = Mockito.mock(AccountMailboxes.class);
+        PaymentRepository paymentRepository = Mockito.mock(PaymentRepository.class);
+        PendingCreditSweep sweep = new PendingCreditSweep(accountMailboxes, paymentRepository, 0, 10);
+        Payment credited = payment(1, "2");
+        Payment refunded = payment(2, "deleted");
+        List<Payment> pending = List.of(credited, refunded);
+        when(paymentRepository.findPendingCredits(anyLong(), anyLong(), any(Instant.class), any()))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(0);
+                    long upToId = invocation.getArgument(1);
+                    return pending.stream().filter(p -> p.getId() > afterId && p.getId() <= upToId).toList();
+                });
+        when(accountMailboxes.credit(refunded)).thenThrow(new AccountNotFoundException("Account not found"));
+
+        // Act
+        sweep.settleStalePendingCredits();
+
+        // Assert
+        verify(accountMailboxes).credit(credited);
+        verify(accountMailboxes, never()).refund(credited);
+        verify(accountMailboxes).refund(refunded);
+    }
+
+    private static Payment payment(long id, String to) {
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setFromAccount("1");
+        payment.setToAccount(to);
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setStatus(Payment.STATUS_PENDING_CREDIT);
+        return payment;
+    }
+}
@@ -0,0 +1,31 @@
+package com.restapi.demo.transaction.startup;
+
+import com.restapi.demo.transaction.archive.PaymentArchiveJob;
+import com.restapi.demo.transaction.scheduling.ScheduledPaymentScheduler;
+import com.restapi.demo.transaction.service.AccountService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+public class FastStartupConfigurationTest {
+
+    @Test
+    public void eagerStartupBeans_shouldExcludeScheduledAndLifecycleBeansOnly() {
+        // Arrange
+        LazyInitializationExcludeFilter filter = FastStartupConfiguration.eagerStartupBeans();
+
+        // Act
+        boolean archiveJob = filter.isExcluded("paymentArchiveJob",
+                new RootBeanDefinition(PaymentArchiveJob.class), PaymentArchiveJob.class);
+        boolean scheduler = filter.isExcluded("scheduledPaymentScheduler",
+                new RootBeanDefinition(ScheduledPaymentScheduler.class), ScheduledPaymentScheduler.class);
+        boolean accountService = filter.isExcluded("accountService",
+                new RootBeanDefinition(AccountService.class), AccountService.class);
+
+        // Assert
+        Assertions.assertTrue(archiveJob);
+        Assertions.assertTrue(scheduler);
+        Assertions.assertFalse(accountService);
+    }
+}
@@ -0,0 +1,44 @@
+package com.restapi.demo.transaction.startup;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+public class StartupReportTest {
+
+    @Test
+    public void describe_shouldListPhasesAndBeansNotCreatedAsDependencies() {
+        // Arrange
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(100);
+        StartupStep refresh = startup.start("spring.context.refresh");
+        StartupStep service = startup.start("spring.beans.instantiate").tag("beanName", "accountService");
+        startup.start("spring.beans.instantiate").tag("beanName", "accountRepository").end();
+        service.end();
+        refresh.end();
+        StartupReport report = new StartupReport(true, 10, System.currentTimeMillis());
+
+        // Act
+        String description = report.describe(startup.drainBufferedTimeline());
+
+        // Assert
+        Assertions.assertTrue(description.contains("spring.context.refresh"), description);
+        Assertions.assertTrue(description.contains("accountService"), description);
+        Assertions.assertFalse(description.contains("accountRepository"), description);
+    }
+
+    @Test
+    public void recordSuccessfulRequest_shouldOnlyRecordFirstRequest() {
+        // Arrange
+        StartupReport report = new StartupReport(false, 10, System.currentTimeMillis());
+        boolean recordedBefore = report.isFirstRequestRecorded();
+
+        // Act
+        report.recordSuccessfulRequest("GET", "/v1/accounts");
+        report.recordSuccessfulRequest("GET", "/v1/accounts");
+
+        // Assert
+        Assertions.assertFalse(recordedBefore);
+        Assertions.assertTrue(report.isFirstRequestRecorded());
+    }
+}